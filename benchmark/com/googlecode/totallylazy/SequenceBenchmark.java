@@ -0,0 +1,124 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.numbers.Numbers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.googlecode.totallylazy.Sequences.sequence;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequenceBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] values;
+
+    @Setup
+    public void setup() {
+        values = new Integer[size];
+        for (int i = 0; i < size; i++) values[i] = i;
+    }
+
+    @Benchmark
+    public int plainLoop() {
+        int sum = 0;
+        for (Integer value : values) {
+            int doubled = value * 2;
+            if (doubled % 3 == 0) sum += doubled;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int mapFilterFold() {
+        return sequence(values).
+                map(value -> value * 2).
+                filter(value -> value % 3 == 0).
+                fold(0, (sum, value) -> sum + value);
+    }
+
+    @Benchmark
+    public int parallelMapFilterFold() {
+        return sequence(values).parallel().
+                map(value -> value * 2).
+                filter(value -> value % 3 == 0).
+                fold(0, (sum, value) -> sum + value, (a, b) -> a + b);
+    }
+
+    @Benchmark
+    public int deepPipeline() {
+        return sequence(values).
+                map(value -> value + 1).
+                filter(value -> value % 2 == 0).
+                map(value -> value * 3).
+                drop(1).
+                filter(value -> value % 5 != 0).
+                take(size).
+                fold(0, (sum, value) -> sum + value);
+    }
+
+    @Benchmark
+    public int flatMap() {
+        return sequence(values).
+                flatMap(value -> sequence(value, value)).
+                fold(0, (sum, value) -> sum + value);
+    }
+
+    @Benchmark
+    public int memoriseAndIterateTwice() {
+        Sequence<Integer> memorised = sequence(values).memorise();
+        return memorised.size() + memorised.fold(0, (sum, value) -> sum + value);
+    }
+
+    @Benchmark
+    public Sequence<Integer> sortBy() {
+        return sequence(values).sortBy(value -> -value).realise();
+    }
+
+    @Benchmark
+    public Sequence<Integer> sortByThenTake() {
+        return sequence(values).sortBy(value -> -value).take(10).realise();
+    }
+
+    @Benchmark
+    public Sequence<Integer> sortedTake() {
+        return sequence(values).bottomK(value -> -value, 10);
+    }
+
+    @Benchmark
+    public int groupByThenReduce() {
+        return sequence(values).groupBy(value -> value % 100).map(group -> group.reduce(Numbers.sum())).size();
+    }
+
+    @Benchmark
+    public int groupByReducer() {
+        return sequence(values).groupBy(value -> value % 100, Numbers.sum()).size();
+    }
+
+    // The key function runs size times here, against roughly 2 n log n times when called from a plain Comparator
+    @Benchmark
+    public Sequence<String> sortByExpensiveKey() {
+        return sequence(values).map(String::valueOf).sortBy(value -> Integer.parseInt(value) % 1000).realise();
+    }
+
+    @Benchmark
+    public Sequence<String> sortByExpensiveComparator() {
+        return sequence(values).map(String::valueOf).sortBy((a, b) -> Integer.compare(Integer.parseInt(a) % 1000, Integer.parseInt(b) % 1000)).realise();
+    }
+}
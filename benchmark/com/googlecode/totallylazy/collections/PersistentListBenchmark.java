@@ -0,0 +1,65 @@
+package com.googlecode.totallylazy.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class PersistentListBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"TreeList", "PersistentVector"})
+    public String implementation;
+
+    private PersistentList<Integer> list;
+    private int[] indexes;
+    private int index;
+
+    @Setup
+    public void setup() {
+        list = empty();
+        for (int i = 0; i < size; i++) list = list.append(i);
+        indexes = new int[1024];
+        Random random = new Random(42);
+        for (int i = 0; i < indexes.length; i++) indexes[i] = random.nextInt(size);
+    }
+
+    private PersistentList<Integer> empty() {
+        if (implementation.equals("TreeList")) return TreeList.treeList();
+        return PersistentVector.vector();
+    }
+
+    @Benchmark
+    public Integer get() {
+        return list.get(indexes[index++ & (indexes.length - 1)]);
+    }
+
+    @Benchmark
+    public PersistentList<Integer> append() {
+        return list.append(size);
+    }
+
+    @Benchmark
+    public long iterate() {
+        long total = 0;
+        for (Integer value : list) total += value;
+        return total;
+    }
+}
@@ -0,0 +1,87 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.Sequences;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class PersistentMapBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"AVLTree", "HashTreeMap", "HashTrieMap"})
+    public String implementation;
+
+    private PersistentMap<Integer, Integer> map;
+    private Integer[] keys;
+    private int index;
+
+    @Setup
+    public void setup() {
+        map = empty();
+        for (int i = 0; i < size; i++) map = map.insert(i, i);
+        keys = new Integer[1024];
+        Random random = new Random(42);
+        for (int i = 0; i < keys.length; i++) keys[i] = random.nextInt(size);
+    }
+
+    private PersistentMap<Integer, Integer> empty() {
+        if (implementation.equals("AVLTree")) return PersistentSortedMap.constructors.sortedMap();
+        if (implementation.equals("HashTrieMap")) return HashTrieMap.hashTrieMap();
+        return HashTreeMap.hashTreeMap();
+    }
+
+    private MapFactory<Integer, Integer, ? extends PersistentMap<Integer, Integer>> factory() {
+        if (implementation.equals("AVLTree")) return AVLTree.constructors.<Integer, Integer>factory();
+        if (implementation.equals("HashTrieMap")) return HashTrieMap.factory();
+        return HashTreeMap.factory();
+    }
+
+    private Integer nextKey() {
+        return keys[index++ & (keys.length - 1)];
+    }
+
+    @Benchmark
+    public Option<Integer> lookup() {
+        return map.lookup(nextKey());
+    }
+
+    @Benchmark
+    public PersistentMap<Integer, Integer> insertNewKey() {
+        return map.insert(size + nextKey(), 0);
+    }
+
+    @Benchmark
+    public PersistentMap<Integer, Integer> replaceExistingKey() {
+        return map.insert(nextKey(), 0);
+    }
+
+    @Benchmark
+    public PersistentMap<Integer, Integer> buildFromPairs() {
+        return factory().map(Sequences.sequence(keys).map(key -> Pair.pair(key, key)));
+    }
+
+    @Benchmark
+    public PersistentMap<Integer, Integer> delete() {
+        return map.delete(nextKey());
+    }
+}
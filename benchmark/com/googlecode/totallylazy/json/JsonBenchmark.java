@@ -0,0 +1,117 @@
+package com.googlecode.totallylazy.json;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"10", "1000"})
+    public int records;
+
+    private String document;
+    private byte[] bytes;
+    private Map<String, Object> parsed;
+
+    @Setup
+    public void setup() {
+        document = document(records);
+        bytes = document.getBytes(StandardCharsets.UTF_8);
+        parsed = Json.map(document);
+    }
+
+    static String document(int records) {
+        StringBuilder builder = new StringBuilder("{\"total\":").append(records).append(",\"results\":[");
+        for (int i = 0; i < records; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("{\"id\":").append(i).
+                    append(",\"name\":\"Customer \\\"").append(i).append("\\\"\"").
+                    append(",\"email\":\"customer").append(i).append("@example.com\"").
+                    append(",\"active\":").append(i % 2 == 0).
+                    append(",\"balance\":").append(i * 12.5).
+                    append(",\"tags\":[\"retail\",\"priority\",null]").
+                    append(",\"address\":{\"street\":\"").append(i).append(" High Street\",\"city\":\"London\",\"postcode\":\"N1 9GU\"}}");
+        }
+        return builder.append("]}").toString();
+    }
+
+    @Benchmark
+    public Map<String, Object> parseMap() {
+        return Json.map(document);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseBytes() {
+        return Json.map(bytes);
+    }
+
+    @Benchmark
+    public int parsePairs() {
+        return Json.<Object>pairs(new StringReader(document)).size();
+    }
+
+    @Benchmark
+    public Object pullParse() {
+        return JsonReader.jsonReader(document).value();
+    }
+
+    @Benchmark
+    public int pullSkip() {
+        JsonReader reader = JsonReader.jsonReader(document);
+        reader.skipValue();
+        return reader.peek().ordinal();
+    }
+
+    @Benchmark
+    public Results createRecord() {
+        return JsonRecord.create(Results.class, Json.map(document));
+    }
+
+    @Benchmark
+    public Results decodeRecord() {
+        return JsonRecord.parse(Results.class, JsonReader.jsonReader(ByteBuffer.wrap(bytes)));
+    }
+
+    @Benchmark
+    public String write() {
+        return Json.json(parsed);
+    }
+
+    @Benchmark
+    public int writeBytes() {
+        return Json.write(parsed, new ByteArrayOutputStream(bytes.length)).size();
+    }
+
+    public static class Results extends JsonRecord {
+        public int total;
+        public List<Customer> results;
+    }
+
+    public static class Customer extends JsonRecord {
+        public long id;
+        public String name;
+        public String email;
+        public List<String> tags;
+    }
+}
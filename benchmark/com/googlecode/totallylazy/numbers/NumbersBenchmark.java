@@ -0,0 +1,60 @@
+package com.googlecode.totallylazy.numbers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumbersBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private int[] values;
+
+    @Setup
+    public void setup() {
+        values = IntSequence.range(1, size).toArray();
+    }
+
+    @Benchmark
+    public long plainLoop() {
+        long sum = 0;
+        for (int value : values) if (value % 3 == 0) sum += value * 2;
+        return sum;
+    }
+
+    @Benchmark
+    public Number boxedNumbers() {
+        return Numbers.numbers(values).filter(value -> value.intValue() % 3 == 0).map(Numbers.multiply(2)).reduce(Numbers.sum());
+    }
+
+    @Benchmark
+    public long intSequence() {
+        return IntSequence.ints(values).filter(value -> value % 3 == 0).map(value -> value * 2).sum();
+    }
+
+    @Benchmark
+    public Number boxedRangeSum() {
+        return Numbers.range(1, size).reduce(Numbers.sum());
+    }
+
+    @Benchmark
+    public long intRangeSum() {
+        return IntSequence.range(1, size).sum();
+    }
+}
@@ -0,0 +1,112 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.json.Grammar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.googlecode.totallylazy.parser.Parsers.isChar;
+import static com.googlecode.totallylazy.parser.Parsers.or;
+import static com.googlecode.totallylazy.parser.Parsers.pattern;
+
+/**
+ * Arithmetic written the naive way ("term + expr | term - expr | term") backtracks over every nested bracket, which
+ * is exponential in the nesting depth unless the rules are memorised; the left recursive version only parses in
+ * packrat mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private static final Parser<BigDecimal> NUMBER = pattern("\\d+").map(BigDecimal::new);
+
+    @Param({"4", "12"})
+    public int depth;
+
+    private String expression;
+    private String json;
+    private Parser<BigDecimal> backtracking;
+    private Parser<BigDecimal> leftRecursive;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) builder.append(i).append("*(");
+        builder.append(depth);
+        for (int i = 0; i < depth; i++) builder.append("-1)+2");
+        expression = builder.toString();
+
+        StringBuilder document = new StringBuilder();
+        for (int i = 0; i < depth; i++) document.append("{\"level\": ").append(i).append(", \"values\": [1, 2.5, true, null, \"text\"], \"next\": ");
+        document.append("{}");
+        for (int i = 0; i < depth; i++) document.append('}');
+        json = document.toString();
+
+        backtracking = backtracking();
+        leftRecursive = leftRecursive();
+    }
+
+    private static Parser<BigDecimal> backtracking() {
+        ReferenceParser<BigDecimal> expression = Parsers.reference();
+        ReferenceParser<BigDecimal> term = Parsers.reference();
+        Parser<BigDecimal> factor = or(expression.between(isChar('('), isChar(')')), NUMBER);
+        term.set(or(factor.followedBy(isChar('*')).then(term).map(p -> p.first().multiply(p.second())), factor));
+        expression.set(or(
+                term.followedBy(isChar('+')).then(expression).map(p -> p.first().add(p.second())),
+                term.followedBy(isChar('-')).then(expression).map(p -> p.first().subtract(p.second())),
+                term));
+        return expression;
+    }
+
+    private static Parser<BigDecimal> leftRecursive() {
+        ReferenceParser<BigDecimal> expression = Parsers.reference();
+        ReferenceParser<BigDecimal> term = Parsers.reference();
+        Parser<BigDecimal> factor = or(expression.between(isChar('('), isChar(')')), NUMBER);
+        term.set(or(term.followedBy(isChar('*')).then(factor).map(p -> p.first().multiply(p.second())), factor));
+        expression.set(or(
+                expression.followedBy(isChar('+')).then(term).map(p -> p.first().add(p.second())),
+                expression.followedBy(isChar('-')).then(term).map(p -> p.first().subtract(p.second())),
+                term));
+        return expression.packrat();
+    }
+
+    @Benchmark
+    public BigDecimal backtrackingExpression() {
+        return backtracking.parse(expression).value();
+    }
+
+    @Benchmark
+    public BigDecimal packratExpression() {
+        return backtracking.packrat().parse(expression).value();
+    }
+
+    @Benchmark
+    public BigDecimal leftRecursiveExpression() {
+        return leftRecursive.parse(expression).value();
+    }
+
+    @Benchmark
+    public Map<String, Object> json() {
+        return Grammar.OBJECT.parse(json).value();
+    }
+
+    @Benchmark
+    public Map<String, Object> packratJson() {
+        return Grammar.OBJECT.packrat().parse(json).value();
+    }
+}
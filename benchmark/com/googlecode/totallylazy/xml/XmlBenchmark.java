@@ -0,0 +1,89 @@
+package com.googlecode.totallylazy.xml;
+
+import com.googlecode.totallylazy.xml.streaming.DomConverter;
+import com.googlecode.totallylazy.xml.streaming.XPath;
+import com.googlecode.totallylazy.xml.streaming.Xml;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.w3c.dom.Document;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlBenchmark {
+    @Param({"100", "10000"})
+    public int records;
+
+    private String feed;
+
+    @Setup
+    public void setup() {
+        feed = feed(records);
+    }
+
+    static String feed(int records) {
+        StringBuilder builder = new StringBuilder("<?xml version=\"1.0\"?><feed><header><generated>2014-01-01</generated></header><records>");
+        for (int i = 0; i < records; i++) {
+            builder.append("<record id=\"").append(i).append("\">").
+                    append("<name>Customer ").append(i).append("</name>").
+                    append("<email>customer").append(i).append("@example.com</email>").
+                    append("<address><street>").append(i).append(" High Street</street><city>London</city></address>").
+                    append("</record>");
+        }
+        return builder.append("</records></feed>").toString();
+    }
+
+    @Benchmark
+    public int streamingNodes() {
+        return Xml.nodes(new StringReader(feed), "record").size();
+    }
+
+    @Benchmark
+    public int streamingElements() {
+        return Xml.elements(new StringReader(feed), "record").size();
+    }
+
+    @Benchmark
+    public int streamingNodesViaContexts() {
+        return Xml.contexts(feed).filter(XPath.xpath(XPath.descendant("record"))).map(DomConverter::convert).size();
+    }
+
+    @Benchmark
+    public int streamingContexts() {
+        return Xml.contexts(feed).size();
+    }
+
+    @Benchmark
+    public int domSelectNodes() {
+        return com.googlecode.totallylazy.xml.Xml.selectNodes(com.googlecode.totallylazy.xml.Xml.document(feed), "//record").size();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String cachedXPathAcrossThreads(Record record) {
+        return com.googlecode.totallylazy.xml.Xml.selectContents(record.document, "/record/address/city");
+    }
+
+    // DOM documents are not safe to read from several threads, so each thread gets its own
+    @State(Scope.Thread)
+    public static class Record {
+        private final Document document = com.googlecode.totallylazy.xml.Xml.document("<record id=\"1\"><name>Customer</name><address><city>London</city></address></record>");
+    }
+}
@@ -2,7 +2,9 @@ package com.googlecode.totallylazy;
 
 import com.googlecode.totallylazy.concurrent.NamedExecutors;
 import com.googlecode.totallylazy.functions.*;
+import com.googlecode.totallylazy.iterators.ConcurrentIterator;
 
+import java.util.Iterator;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -13,18 +15,18 @@ import java.util.concurrent.TimeUnit;
 import static com.googlecode.totallylazy.Sequences.sequence;
 
 public final class Callers {
+    private static final Lazy<ExecutorService> executor = Lazy.lazy(() -> NamedExecutors.newCachedDaemonThreadPool(Callers.class));
+
     public static <T> Function0<T> callConcurrently(Callable<? extends T> callable) {
-        ExecutorService service = executorService();
-        try {
-            final Future<? extends T> future = service.submit(callable);
-            return () -> future.get();
-        } finally {
-            service.shutdown();
-        }
+        final Future<? extends T> future = executorService().submit(callable);
+        return () -> future.get();
     }
 
+    /**
+     * Long lived pool of daemon threads shared by every call that does not supply its own Executor
+     */
     private static ExecutorService executorService() {
-        return NamedExecutors.newCachedThreadPool(Callers.class);
+        return executor.value();
     }
 
     public static <T> Sequence<T> callConcurrently(final Callable<? extends T> first, final Callable<? extends T> second) {
@@ -49,12 +51,7 @@ public final class Callers {
     }
 
     public static <T> Sequence<T> callConcurrently(final Iterable<? extends Callable<? extends T>> callables) {
-        ExecutorService service = executorService();
-        try {
-            return callConcurrently(callables, service);
-        } finally {
-            service.shutdown();
-        }
+        return callConcurrently(callables, executorService());
     }
 
     public static <T> Sequence<T> callConcurrently(final Iterable<? extends Callable<? extends T>> callables, final Executor executor) {
@@ -64,6 +61,38 @@ public final class Callers {
                 map(Callers.<T>realiseFuture());
     }
 
+    /**
+     * Lazily calls at most maxInFlight callables at a time, yielding results in the same order as the callables
+     */
+    public static <T> Sequence<T> callConcurrently(final Iterable<? extends Callable<? extends T>> callables, final int maxInFlight) {
+        return callConcurrently(callables, executorService(), maxInFlight);
+    }
+
+    public static <T> Sequence<T> callConcurrently(final Iterable<? extends Callable<? extends T>> callables, final Executor executor, final int maxInFlight) {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return ConcurrentIterator.ordered(callables.iterator(), executor, maxInFlight);
+            }
+        };
+    }
+
+    /**
+     * Lazily calls at most maxInFlight callables at a time, yielding results in the order they complete
+     */
+    public static <T> Sequence<T> callAsCompleted(final Iterable<? extends Callable<? extends T>> callables, final int maxInFlight) {
+        return callAsCompleted(callables, executorService(), maxInFlight);
+    }
+
+    public static <T> Sequence<T> callAsCompleted(final Iterable<? extends Callable<? extends T>> callables, final Executor executor, final int maxInFlight) {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return ConcurrentIterator.completed(callables.iterator(), executor, maxInFlight);
+            }
+        };
+    }
+
     public static <T> Function1<FutureTask<T>, Future<T>> executeWith(final Executor executor) {
         return task -> {
             executor.execute(task);
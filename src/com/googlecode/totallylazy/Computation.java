@@ -6,20 +6,29 @@ import com.googlecode.totallylazy.iterators.SegmentIterator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static com.googlecode.totallylazy.functions.Callables.compose;
 import static com.googlecode.totallylazy.functions.Functions.returns;
 import static com.googlecode.totallylazy.Option.some;
+import static com.googlecode.totallylazy.LazyException.lazyException;
 import static com.googlecode.totallylazy.Unchecked.cast;
-import static com.googlecode.totallylazy.functions.Lazy1.lazy;
 
+/**
+ * A memorised lazy cons cell. The head and tail are computed at most once each and stored directly in this node
+ * (see {@link Once}), so a memorised element costs one small object rather than a pair of locked Lazy wrappers.
+ */
 public class Computation<T> extends Sequence<T> implements Segment<T>, Memory {
-    private final Lazy<Option<T>> head;
-    private final Lazy1<T, Computation<T>> tail;
+    private static final AtomicReferenceFieldUpdater<Computation<?>, Object> HEAD = cast(AtomicReferenceFieldUpdater.newUpdater(Computation.class, Object.class, "head"));
+    private static final AtomicReferenceFieldUpdater<Computation<?>, Object> TAIL = cast(AtomicReferenceFieldUpdater.newUpdater(Computation.class, Object.class, "tail"));
+    private final Callable<Option<T>> generator;
+    private final Function1<T, Computation<T>> next;
+    private volatile Object head;
+    private volatile Object tail;
 
-    private Computation(Callable<Option<T>> head, Function1<T, Computation<T>> tail) {
-        this.head = Lazy.lazy(head);
-        this.tail = lazy(tail);
+    private Computation(Callable<Option<T>> generator, Function1<T, Computation<T>> next) {
+        this.generator = generator;
+        this.next = next;
     }
 
     public static <T> Computation<T> computation1(Callable<Option<T>> callable, Function1<T, Computation<T>> next) {
@@ -59,10 +68,7 @@ public class Computation<T> extends Sequence<T> implements Segment<T>, Memory {
     }
 
     public static <T> Computation<T> memorise(final Iterable<? extends T> iterable) {
-        Lazy<? extends Iterator<? extends T>> iterator = Lazy.lazy(iterable::iterator);
-        return Computation.<T>computation1(
-                () -> Iterators.headOption(iterator.value()),
-                t -> memorise(iterator.value()));
+        return new Memorised<T>(Lazy.lazy(iterable::iterator)).computation();
     }
 
     public static <T> Computation<T> memoize(final Iterator<? extends T> values) {
@@ -70,9 +76,30 @@ public class Computation<T> extends Sequence<T> implements Segment<T>, Memory {
     }
 
     public static <T> Computation<T> memorise(final Iterator<? extends T> iterator) {
-        return Computation.<T>computation1(
-                () -> Iterators.headOption(iterator),
-                t -> memorise(iterator));
+        return new Memorised<T>(Functions.returns(iterator)).computation();
+    }
+
+    // One generator shared by every node of a memorised iterator rather than a pair of lambdas per node
+    private static final class Memorised<T> implements Callable<Option<T>>, Function1<T, Computation<T>> {
+        private final Function0<? extends Iterator<? extends T>> iterator;
+
+        private Memorised(Function0<? extends Iterator<? extends T>> iterator) {
+            this.iterator = iterator;
+        }
+
+        private Computation<T> computation() {
+            return new Computation<T>(this, this);
+        }
+
+        @Override
+        public Option<T> call() throws Exception {
+            return Iterators.headOption(iterator.call());
+        }
+
+        @Override
+        public Computation<T> call(T ignored) {
+            return computation();
+        }
     }
 
     public static <T> Function1<T, Computation<T>> generate(final Function1<? super T, ? extends Option<T>> callable) {
@@ -94,19 +121,40 @@ public class Computation<T> extends Sequence<T> implements Segment<T>, Memory {
         return Sequences.empty();
     }
 
+    // Non-capturing functions of the node, so reading an already memorised head or tail allocates nothing
+    private Option<T> memorisedHead() {
+        try {
+            return cast(Once.<Computation<?>, Object>call(HEAD, this, Computation::generate));
+        } catch (Exception e) {
+            throw lazyException(e);
+        }
+    }
+
+    private static <T> Option<T> generate(Computation<T> computation) throws Exception {
+        return computation.generator.call();
+    }
+
     @Override
     public boolean isEmpty() {
-        return head.apply().isEmpty();
+        return memorisedHead().isEmpty();
     }
 
     @Override
     public T head() {
-        return head.value().get();
+        return memorisedHead().get();
     }
 
     @Override
     public Computation<T> tail() throws NoSuchElementException {
-        return tail.apply(head());
+        try {
+            return cast(Once.<Computation<?>, Object>call(TAIL, this, Computation::next));
+        } catch (Exception e) {
+            throw lazyException(e);
+        }
+    }
+
+    private static <T> Computation<T> next(Computation<T> computation) throws Exception {
+        return computation.next.call(computation.head());
     }
 
     @Override
@@ -121,8 +169,8 @@ public class Computation<T> extends Sequence<T> implements Segment<T>, Memory {
 
     @Override
     public void close() {
-        head.close();
-        tail.close();
+        Once.clear(HEAD, this);
+        Once.clear(TAIL, this);
     }
 
 }
@@ -0,0 +1,115 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.comparators.AscendingComparator;
+import com.googlecode.totallylazy.comparators.DescendingComparator;
+import com.googlecode.totallylazy.comparators.NullComparator;
+import com.googlecode.totallylazy.functions.Function1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.googlecode.totallylazy.Callers.call;
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+/**
+ * Sorts by a key function calling it once per element rather than twice per comparison:
+ * the keys are computed into an array alongside the values, the positions are sorted by key and the values read back
+ * in that order (decorate-sort-undecorate). Integer, Long and Double keys are sorted as primitive longs,
+ * and large inputs use Arrays.parallelSort. Like Collections.sort the result is stable and null keys always come last.
+ */
+final class DecoratedSort {
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private DecoratedSort() {
+    }
+
+    static boolean supports(Comparator<?> comparator) {
+        return comparator instanceof AscendingComparator || comparator instanceof DescendingComparator;
+    }
+
+    static <T> List<T> sort(Iterable<? extends T> iterable, Comparator<? super T> comparator) {
+        boolean descending = comparator instanceof DescendingComparator;
+        Function1<? super T, ?> callable = descending
+                ? ((DescendingComparator<? super T, ?>) comparator).callable()
+                : ((AscendingComparator<? super T, ?>) comparator).callable();
+        Object[] values = Sequences.toList(iterable).toArray();
+        Object[] keys = new Object[values.length];
+        for (int i = 0; i < values.length; i++) keys[i] = call(callable, Unchecked.<T>cast(values[i]));
+        long[] primitives = primitives(keys, descending);
+        return primitives != null ? sortPrimitives(values, keys, primitives) : sortComparables(values, keys, descending);
+    }
+
+    // Integer keys are packed above their position so a plain long sort is also stable; wider keys sort positions by key
+    private static <T> List<T> sortPrimitives(Object[] values, Object[] keys, long[] primitives) {
+        int[] order = new int[values.length];
+        if (keys.length > 0 && keys[0] instanceof Integer) {
+            for (int i = 0; i < primitives.length; i++) primitives[i] = primitives[i] << 32 | i;
+            sort(primitives);
+            for (int i = 0; i < primitives.length; i++) order[i] = (int) primitives[i];
+        } else {
+            Integer[] positions = positions(values.length);
+            sort(positions, (a, b) -> Long.compare(primitives[a], primitives[b]));
+            for (int i = 0; i < positions.length; i++) order[i] = positions[i];
+        }
+        return undecorate(values, order);
+    }
+
+    private static <T> List<T> sortComparables(Object[] values, Object[] keys, boolean descending) {
+        Integer[] positions = positions(values.length);
+        sort(positions, descending
+                ? (a, b) -> NullComparator.compare(comparable(keys[b]), comparable(keys[a]), NullComparator.Direction.Down)
+                : (a, b) -> NullComparator.compare(comparable(keys[a]), comparable(keys[b]), NullComparator.Direction.Up));
+        int[] order = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) order[i] = positions[i];
+        return undecorate(values, order);
+    }
+
+    // Keys as longs that sort the same way, or null if they are not all Integers, all Longs or all Doubles
+    private static long[] primitives(Object[] keys, boolean descending) {
+        if (keys.length == 0) return null;
+        Class<?> type = keys[0] == null ? null : keys[0].getClass();
+        if (type != Integer.class && type != Long.class && type != Double.class) return null;
+        long[] result = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Object key = keys[i];
+            if (key == null || key.getClass() != type) return null;
+            long value;
+            if (type == Integer.class) value = (Integer) key;
+            else if (type == Long.class) value = (Long) key;
+            else {
+                long bits = Double.doubleToLongBits((Double) key);
+                value = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+            }
+            result[i] = descending ? ~value : value;
+        }
+        return result;
+    }
+
+    private static Comparable<Object> comparable(Object key) {
+        return cast(key);
+    }
+
+    private static Integer[] positions(int size) {
+        Integer[] positions = new Integer[size];
+        for (int i = 0; i < size; i++) positions[i] = i;
+        return positions;
+    }
+
+    private static void sort(long[] values) {
+        if (values.length >= PARALLEL_THRESHOLD) Arrays.parallelSort(values);
+        else Arrays.sort(values);
+    }
+
+    private static void sort(Integer[] positions, Comparator<Integer> comparator) {
+        if (positions.length >= PARALLEL_THRESHOLD) Arrays.parallelSort(positions, comparator);
+        else Arrays.sort(positions, comparator);
+    }
+
+    private static <T> List<T> undecorate(Object[] values, int[] order) {
+        List<T> result = new ArrayList<T>(order.length);
+        for (int position : order) result.add(Unchecked.<T>cast(values[position]));
+        return result;
+    }
+}
@@ -0,0 +1,204 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.collections.CloseableList;
+import com.googlecode.totallylazy.io.Serializer;
+import com.googlecode.totallylazy.iterators.StatefulIterator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static com.googlecode.totallylazy.LazyException.lazyException;
+import static com.googlecode.totallylazy.collections.CloseableList.constructors.closeableList;
+
+/**
+ * A merge sort that keeps at most runSize elements in memory: the source is cut into sorted runs which are spilled
+ * to temporary files and then lazily k-way merged. Sorting happens each time the sequence is iterated and the run
+ * files are deleted once the merge is exhausted, fails or is closed. Inputs that fit in a single run never touch the disk.
+ * <p>
+ * Closing the sequence closes every merge it has handed out that is still open, so an abandoned iteration does not
+ * leave its run files behind.
+ */
+final class ExternalSort<T> extends Sequence<T> implements Closeable {
+    static final int MAXIMUM_OPEN_RUNS = 128;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final Iterable<? extends T> iterable;
+    private final Comparator<? super T> comparator;
+    private final Serializer<T> serializer;
+    private final int runSize;
+    private final File directory;
+    private final CloseableList<Merge> merges = closeableList();
+
+    ExternalSort(Iterable<? extends T> iterable, Comparator<? super T> comparator, Serializer<T> serializer, int runSize, File directory) {
+        if (runSize < 1) throw new IllegalArgumentException("runSize must be positive");
+        this.iterable = iterable;
+        this.comparator = comparator;
+        this.serializer = serializer;
+        this.runSize = runSize;
+        this.directory = directory;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<? extends T> source = iterable.iterator();
+        List<T> run = sortedRun(source);
+        if (!source.hasNext()) return run.iterator();
+        List<File> runs = new ArrayList<File>();
+        try {
+            runs.add(write(run));
+            run = null;
+            while (source.hasNext()) runs.add(write(sortedRun(source)));
+            while (runs.size() > MAXIMUM_OPEN_RUNS) runs = mergeGroups(runs);
+            return merges.manage(new Merge(runs));
+        } catch (Exception e) {
+            delete(runs);
+            throw lazyException(e);
+        }
+    }
+
+    private List<T> sortedRun(Iterator<? extends T> source) {
+        List<T> run = new ArrayList<T>(Math.min(runSize, 1024));
+        while (run.size() < runSize && source.hasNext()) run.add(source.next());
+        Collections.sort(run, comparator);
+        return run;
+    }
+
+    // Not Files.temporaryFile: deleteOnExit would remember every run until the JVM exits, and runs are already
+    // deleted once merged, on failure and on close
+    private File runFile() throws IOException {
+        directory.mkdirs();
+        return File.createTempFile("sort", ".run", directory);
+    }
+
+    private File write(List<T> run) throws IOException {
+        File file = runFile();
+        try (DataOutputStream output = output(file)) {
+            output.writeInt(run.size());
+            for (T value : run) serializer.write(value, output);
+        } catch (IOException | RuntimeException e) {
+            Files.delete(file);
+            throw e;
+        }
+        return file;
+    }
+
+    // Too many runs to hold open at once: merge them in groups into fewer, longer runs
+    private List<File> mergeGroups(List<File> runs) throws IOException {
+        List<File> result = new ArrayList<File>();
+        for (int i = 0; i < runs.size(); i += MAXIMUM_OPEN_RUNS) {
+            List<File> group = runs.subList(i, Math.min(i + MAXIMUM_OPEN_RUNS, runs.size()));
+            File file = runFile();
+            result.add(file);
+            try (Merge merge = new Merge(new ArrayList<File>(group)); DataOutputStream output = output(file)) {
+                output.writeInt(merge.size);
+                while (merge.hasNext()) serializer.write(merge.next(), output);
+            } catch (IOException | RuntimeException e) {
+                delete(result);
+                throw e;
+            }
+        }
+        return result;
+    }
+
+    private static DataOutputStream output(File file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+    }
+
+    @Override
+    public void close() throws IOException {
+        merges.close();
+    }
+
+    private static void delete(List<File> files) {
+        for (File file : files) Files.delete(file);
+    }
+
+    private final class Run implements Comparable<Run> {
+        private final int index;
+        private final DataInputStream input;
+        private int remaining;
+        private T head;
+
+        private Run(int index, File file) throws IOException {
+            this.index = index;
+            this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            this.remaining = input.readInt();
+        }
+
+        private boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            head = serializer.read(input);
+            remaining--;
+            return true;
+        }
+
+        // Ties go to the earlier run so the sort stays stable
+        @Override
+        public int compareTo(Run other) {
+            int result = comparator.compare(head, other.head);
+            return result != 0 ? result : Integer.compare(index, other.index);
+        }
+    }
+
+    private final class Merge extends StatefulIterator<T> implements Closeable {
+        private final List<File> files;
+        private final List<Run> runs = new ArrayList<Run>();
+        private final PriorityQueue<Run> queue = new PriorityQueue<Run>();
+        private final int size;
+
+        private Merge(List<File> files) throws IOException {
+            this.files = files;
+            int size = 0;
+            try {
+                for (File file : files) {
+                    Run run = new Run(runs.size(), file);
+                    runs.add(run);
+                    size += run.remaining;
+                    if (run.advance()) queue.add(run);
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+            this.size = size;
+        }
+
+        @Override
+        protected T getNext() throws Exception {
+            try {
+                Run run = queue.poll();
+                if (run == null) {
+                    close();
+                    return finished();
+                }
+                T result = run.head;
+                if (run.advance()) queue.add(run);
+                return result;
+            } catch (Exception e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            for (Run run : runs) Closeables.safeClose(run.input);
+            runs.clear();
+            queue.clear();
+            delete(files);
+            merges.remove(this);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.functions.Function1;
+import com.googlecode.totallylazy.iterators.FusedIterator;
+import com.googlecode.totallylazy.predicates.Predicate;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+/**
+ * A chain of stateless map / filter stages over a source Iterable.
+ * Each map or filter call appends a stage instead of wrapping another iterator,
+ * so the whole chain is evaluated by a single FusedIterator when the sequence is consumed.
+ */
+final class FusedSequence<T> extends Sequence<T> {
+    private final Iterable<?> source;
+    private final Object[] stages;
+    private final boolean[] filters;
+
+    private FusedSequence(Iterable<?> source, Object[] stages, boolean[] filters) {
+        this.source = source;
+        this.stages = stages;
+        this.filters = filters;
+    }
+
+    static <T, S> Sequence<S> map(Iterable<? extends T> iterable, Function1<? super T, ? extends S> callable) {
+        return stage(iterable, callable, false);
+    }
+
+    static <T> Sequence<T> filter(Iterable<? extends T> iterable, Predicate<? super T> predicate) {
+        return stage(iterable, predicate, true);
+    }
+
+    private static <S> Sequence<S> stage(Iterable<?> iterable, Object stage, boolean filter) {
+        if (iterable instanceof FusedSequence) return ((FusedSequence<?>) iterable).then(stage, filter);
+        return new FusedSequence<S>(iterable, new Object[]{stage}, new boolean[]{filter});
+    }
+
+    private <S> FusedSequence<S> then(Object stage, boolean filter) {
+        Object[] newStages = Arrays.copyOf(stages, stages.length + 1);
+        boolean[] newFilters = Arrays.copyOf(filters, filters.length + 1);
+        newStages[stages.length] = stage;
+        newFilters[filters.length] = filter;
+        return new FusedSequence<S>(source, newStages, newFilters);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new FusedIterator<T>(source.iterator(), stages, filters);
+    }
+
+    /**
+     * Keeps the source splittable by replaying the stages on the ParallelSequence
+     */
+    @Override
+    public ParallelSequence<T> parallel() {
+        ParallelSequence<Object> result = Sequences.sequence(Unchecked.<Iterable<Object>>cast(source)).parallel();
+        for (int i = 0; i < stages.length; i++) {
+            result = filters[i] ?
+                    result.filter(Unchecked.<Predicate<Object>>cast(stages[i])) :
+                    result.map(Unchecked.<Function1<Object, Object>>cast(stages[i]));
+        }
+        return cast(result);
+    }
+}
@@ -0,0 +1,340 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.collections.CloseableList;
+import com.googlecode.totallylazy.functions.Combiner;
+import com.googlecode.totallylazy.functions.CurriedCombiner;
+import com.googlecode.totallylazy.functions.Function1;
+import com.googlecode.totallylazy.functions.Reducer;
+import com.googlecode.totallylazy.io.Serializer;
+import com.googlecode.totallylazy.iterators.EmptyIterator;
+import com.googlecode.totallylazy.iterators.ReadOnlyIterator;
+import com.googlecode.totallylazy.iterators.StatefulIterator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import static com.googlecode.totallylazy.Callers.call;
+import static com.googlecode.totallylazy.LazyException.lazyException;
+import static com.googlecode.totallylazy.Unchecked.cast;
+import static com.googlecode.totallylazy.collections.CloseableList.constructors.closeableList;
+
+/**
+ * Groups by key and reduces each group as elements arrive, so only one accumulated value per key is ever held
+ * rather than every element. Groups come out in the order their keys were first seen.
+ * <p>
+ * When given a key budget the table is spilled to temporary files (partitioned by key hash) every time it grows past
+ * the budget; the partitions are then read back one at a time and their partial results merged with the combiner.
+ * Spilled groups come out partition by partition rather than in first seen order. Closing the sequence deletes the
+ * partitions of any iteration that was not read to the end.
+ */
+final class HashAggregation<T, K, R> extends Sequence<Pair<K, R>> implements Closeable {
+    private static final int PARTITION_BITS = 4;
+    private static final int PARTITIONS = 1 << PARTITION_BITS;
+    private static final int MAXIMUM_DEPTH = Integer.SIZE / PARTITION_BITS;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final Iterable<? extends T> iterable;
+    private final Function1<? super T, ? extends K> key;
+    private final Reducer<? super T, R> reducer;
+    private final int expectedKeys;
+    private final int maximumKeys;
+    private final Serializer<Pair<K, R>> serializer;
+    private final File directory;
+    private final CloseableList<Spill.Partitions> partitions = closeableList();
+
+    HashAggregation(Iterable<? extends T> iterable, Function1<? super T, ? extends K> key, Reducer<? super T, R> reducer, int expectedKeys) {
+        this(iterable, key, reducer, expectedKeys, Integer.MAX_VALUE, null, null);
+    }
+
+    HashAggregation(Iterable<? extends T> iterable, Function1<? super T, ? extends K> key, Combiner<? super T, R> combiner, Serializer<Pair<K, R>> serializer, int maximumKeys, File directory) {
+        this(iterable, key, combiner, Math.min(maximumKeys, Table.DEFAULT_SIZE), maximumKeys, serializer, directory);
+    }
+
+    private HashAggregation(Iterable<? extends T> iterable, Function1<? super T, ? extends K> key, Reducer<? super T, R> reducer, int expectedKeys, int maximumKeys, Serializer<Pair<K, R>> serializer, File directory) {
+        if (expectedKeys < 0) throw new IllegalArgumentException("expectedKeys must not be negative");
+        if (maximumKeys < 1) throw new IllegalArgumentException("maximumKeys must be positive");
+        this.iterable = iterable;
+        this.key = key;
+        this.reducer = reducer;
+        this.expectedKeys = expectedKeys;
+        this.maximumKeys = maximumKeys;
+        this.serializer = serializer;
+        this.directory = directory;
+    }
+
+    /**
+     * Reduces each chunk of a parallel sequence into its own table and merges the tables in encounter order
+     */
+    static <T, K, R> CurriedCombiner<T, Table<K, R>> combiner(final Function1<? super T, ? extends K> key, final Combiner<? super T, R> combiner) {
+        return new CurriedCombiner<T, Table<K, R>>() {
+            @Override
+            public Table<K, R> call(Table<K, R> table, T value) throws Exception {
+                table.reduce(key.call(value), value, combiner);
+                return table;
+            }
+
+            @Override
+            public Table<K, R> combine(Table<K, R> a, Table<K, R> b) throws Exception {
+                for (int i = 0; i < b.size; i++) a.merge(cast(b.keys[i]), b.hashes[i], cast(b.values[i]), combiner);
+                return a;
+            }
+
+            @Override
+            public Table<K, R> identity() {
+                return new Table<K, R>(Table.DEFAULT_SIZE);
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Pair<K, R>> iterator() {
+        Table<K, R> table = new Table<K, R>(expectedKeys);
+        Spill spill = null;
+        try {
+            for (T value : iterable) {
+                table.reduce(call(key, value), value, reducer);
+                if (table.size > maximumKeys) {
+                    if (spill == null) spill = new Spill(0);
+                    spill.write(table);
+                    table = new Table<K, R>(expectedKeys);
+                }
+            }
+            if (spill == null) return table.iterator();
+            spill.write(table);
+            return partitions.manage(spill.read());
+        } catch (Exception e) {
+            if (spill != null) spill.delete();
+            throw lazyException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        partitions.close();
+    }
+
+    private Combiner<? super T, R> combiner() {
+        return cast(reducer);
+    }
+
+    // Each level of spilling partitions on the next PARTITION_BITS of the hash, taken from the top down
+    private final class Spill {
+        private final int depth;
+        private final File[] files = new File[PARTITIONS];
+        private final DataOutputStream[] outputs = new DataOutputStream[PARTITIONS];
+        private final int[] counts = new int[PARTITIONS];
+
+        private Spill(int depth) {
+            this.depth = depth;
+        }
+
+        private void write(Table<K, R> table) throws IOException {
+            for (int i = 0; i < table.size; i++) {
+                int partition = (table.hashes[i] >>> (Integer.SIZE - PARTITION_BITS * (depth + 1))) & (PARTITIONS - 1);
+                if (outputs[partition] == null) {
+                    files[partition] = partitionFile();
+                    outputs[partition] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(files[partition]), BUFFER_SIZE));
+                }
+                K key = cast(table.keys[i]);
+                R value = cast(table.values[i]);
+                serializer.write(Pair.pair(key, value), outputs[partition]);
+                counts[partition]++;
+            }
+        }
+
+        // Not Files.temporaryFile: deleteOnExit would remember every partition until the JVM exits, and partitions
+        // are already deleted once read back, on failure and on close
+        private File partitionFile() throws IOException {
+            directory.mkdirs();
+            return File.createTempFile("spill", ".partition", directory);
+        }
+
+        private Partitions read() throws IOException {
+            try {
+                for (DataOutputStream output : outputs) if (output != null) output.close();
+            } catch (IOException e) {
+                delete();
+                throw e;
+            }
+            return new Partitions();
+        }
+
+        private Iterator<Pair<K, R>> load(int partition) throws Exception {
+            if (files[partition] == null) return new EmptyIterator<Pair<K, R>>();
+            Table<K, R> table = new Table<K, R>(Math.min(counts[partition], expectedKeys));
+            Spill deeper = null;
+            try {
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(files[partition]), BUFFER_SIZE))) {
+                    for (int i = 0; i < counts[partition]; i++) {
+                        Pair<K, R> pair = serializer.read(input);
+                        table.merge(pair.first(), Table.hash(pair.first()), pair.second(), combiner());
+                        if (table.size > maximumKeys && depth + 1 < MAXIMUM_DEPTH) {
+                            if (deeper == null) deeper = new Spill(depth + 1);
+                            deeper.write(table);
+                            table = new Table<K, R>(expectedKeys);
+                        }
+                    }
+                } finally {
+                    Files.delete(files[partition]);
+                    files[partition] = null;
+                }
+                if (deeper == null) return table.iterator();
+                deeper.write(table);
+                return deeper.read();
+            } catch (Exception e) {
+                if (deeper != null) deeper.delete();
+                throw e;
+            }
+        }
+
+        private void delete() {
+            for (int i = 0; i < PARTITIONS; i++) {
+                if (outputs[i] != null) Closeables.safeClose(outputs[i]);
+                if (files[i] != null) Files.delete(files[i]);
+                outputs[i] = null;
+                files[i] = null;
+            }
+        }
+
+        // Reads the partitions back one at a time; closing it deletes the ones (and any deeper spill) not yet read
+        private final class Partitions extends StatefulIterator<Pair<K, R>> implements Closeable {
+            private int partition = 0;
+            private Iterator<Pair<K, R>> current = new EmptyIterator<Pair<K, R>>();
+
+            @Override
+            protected Pair<K, R> getNext() throws Exception {
+                try {
+                    while (!current.hasNext()) {
+                        if (partition == PARTITIONS) {
+                            close();
+                            return finished();
+                        }
+                        current = load(partition++);
+                    }
+                    return current.next();
+                } catch (Exception e) {
+                    close();
+                    throw e;
+                }
+            }
+
+            @Override
+            public void close() {
+                if (current instanceof Closeable) Closeables.safeClose((Closeable) current);
+                current = new EmptyIterator<Pair<K, R>>();
+                partition = PARTITIONS;
+                delete();
+                partitions.remove(this);
+            }
+        }
+    }
+
+    /**
+     * An insertion ordered open addressing hash table: keys, hashes and values are kept densely in arrays
+     * in the order they were added, and a linear probing table of ints points into them.
+     */
+    static final class Table<K, R> implements Iterable<Pair<K, R>> {
+        static final int DEFAULT_SIZE = 16;
+        private Object[] keys;
+        private Object[] values;
+        private int[] hashes;
+        private int[] slots;
+        private int size;
+
+        Table(int expectedKeys) {
+            int capacity = Math.max(expectedKeys, 4);
+            keys = new Object[capacity];
+            values = new Object[capacity];
+            hashes = new int[capacity];
+            slots = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        }
+
+        // Spread so that both the low bits (used for slots) and the high bits (used to partition spills) vary
+        static int hash(Object key) {
+            int hash = Objects.hashCode(key) * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+
+        void reduce(Object key, Object value, Reducer<?, R> reducer) throws Exception {
+            int hash = hash(key);
+            int slot = slot(key, hash);
+            int index = slots[slot] == 0 ? add(slot, key, hash, reducer.identity()) : slots[slot] - 1;
+            values[index] = reducer.call(Unchecked.<R>cast(values[index]), cast(value));
+        }
+
+        void merge(K key, int hash, R value, Combiner<?, R> combiner) throws Exception {
+            int slot = slot(key, hash);
+            if (slots[slot] == 0) add(slot, key, hash, value);
+            else {
+                int index = slots[slot] - 1;
+                values[index] = combiner.combine(Unchecked.<R>cast(values[index]), value);
+            }
+        }
+
+        @Override
+        public Iterator<Pair<K, R>> iterator() {
+            return new ReadOnlyIterator<Pair<K, R>>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size;
+                }
+
+                @Override
+                public Pair<K, R> next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    K key = cast(keys[index]);
+                    R value = cast(values[index]);
+                    index++;
+                    return Pair.pair(key, value);
+                }
+            };
+        }
+
+        private int slot(Object key, int hash) {
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+            while (true) {
+                int index = slots[slot] - 1;
+                if (index < 0 || (hashes[index] == hash && Objects.equals(keys[index], key))) return slot;
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        // Returns the index of the new entry: slots may have been rehashed so the slot is no longer valid
+        private int add(int slot, Object key, int hash, Object value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            hashes[size] = hash;
+            slots[slot] = ++size;
+            if (size * 2 > slots.length) rehash();
+            return size - 1;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int index = 0; index < size; index++) {
+                int slot = hashes[index] & mask;
+                while (slots[slot] != 0) slot = (slot + 1) & mask;
+                slots[slot] = index + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.iterators.ReadOnlyIterator;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+/**
+ * Memorises a source into a linked list of array chunks (16 slots growing to 1024) so each remembered element
+ * costs roughly one array slot rather than a Computation cell.
+ * <p>
+ * Elements are still pulled from the source one at a time on demand, so memorising stays as lazy as before.
+ * A MemorisedSequence is a position in the chunk list: tail() is O(1) and shares the chunks,
+ * and chunks behind every live position can be garbage collected.
+ * <p>
+ * forget() drops what has been remembered but carries on from where the source got to, rather than reading an
+ * Iterable again, so elements already seen are not produced a second time.
+ */
+final class MemorisedSequence<T> extends Sequence<T> implements Memory {
+    private static final int INITIAL_CHUNK_SIZE = 16;
+    private static final int MAXIMUM_CHUNK_SIZE = 1024;
+    // Chunk and index are published together so close() can never be seen half done
+    private volatile Cursor cursor;
+
+    private MemorisedSequence(Chunk chunk, int index) {
+        this.cursor = new Cursor(chunk, index);
+    }
+
+    static <T> MemorisedSequence<T> memorise(Iterable<? extends T> iterable) {
+        return new MemorisedSequence<T>(new Chunk(new Source(iterable, null), INITIAL_CHUNK_SIZE), 0);
+    }
+
+    static <T> MemorisedSequence<T> memorise(Iterator<? extends T> iterator) {
+        return new MemorisedSequence<T>(new Chunk(new Source(null, iterator), INITIAL_CHUNK_SIZE), 0);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Cursor start = cursor;
+        return new ReadOnlyIterator<T>() {
+            private Chunk current = start.chunk;
+            private int position = start.index;
+
+            @Override
+            public boolean hasNext() {
+                return current.available(position);
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                T value = cast(current.values[position]);
+                if (++position == current.values.length) {
+                    current = current.next();
+                    position = 0;
+                }
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public boolean isEmpty() {
+        Cursor current = cursor;
+        return !current.chunk.available(current.index);
+    }
+
+    @Override
+    public T head() {
+        Cursor current = cursor;
+        if (!current.chunk.available(current.index)) throw new NoSuchElementException();
+        return cast(current.chunk.values[current.index]);
+    }
+
+    @Override
+    public Option<T> headOption() {
+        return isEmpty() ? Option.<T>none() : Option.some(head());
+    }
+
+    @Override
+    public Sequence<T> tail() {
+        Cursor current = cursor;
+        Chunk chunk = current.chunk;
+        int position = current.index;
+        if (!chunk.available(position)) throw new NoSuchElementException();
+        if (position + 1 == chunk.values.length) return new MemorisedSequence<T>(chunk.next(), 0);
+        return new MemorisedSequence<T>(chunk, position + 1);
+    }
+
+    @Override
+    public void forget() {
+        close();
+    }
+
+    @Override
+    public void close() {
+        cursor = new Cursor(new Chunk(cursor.chunk.source, INITIAL_CHUNK_SIZE), 0);
+    }
+
+    private static final class Cursor {
+        private final Chunk chunk;
+        private final int index;
+
+        private Cursor(Chunk chunk, int index) {
+            this.chunk = chunk;
+            this.index = index;
+        }
+    }
+
+    private static final class Source {
+        private final Iterable<?> iterable;
+        private Iterator<?> iterator;
+
+        private Source(Iterable<?> iterable, Iterator<?> iterator) {
+            this.iterable = iterable;
+            this.iterator = iterator;
+        }
+
+        private Iterator<?> iterator() {
+            if (iterator == null) iterator = iterable.iterator();
+            return iterator;
+        }
+    }
+
+    private static final class Chunk {
+        private final Source source;
+        private final Object[] values;
+        private volatile int count;
+        private volatile Chunk next;
+
+        private Chunk(Source source, int size) {
+            this.source = source;
+            this.values = new Object[size];
+        }
+
+        // Only the last chunk is ever partially filled, so filling always appends to this chunk
+        private boolean available(int position) {
+            if (position < count) return true;
+            synchronized (source) {
+                Iterator<?> iterator = source.iterator();
+                while (count <= position) {
+                    if (!iterator.hasNext()) return false;
+                    values[count] = iterator.next();
+                    count = count + 1;
+                }
+                return true;
+            }
+        }
+
+        private Chunk next() {
+            Chunk result = next;
+            if (result != null) return result;
+            synchronized (source) {
+                if (next == null) next = new Chunk(source, Math.min(values.length * 2, MAXIMUM_CHUNK_SIZE));
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.comparators.BoundedHeap;
+import com.googlecode.totallylazy.functions.Combiner;
+import com.googlecode.totallylazy.functions.Count;
+import com.googlecode.totallylazy.functions.Function1;
+import com.googlecode.totallylazy.functions.Function2;
+import com.googlecode.totallylazy.iterators.ArrayIterator;
+import com.googlecode.totallylazy.iterators.RandomAccessIterator;
+import com.googlecode.totallylazy.iterators.RangerIterator;
+import com.googlecode.totallylazy.numbers.Numbers;
+import com.googlecode.totallylazy.predicates.Predicate;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+import static com.googlecode.totallylazy.predicates.Predicates.not;
+
+/**
+ * A Sequence evaluated in chunks on a ForkJoinPool.
+ * <p>
+ * Array, RandomAccess list (including TreeList) and integral range sources are split recursively by index,
+ * any other Iterable is read sequentially in batches of {@link #chunkSize(int)} elements which are then processed in parallel.
+ * Intermediate operations (map, filter, flatMap) are applied per chunk; terminal operations combine the chunk results
+ * in encounter order, so a {@link Combiner} only needs to be associative.
+ */
+public final class ParallelSequence<T> {
+    static final int DEFAULT_CHUNK_SIZE = 1024;
+    private final Source<Object> source;
+    private final Function1<Sequence<Object>, Sequence<T>> pipeline;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    private ParallelSequence(Source<?> source, Function1<? super Sequence<Object>, ? extends Sequence<T>> pipeline, ForkJoinPool pool, int chunkSize) {
+        this.source = cast(source);
+        this.pipeline = cast(pipeline);
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    private static <T> ParallelSequence<T> parallel(Source<T> source) {
+        return new ParallelSequence<T>(source, chunk -> Unchecked.<Sequence<T>>cast(chunk), ForkJoinPool.commonPool(), 0);
+    }
+
+    public static <T> ParallelSequence<T> parallel(final T[] values) {
+        return parallel(new IndexedSource<T>(values.length, (from, to) -> new ArrayIterator<T>(values, from, to)));
+    }
+
+    public static <T> ParallelSequence<T> parallel(final Iterable<? extends T> iterable) {
+        if (iterable instanceof List && iterable instanceof RandomAccess) {
+            List<? extends T> list = cast(iterable);
+            return parallel(new IndexedSource<T>(list.size(), (from, to) -> new RandomAccessIterator<T>(list, from, to)));
+        }
+        return parallel(new BatchedSource<T>(iterable));
+    }
+
+    /**
+     * Inclusive range of integral numbers
+     */
+    public static ParallelSequence<Number> range(final Number start, final Number end) {
+        int size = Numbers.subtract(end, start).intValue() + 1;
+        return parallel(new IndexedSource<Number>(Math.max(size, 0), (from, to) ->
+                new RangerIterator(Numbers.add(start, from), Numbers.add(start, to))));
+    }
+
+    public ParallelSequence<T> pool(ForkJoinPool pool) {
+        return new ParallelSequence<T>(source, pipeline, pool, chunkSize);
+    }
+
+    public ParallelSequence<T> chunkSize(int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive");
+        return new ParallelSequence<T>(source, pipeline, pool, chunkSize);
+    }
+
+    private <S> ParallelSequence<S> then(Function1<? super Sequence<T>, ? extends Sequence<S>> stage) {
+        return new ParallelSequence<S>(source, pipeline.then(stage), pool, chunkSize);
+    }
+
+    public <S> ParallelSequence<S> map(final Function1<? super T, ? extends S> callable) {
+        return then(chunk -> chunk.map(callable));
+    }
+
+    public ParallelSequence<T> filter(final Predicate<? super T> predicate) {
+        return then(chunk -> chunk.filter(predicate));
+    }
+
+    public ParallelSequence<T> reject(final Predicate<? super T> predicate) {
+        return filter(not(predicate));
+    }
+
+    public <S> ParallelSequence<S> flatMap(final Function1<? super T, ? extends Iterable<? extends S>> callable) {
+        return then(chunk -> chunk.flatMap(callable));
+    }
+
+    /**
+     * Folds each chunk starting from the seed and merges the chunk results with the combiner.
+     * The seed is shared by every chunk so must be an immutable identity of the combiner.
+     */
+    public <R> R fold(final R seed, final Function2<? super R, ? super T, ? extends R> reducer, final Function2<? super R, ? super R, ? extends R> combiner) {
+        return source.fold(pool, chunkSize, iterator -> pipeline.call(Sequences.forwardOnly(iterator)).fold(seed, reducer), cast(combiner));
+    }
+
+    public <R> R reduce(final Combiner<? super T, R> combiner) {
+        return source.fold(pool, chunkSize, iterator -> pipeline.call(Sequences.forwardOnly(iterator)).fold(combiner.identity(), combiner), combiner::combine);
+    }
+
+    /**
+     * Selects the k smallest elements of each chunk with a bounded heap and merges the heaps,
+     * giving the same result as a stable sortBy(comparator).take(k)
+     */
+    public Sequence<T> sortedTake(final Comparator<? super T> comparator, final int k) {
+        return Sequences.sequence(reduce(BoundedHeap.constructors.<T>smallest(comparator, k)).toSortedList());
+    }
+
+    public Sequence<T> topK(final Comparator<? super T> comparator, final int k) {
+        return Sequences.sequence(reduce(BoundedHeap.constructors.<T>largest(comparator, k)).toSortedList());
+    }
+
+    public Sequence<T> bottomK(final Comparator<? super T> comparator, final int k) {
+        return sortedTake(comparator, k);
+    }
+
+    /**
+     * Reduces every chunk into its own table of groups and merges the tables with the combiner
+     */
+    public <K, R> Sequence<Pair<K, R>> groupBy(final Function1<? super T, ? extends K> callable, final Combiner<? super T, R> combiner) {
+        return Sequences.sequence(reduce(HashAggregation.<T, K, R>combiner(callable, combiner)));
+    }
+
+    public int size() {
+        return reduce(Count.count()).intValue();
+    }
+
+    public ParallelSequence<T> each(final Function1<? super T, ?> runnable) {
+        source.fold(pool, chunkSize, iterator -> {
+            pipeline.call(Sequences.forwardOnly(iterator)).each(runnable);
+            return null;
+        }, (a, b) -> null);
+        return this;
+    }
+
+    public List<T> toList() {
+        return reduce(Lists.functions.<T>add());
+    }
+
+    /**
+     * Eagerly evaluates the chunks in parallel and returns the results, in order, as a plain Sequence
+     */
+    public Sequence<T> sequential() {
+        return Sequences.sequence(toList());
+    }
+
+    private interface Source<T> {
+        <R> R fold(ForkJoinPool pool, int chunkSize, Function1<Iterator<T>, R> chunk, Function2<R, R, R> combiner);
+    }
+
+    private static final class IndexedSource<T> implements Source<T> {
+        private final int size;
+        private final Function2<Integer, Integer, Iterator<T>> slice;
+
+        private IndexedSource(int size, Function2<Integer, Integer, Iterator<T>> slice) {
+            this.size = size;
+            this.slice = slice;
+        }
+
+        @Override
+        public <R> R fold(ForkJoinPool pool, int chunkSize, Function1<Iterator<T>, R> chunk, Function2<R, R, R> combiner) {
+            int threshold = chunkSize > 0 ? chunkSize : Math.max(size / (pool.getParallelism() * 4), 1);
+            return pool.invoke(new Split<R>(0, size, threshold, chunk, combiner));
+        }
+
+        @SuppressWarnings("serial")
+        private final class Split<R> extends RecursiveTask<R> {
+            private final int from, to, threshold;
+            private final Function1<Iterator<T>, R> chunk;
+            private final Function2<R, R, R> combiner;
+
+            private Split(int from, int to, int threshold, Function1<Iterator<T>, R> chunk, Function2<R, R, R> combiner) {
+                this.from = from;
+                this.to = to;
+                this.threshold = threshold;
+                this.chunk = chunk;
+                this.combiner = combiner;
+            }
+
+            @Override
+            protected R compute() {
+                if (to - from <= threshold) return chunk.apply(slice.apply(from, to));
+                int middle = (from + to) >>> 1;
+                Split<R> left = new Split<R>(from, middle, threshold, chunk, combiner);
+                left.fork();
+                R right = new Split<R>(middle, to, threshold, chunk, combiner).compute();
+                return combiner.apply(left.join(), right);
+            }
+        }
+    }
+
+    private static final class BatchedSource<T> implements Source<T> {
+        private static final int BATCHES_PER_THREAD = 4;
+        private final Iterable<? extends T> iterable;
+
+        private BatchedSource(Iterable<? extends T> iterable) {
+            this.iterable = iterable;
+        }
+
+        /**
+         * Reads ahead at most a few batches per thread, folding the oldest in as the window fills, so memory stays
+         * bounded however long the source is
+         */
+        @Override
+        public <R> R fold(ForkJoinPool pool, int chunkSize, Function1<Iterator<T>, R> chunk, Function2<R, R, R> combiner) {
+            int size = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+            int window = pool.getParallelism() * BATCHES_PER_THREAD;
+            Deque<ForkJoinTask<R>> inFlight = new ArrayDeque<ForkJoinTask<R>>();
+            Iterator<? extends T> iterator = iterable.iterator();
+            R result = null;
+            boolean folded = false;
+            while (iterator.hasNext() || !inFlight.isEmpty()) {
+                if (inFlight.size() == window || !iterator.hasNext()) {
+                    R next = inFlight.poll().join();
+                    result = folded ? combiner.apply(result, next) : next;
+                    folded = true;
+                    continue;
+                }
+                Object[] batch = new Object[size];
+                int count = 0;
+                while (count < size && iterator.hasNext()) batch[count++] = iterator.next();
+                Iterator<T> values = new ArrayIterator<T>(Unchecked.<T[]>cast(batch), 0, count);
+                inFlight.add(pool.submit(() -> chunk.apply(values)));
+            }
+            return folded ? result : chunk.apply(new ArrayIterator<T>(Unchecked.<T[]>cast(new Object[0])));
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package com.googlecode.totallylazy;
 
 
-import com.googlecode.totallylazy.reflection.Fields;
+import com.googlecode.totallylazy.reflection.Accessors;
 
 import java.util.AbstractMap;
 import java.util.Set;
 
-import static com.googlecode.totallylazy.reflection.Fields.nonSyntheticFields;
+import static com.googlecode.totallylazy.reflection.Accessors.accessors;
 import static com.googlecode.totallylazy.Pair.pair;
 import static com.googlecode.totallylazy.Sets.set;
 import static java.util.Collections.unmodifiableSet;
@@ -14,6 +14,16 @@ import static java.util.Collections.unmodifiableSet;
 public abstract class Record extends AbstractMap<String, Object> {
     @Override
     public Set<Entry<String, Object>> entrySet() {
-        return unmodifiableSet(set(nonSyntheticFields(getClass()).map(f -> pair(f.getName(), Fields.get(f, Record.this)))));
+        Accessors accessors = accessors(getClass());
+        Set<Entry<String, Object>> entries = set();
+        for (int i = 0; i < accessors.size(); i++) entries.add(pair(accessors.name(i), accessors.get(i, this)));
+        return unmodifiableSet(entries);
+    }
+
+    @Override
+    public Object get(Object key) {
+        Accessors accessors = accessors(getClass());
+        int index = key instanceof String ? accessors.indexOf((String) key) : -1;
+        return index < 0 ? null : accessors.get(index, this);
     }
 }
@@ -6,7 +6,9 @@ import com.googlecode.totallylazy.collections.PersistentCollection;
 import com.googlecode.totallylazy.collections.PersistentList;
 import com.googlecode.totallylazy.functions.*;
 import com.googlecode.totallylazy.predicates.Predicate;
+import com.googlecode.totallylazy.io.Serializer;
 
+import java.io.File;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Deque;
@@ -75,6 +77,22 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
         return Sequences.mapConcurrently(this, callable, executor);
     }
 
+    public <S> Sequence<S> mapConcurrently(final Function1<? super T, S> callable, final int maxInFlight) {
+        return Sequences.mapConcurrently(this, callable, maxInFlight);
+    }
+
+    public <S> Sequence<S> mapConcurrently(final Function1<? super T, S> callable, final Executor executor, final int maxInFlight) {
+        return Sequences.mapConcurrently(this, callable, executor, maxInFlight);
+    }
+
+    public <S> Sequence<S> mapAsCompleted(final Function1<? super T, S> callable, final int maxInFlight) {
+        return Sequences.mapAsCompleted(this, callable, maxInFlight);
+    }
+
+    public <S> Sequence<S> mapAsCompleted(final Function1<? super T, S> callable, final Executor executor, final int maxInFlight) {
+        return Sequences.mapAsCompleted(this, callable, executor, maxInFlight);
+    }
+
     @Override
     public <S> Sequence<S> map(final Function1<? super T, ? extends S> callable) {
         return Sequences.map(this, callable);
@@ -415,6 +433,41 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
         return Sequences.sortBy(this, comparator);
     }
 
+    /**
+     * Lazily sorts with at most runSize elements in memory, spilling sorted runs to temporary files.
+     * The result is Closeable: closing it deletes the runs of any iteration that was not read to the end.
+     */
+    public Sequence<T> sortBy(final Comparator<? super T> comparator, final Serializer<T> serializer, final int runSize) {
+        return Sequences.sortBy(this, comparator, serializer, runSize);
+    }
+
+    public Sequence<T> sortBy(final Comparator<? super T> comparator, final Serializer<T> serializer, final int runSize, final File directory) {
+        return Sequences.sortBy(this, comparator, serializer, runSize, directory);
+    }
+
+    /**
+     * The same as sortBy(comparator).take(k) but only ever holds k elements, in O(n log k) time
+     */
+    public Sequence<T> sortedTake(final Comparator<? super T> comparator, final int k) {
+        return Sequences.sortedTake(this, comparator, k);
+    }
+
+    public Sequence<T> topK(final Comparator<? super T> comparator, final int k) {
+        return Sequences.topK(this, comparator, k);
+    }
+
+    public <R extends Comparable<? super R>> Sequence<T> topK(final Function1<? super T, ? extends R> callable, final int k) {
+        return Sequences.topK(this, callable, k);
+    }
+
+    public Sequence<T> bottomK(final Comparator<? super T> comparator, final int k) {
+        return Sequences.bottomK(this, comparator, k);
+    }
+
+    public <R extends Comparable<? super R>> Sequence<T> bottomK(final Function1<? super T, ? extends R> callable, final int k) {
+        return Sequences.bottomK(this, callable, k);
+    }
+
     public <S> Sequence<S> safeCast(final Class<? extends S> aClass) {
         return Sequences.safeCast(this, aClass);
     }
@@ -443,6 +496,22 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
         return Sequences.groupBy(this, callable);
     }
 
+    public <K, R> Sequence<Pair<K, R>> groupBy(final Function1<? super T, ? extends K> callable, final Reducer<? super T, R> reducer) {
+        return Sequences.groupBy(this, callable, reducer);
+    }
+
+    public <K, R> Sequence<Pair<K, R>> groupBy(final Function1<? super T, ? extends K> callable, final Reducer<? super T, R> reducer, final int expectedKeys) {
+        return Sequences.groupBy(this, callable, reducer, expectedKeys);
+    }
+
+    public <K, R> Sequence<Pair<K, R>> groupBy(final Function1<? super T, ? extends K> callable, final Combiner<? super T, R> combiner, final Serializer<Pair<K, R>> serializer, final int maximumKeys) {
+        return Sequences.groupBy(this, callable, combiner, serializer, maximumKeys);
+    }
+
+    public <K, R> Sequence<Pair<K, R>> groupBy(final Function1<? super T, ? extends K> callable, final Combiner<? super T, R> combiner, final Serializer<Pair<K, R>> serializer, final int maximumKeys, final File directory) {
+        return Sequences.groupBy(this, callable, combiner, serializer, maximumKeys, directory);
+    }
+
     public Sequence<Sequence<T>> recursive(final Function1<Sequence<T>, Pair<Sequence<T>, Sequence<T>>> callable) {
         return Sequences.recursive(this, callable);
     }
@@ -471,6 +540,10 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
         return Sequences.shuffle(this);
     }
 
+    public ParallelSequence<T> parallel() {
+        return Sequences.parallel(this);
+    }
+
     public Sequence<T> interruptable() {
         return Sequences.interruptable(this);
     }
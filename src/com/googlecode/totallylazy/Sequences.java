@@ -1,6 +1,7 @@
 package com.googlecode.totallylazy;
 
 import com.googlecode.totallylazy.collections.PersistentList;
+import com.googlecode.totallylazy.comparators.BoundedHeap;
 import com.googlecode.totallylazy.comparators.Comparators;
 import com.googlecode.totallylazy.functions.*;
 import com.googlecode.totallylazy.iterators.ArrayIterator;
@@ -16,7 +17,9 @@ import com.googlecode.totallylazy.iterators.TripleIterator;
 import com.googlecode.totallylazy.predicates.Predicate;
 import com.googlecode.totallylazy.predicates.Predicates;
 import com.googlecode.totallylazy.predicates.UniquePredicate;
+import com.googlecode.totallylazy.io.Serializer;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
@@ -60,6 +63,11 @@ public class Sequences {
             public final Iterator<T> iterator() {
                 return cast(iterable.iterator());
             }
+
+            @Override
+            public ParallelSequence<T> parallel() {
+                return Sequences.parallel(iterable);
+            }
         };
     }
 
@@ -112,6 +120,11 @@ public class Sequences {
             public final Iterator<T> iterator() {
                 return new ArrayIterator<T>(items);
             }
+
+            @Override
+            public ParallelSequence<T> parallel() {
+                return ParallelSequence.parallel(items);
+            }
         };
     }
 
@@ -148,7 +161,7 @@ public class Sequences {
     }
 
     public static <T> Sequence<T> memorise(final Iterator<? extends T> iterator) {
-        return Computation.memorise(iterator);
+        return MemorisedSequence.memorise(iterator);
     }
 
     public static <T> ForwardOnlySequence<T> forwardOnly(final Iterator<? extends T> iterator) {
@@ -173,11 +186,7 @@ public class Sequences {
     }
 
     public static <T, S> Sequence<S> map(final Iterable<? extends T> iterable, final Function1<? super T, ? extends S> callable) {
-        return new Sequence<S>() {
-            public final Iterator<S> iterator() {
-                return Iterators.map(iterable.iterator(), callable);
-            }
-        };
+        return FusedSequence.map(iterable, callable);
     }
 
     public static <T> Pair<Sequence<T>, Sequence<T>> partition(final Iterable<? extends T> iterable, final Predicate<? super T> predicate) {
@@ -185,11 +194,7 @@ public class Sequences {
     }
 
     public static <T> Sequence<T> filter(final Iterable<? extends T> iterable, final Predicate<? super T> predicate) {
-        return new Sequence<T>() {
-            public final Iterator<T> iterator() {
-                return Iterators.filter(iterable.iterator(), predicate);
-            }
-        };
+        return FusedSequence.filter(iterable, predicate);
     }
 
     public static <T> Sequence<T> reject(final Iterable<? extends T> iterable, final Predicate<? super T> predicate) {
@@ -383,6 +388,7 @@ public class Sequences {
     }
 
     public static <T> List<T> toSortedList(final Iterable<? extends T> iterable, final Comparator<? super T> comparator) {
+        if (DecoratedSort.supports(comparator)) return DecoratedSort.sort(iterable, comparator);
         List<T> result = toList(iterable);
         Collections.sort(result, comparator);
         return result;
@@ -526,7 +532,7 @@ public class Sequences {
     }
 
     public static <T> Sequence<T> memorise(final Iterable<? extends T> iterable) {
-        return Computation.memorise(iterable);
+        return MemorisedSequence.memorise(iterable);
     }
 
     public static <F, S> Sequence<Pair<F, S>> zip(final Iterable<? extends F> first, final Iterable<? extends S> second) {
@@ -614,6 +620,53 @@ public class Sequences {
         return sequence(toSortedList(iterable, comparator));
     }
 
+    public static <T> Sequence<T> sortBy(final Iterable<? extends T> iterable, final Comparator<? super T> comparator, final Serializer<T> serializer, final int runSize) {
+        return sortBy(iterable, comparator, serializer, runSize, Files.TEMP_DIR);
+    }
+
+    public static <T> Sequence<T> sortBy(final Iterable<? extends T> iterable, final Comparator<? super T> comparator, final Serializer<T> serializer, final int runSize, final File directory) {
+        return new ExternalSort<T>(iterable, comparator, serializer, runSize, directory);
+    }
+
+    /**
+     * The first k elements of sortBy(comparator), selected with a bounded heap in O(n log k) time and O(k) memory
+     */
+    public static <T> Sequence<T> sortedTake(final Iterable<? extends T> iterable, final Comparator<? super T> comparator, final int k) {
+        BoundedHeap<T> heap = BoundedHeap.boundedHeap(comparator, k);
+        for (T value : iterable) heap.add(value);
+        return sequence(heap.toSortedList());
+    }
+
+    /**
+     * The k largest elements, largest first
+     */
+    public static <T> Sequence<T> topK(final Iterable<? extends T> iterable, final Comparator<? super T> comparator, final int k) {
+        return sortedTake(iterable, Collections.reverseOrder(comparator), k);
+    }
+
+    public static <T, R extends Comparable<? super R>> Sequence<T> topK(final Iterable<? extends T> iterable, final Function1<? super T, ? extends R> callable, final int k) {
+        return topK(iterable, ascending(callable), k);
+    }
+
+    public static <T extends Comparable<? super T>> Sequence<T> topK(final Iterable<? extends T> iterable, final int k) {
+        return topK(iterable, Comparators.<T>ascending(), k);
+    }
+
+    /**
+     * The k smallest elements, smallest first
+     */
+    public static <T> Sequence<T> bottomK(final Iterable<? extends T> iterable, final Comparator<? super T> comparator, final int k) {
+        return sortedTake(iterable, comparator, k);
+    }
+
+    public static <T, R extends Comparable<? super R>> Sequence<T> bottomK(final Iterable<? extends T> iterable, final Function1<? super T, ? extends R> callable, final int k) {
+        return bottomK(iterable, ascending(callable), k);
+    }
+
+    public static <T extends Comparable<? super T>> Sequence<T> bottomK(final Iterable<? extends T> iterable, final int k) {
+        return bottomK(iterable, Comparators.<T>ascending(), k);
+    }
+
     public static <T extends Comparable<? super T>> Sequence<T> sort(final Iterable<? extends T> iterable) {
         return sort(iterable, Comparators.<T>ascending());
     }
@@ -662,10 +715,53 @@ public class Sequences {
         return callConcurrently(sequence(iterable).map(deferReturn(callable)), executor);
     }
 
+    public static <T, S> Sequence<S> mapConcurrently(final Iterable<? extends T> iterable, final Function1<? super T, ? extends S> callable, final int maxInFlight) {
+        return Callers.callConcurrently(sequence(iterable).map(deferReturn(callable)), maxInFlight);
+    }
+
+    public static <T, S> Sequence<S> mapConcurrently(final Iterable<? extends T> iterable, final Function1<? super T, ? extends S> callable, final Executor executor, final int maxInFlight) {
+        return Callers.callConcurrently(sequence(iterable).map(deferReturn(callable)), executor, maxInFlight);
+    }
+
+    public static <T, S> Sequence<S> mapAsCompleted(final Iterable<? extends T> iterable, final Function1<? super T, ? extends S> callable, final int maxInFlight) {
+        return Callers.callAsCompleted(sequence(iterable).map(deferReturn(callable)), maxInFlight);
+    }
+
+    public static <T, S> Sequence<S> mapAsCompleted(final Iterable<? extends T> iterable, final Function1<? super T, ? extends S> callable, final Executor executor, final int maxInFlight) {
+        return Callers.callAsCompleted(sequence(iterable).map(deferReturn(callable)), executor, maxInFlight);
+    }
+
+    public static <T> ParallelSequence<T> parallel(final Iterable<? extends T> iterable) {
+        return ParallelSequence.parallel(iterable);
+    }
+
     public static <T, K> Sequence<Group<K, T>> groupBy(final Iterable<? extends T> iterable, final Function1<? super T, ? extends K> callable) {
         return Iterators.groupBy(iterable.iterator(), callable);
     }
 
+    /**
+     * Reduces each group as it goes rather than collecting the elements of every group first
+     */
+    public static <T, K, R> Sequence<Pair<K, R>> groupBy(final Iterable<? extends T> iterable, final Function1<? super T, ? extends K> callable, final Reducer<? super T, R> reducer) {
+        return groupBy(iterable, callable, reducer, 16);
+    }
+
+    public static <T, K, R> Sequence<Pair<K, R>> groupBy(final Iterable<? extends T> iterable, final Function1<? super T, ? extends K> callable, final Reducer<? super T, R> reducer, final int expectedKeys) {
+        return new HashAggregation<T, K, R>(iterable, callable, reducer, expectedKeys);
+    }
+
+    /**
+     * Holds at most maximumKeys groups in memory, spilling partial results to temporary files and combining them afterwards.
+     * The result is Closeable: closing it deletes the spilled partitions of any iteration that was not read to the end.
+     */
+    public static <T, K, R> Sequence<Pair<K, R>> groupBy(final Iterable<? extends T> iterable, final Function1<? super T, ? extends K> callable, final Combiner<? super T, R> combiner, final Serializer<Pair<K, R>> serializer, final int maximumKeys) {
+        return groupBy(iterable, callable, combiner, serializer, maximumKeys, Files.TEMP_DIR);
+    }
+
+    public static <T, K, R> Sequence<Pair<K, R>> groupBy(final Iterable<? extends T> iterable, final Function1<? super T, ? extends K> callable, final Combiner<? super T, R> combiner, final Serializer<Pair<K, R>> serializer, final int maximumKeys, final File directory) {
+        return new HashAggregation<T, K, R>(iterable, callable, combiner, serializer, maximumKeys, directory);
+    }
+
     public static boolean equalTo(Iterable<?> iterable, Iterable<?> other) {
         return Iterators.equalsTo(iterable.iterator(), other.iterator());
     }
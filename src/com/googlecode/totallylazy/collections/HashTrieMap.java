@@ -0,0 +1,555 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.Unchecked;
+import com.googlecode.totallylazy.functions.Function2;
+import com.googlecode.totallylazy.functions.Functions;
+import com.googlecode.totallylazy.iterators.ReadOnlyIterator;
+import com.googlecode.totallylazy.predicates.Predicate;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+/**
+ * A hash array mapped trie (in the compressed CHAMP layout): each node holds a 32-way bitmap of inlined entries
+ * followed by a bitmap of child nodes, so lookup, insert and delete are O(log32 n) with no boxing of the hash.
+ * Keys with identical hash codes end up in a collision node once all 32 bits of the hash are used.
+ * <p>
+ * {@link #transientMap()} allows a batch of changes to be made in place before handing back a persistent map.
+ */
+public class HashTrieMap<K, V> extends AbstractMap<K, V> {
+    private static final HashTrieMap<?, ?> empty = new HashTrieMap<Object, Object>(BitmapNode.empty, 0);
+    private final Node root;
+    private final int size;
+
+    private HashTrieMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static <K, V> HashTrieMapFactory<K, V> factory() {
+        return HashTrieMapFactory.factory();
+    }
+
+    public static <K, V> HashTrieMap<K, V> hashTrieMap() {
+        return cast(empty);
+    }
+
+    public static <K, V> HashTrieMap<K, V> hashTrieMap(Iterable<? extends Pair<K, V>> values) {
+        Transient<K, V> result = HashTrieMap.<K, V>hashTrieMap().transientMap();
+        for (Pair<K, V> pair : values) result.insert(pair.first(), pair.second());
+        return result.persistent();
+    }
+
+    public Transient<K, V> transientMap() {
+        return new Transient<K, V>(root, size);
+    }
+
+    @Override
+    public HashTrieMap<K, V> empty() {
+        return hashTrieMap();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Pair<K, V> head() throws NoSuchElementException {
+        return iterator().next();
+    }
+
+    @Override
+    public Option<Pair<K, V>> headOption() {
+        if (isEmpty()) return Option.none();
+        return Option.some(head());
+    }
+
+    @Override
+    public HashTrieMap<K, V> cons(Pair<K, V> head) {
+        return insert(head.first(), head.second());
+    }
+
+    @Override
+    public HashTrieMap<K, V> tail() throws NoSuchElementException {
+        return delete(head().first());
+    }
+
+    @Override
+    public Option<V> lookup(K key) {
+        Object result = root.find(key, key.hashCode(), 0);
+        return result == Node.NOT_FOUND ? Option.<V>none() : Option.some(Unchecked.<V>cast(result));
+    }
+
+    @Override
+    public boolean contains(Object other) {
+        return root.find(other, other.hashCode(), 0) != Node.NOT_FOUND;
+    }
+
+    @Override
+    public HashTrieMap<K, V> insert(K key, V value) {
+        Change change = new Change();
+        Node result = root.insert(null, key, value, key.hashCode(), 0, change);
+        if (result == root) return this;
+        return new HashTrieMap<K, V>(result, change.replaced ? size : size + 1);
+    }
+
+    @Override
+    public HashTrieMap<K, V> delete(K key) {
+        Change change = new Change();
+        Node result = root.delete(null, key, key.hashCode(), 0, change);
+        if (!change.modified) return this;
+        return new HashTrieMap<K, V>(result, size - 1);
+    }
+
+    @Override
+    public <S> S fold(S seed, Function2<? super S, ? super Pair<K, V>, ? extends S> callable) {
+        S result = seed;
+        for (Pair<K, V> pair : this) result = Functions.call(callable, result, pair);
+        return result;
+    }
+
+    @Override
+    public boolean exists(Predicate<? super K> predicate) {
+        for (Pair<K, V> pair : this) if (predicate.matches(pair.first())) return true;
+        return false;
+    }
+
+    @Override
+    public Iterator<Pair<K, V>> iterator() {
+        return new TrieIterator<Pair<K, V>>(root) {
+            @Override
+            protected Pair<K, V> entry(Object key, Object value) {
+                return Pair.pair(Unchecked.<K>cast(key), Unchecked.<V>cast(value));
+            }
+        };
+    }
+
+    Iterator<K> keyIterator() {
+        return new TrieIterator<K>(root) {
+            @Override
+            protected K entry(Object key, Object value) {
+                return cast(key);
+            }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (Pair<K, V> pair : this) result += pair.first().hashCode() ^ (pair.second() == null ? 0 : pair.second().hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof HashTrieMap)) return false;
+        HashTrieMap<?, ?> other = (HashTrieMap<?, ?>) obj;
+        if (size != other.size) return false;
+        for (Pair<K, V> pair : this) {
+            Object value = other.root.find(pair.first(), pair.first().hashCode(), 0);
+            if (value == Node.NOT_FOUND || !equal(value, pair.second())) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return toSequence().toString("");
+    }
+
+    /**
+     * A map that is changed in place, for building up a {@link HashTrieMap} in bulk.
+     * Nodes created by a Transient are owned by it and mutated directly; once {@link #persistent()} is called
+     * the Transient can no longer be used.
+     */
+    public static final class Transient<K, V> {
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+
+        private Transient(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        public Transient<K, V> insert(K key, V value) {
+            Change change = new Change();
+            root = root.insert(owner(), key, value, key.hashCode(), 0, change);
+            if (change.modified && !change.replaced) size++;
+            return this;
+        }
+
+        public Transient<K, V> delete(K key) {
+            Change change = new Change();
+            root = root.delete(owner(), key, key.hashCode(), 0, change);
+            if (change.modified) size--;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public HashTrieMap<K, V> persistent() {
+            owner();
+            edit = null;
+            return size == 0 ? HashTrieMap.<K, V>hashTrieMap() : new HashTrieMap<K, V>(root, size);
+        }
+
+        private Object owner() {
+            if (edit == null) throw new IllegalMutationException();
+            return edit;
+        }
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static final class Change {
+        private boolean modified;
+        private boolean replaced;
+    }
+
+    private static abstract class Node {
+        static final Object NOT_FOUND = new Object();
+
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node insert(Object edit, Object key, Object value, int hash, int shift, Change change);
+
+        abstract Node delete(Object edit, Object key, int hash, int shift, Change change);
+
+        abstract int payloadArity();
+
+        abstract int nodeArity();
+
+        abstract Object key(int index);
+
+        abstract Object value(int index);
+
+        abstract Node node(int index);
+    }
+
+    private static final class BitmapNode extends Node {
+        private static final BitmapNode empty = new BitmapNode(null, 0, 0, new Object[0]);
+        private final Object edit;
+        private int dataMap;
+        private int nodeMap;
+        private Object[] content;
+
+        private BitmapNode(Object edit, int dataMap, int nodeMap, Object[] content) {
+            this.edit = edit;
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        private static int mask(int hash, int shift) {
+            return (hash >>> shift) & 31;
+        }
+
+        private static int index(int bitmap, int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private int nodeSlot(int bit) {
+            return content.length - 1 - index(nodeMap, bit);
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int bit = 1 << mask(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = index(dataMap, bit);
+                return content[2 * index].equals(key) ? content[2 * index + 1] : NOT_FOUND;
+            }
+            if ((nodeMap & bit) != 0) return ((Node) content[nodeSlot(bit)]).find(key, hash, shift + 5);
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node insert(Object edit, Object key, Object value, int hash, int shift, Change change) {
+            int bit = 1 << mask(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = index(dataMap, bit);
+                Object currentKey = content[2 * index];
+                if (currentKey.equals(key)) {
+                    if (content[2 * index + 1] == value) return this;
+                    change.modified = true;
+                    change.replaced = true;
+                    return editable(edit).set(2 * index + 1, value);
+                }
+                change.modified = true;
+                Node child = merge(edit, currentKey, content[2 * index + 1], currentKey.hashCode(), key, value, hash, shift + 5);
+                return inlineToNode(edit, bit, index, child);
+            }
+            if ((nodeMap & bit) != 0) {
+                int slot = nodeSlot(bit);
+                Node child = (Node) content[slot];
+                Node result = child.insert(edit, key, value, hash, shift + 5, change);
+                if (result == child) return this;
+                return editable(edit).set(slot, result);
+            }
+            change.modified = true;
+            return insertValue(edit, bit, key, value);
+        }
+
+        @Override
+        Node delete(Object edit, Object key, int hash, int shift, Change change) {
+            int bit = 1 << mask(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = index(dataMap, bit);
+                if (!content[2 * index].equals(key)) return this;
+                change.modified = true;
+                return removeValue(edit, bit, index);
+            }
+            if ((nodeMap & bit) != 0) {
+                int slot = nodeSlot(bit);
+                Node child = (Node) content[slot];
+                Node result = child.delete(edit, key, hash, shift + 5, change);
+                if (!change.modified) return this;
+                // Keep the trie canonical: a child left with a single entry is pulled back up into this node
+                if (result.payloadArity() == 1 && result.nodeArity() == 0) return nodeToInline(edit, bit, result.key(0), result.value(0));
+                return editable(edit).set(slot, result);
+            }
+            return this;
+        }
+
+        private BitmapNode editable(Object edit) {
+            if (edit != null && edit == this.edit) return this;
+            return new BitmapNode(edit, dataMap, nodeMap, content.clone());
+        }
+
+        private BitmapNode set(int slot, Object value) {
+            content[slot] = value;
+            return this;
+        }
+
+        private BitmapNode insertValue(Object edit, int bit, Object key, Object value) {
+            int index = 2 * index(dataMap, bit);
+            Object[] result = new Object[content.length + 2];
+            System.arraycopy(content, 0, result, 0, index);
+            result[index] = key;
+            result[index + 1] = value;
+            System.arraycopy(content, index, result, index + 2, content.length - index);
+            return update(edit, dataMap | bit, nodeMap, result);
+        }
+
+        private BitmapNode removeValue(Object edit, int bit, int index) {
+            Object[] result = new Object[content.length - 2];
+            System.arraycopy(content, 0, result, 0, 2 * index);
+            System.arraycopy(content, 2 * index + 2, result, 2 * index, content.length - 2 * index - 2);
+            return update(edit, dataMap ^ bit, nodeMap, result);
+        }
+
+        private BitmapNode inlineToNode(Object edit, int bit, int index, Node child) {
+            int oldSlot = 2 * index;
+            int newSlot = content.length - 2 - index(nodeMap, bit);
+            Object[] result = new Object[content.length - 1];
+            System.arraycopy(content, 0, result, 0, oldSlot);
+            System.arraycopy(content, oldSlot + 2, result, oldSlot, newSlot - oldSlot);
+            result[newSlot] = child;
+            System.arraycopy(content, newSlot + 2, result, newSlot + 1, content.length - newSlot - 2);
+            return update(edit, dataMap ^ bit, nodeMap | bit, result);
+        }
+
+        private BitmapNode nodeToInline(Object edit, int bit, Object key, Object value) {
+            int oldSlot = content.length - 1 - index(nodeMap, bit);
+            int newSlot = 2 * index(dataMap, bit);
+            Object[] result = new Object[content.length + 1];
+            System.arraycopy(content, 0, result, 0, newSlot);
+            result[newSlot] = key;
+            result[newSlot + 1] = value;
+            System.arraycopy(content, newSlot, result, newSlot + 2, oldSlot - newSlot);
+            System.arraycopy(content, oldSlot + 1, result, oldSlot + 2, content.length - oldSlot - 1);
+            return update(edit, dataMap | bit, nodeMap ^ bit, result);
+        }
+
+        private BitmapNode update(Object edit, int dataMap, int nodeMap, Object[] content) {
+            if (edit != null && edit == this.edit) {
+                this.dataMap = dataMap;
+                this.nodeMap = nodeMap;
+                this.content = content;
+                return this;
+            }
+            return new BitmapNode(edit, dataMap, nodeMap, content);
+        }
+
+        private static Node merge(Object edit, Object key0, Object value0, int hash0, Object key1, Object value1, int hash1, int shift) {
+            if (shift >= 32) return new CollisionNode(hash0, new Object[]{key0, value0, key1, value1});
+            int mask0 = mask(hash0, shift);
+            int mask1 = mask(hash1, shift);
+            if (mask0 != mask1) {
+                int dataMap = (1 << mask0) | (1 << mask1);
+                return mask0 < mask1
+                        ? new BitmapNode(edit, dataMap, 0, new Object[]{key0, value0, key1, value1})
+                        : new BitmapNode(edit, dataMap, 0, new Object[]{key1, value1, key0, value0});
+            }
+            Node child = merge(edit, key0, value0, hash0, key1, value1, hash1, shift + 5);
+            return new BitmapNode(edit, 0, 1 << mask0, new Object[]{child});
+        }
+
+        @Override
+        int payloadArity() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        int nodeArity() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Object key(int index) {
+            return content[2 * index];
+        }
+
+        @Override
+        Object value(int index) {
+            return content[2 * index + 1];
+        }
+
+        @Override
+        Node node(int index) {
+            return (Node) content[content.length - 1 - index];
+        }
+    }
+
+    // Only reached once every bit of the hash has been used, so all keys here share the same hash
+    private static final class CollisionNode extends Node {
+        private final int hash;
+        private final Object[] content;
+
+        private CollisionNode(int hash, Object[] content) {
+            this.hash = hash;
+            this.content = content;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < content.length; i += 2) if (content[i].equals(key)) return i;
+            return -1;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int index = indexOf(key);
+            return index < 0 ? NOT_FOUND : content[index + 1];
+        }
+
+        @Override
+        Node insert(Object edit, Object key, Object value, int hash, int shift, Change change) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (content[index + 1] == value) return this;
+                change.modified = true;
+                change.replaced = true;
+                Object[] result = content.clone();
+                result[index + 1] = value;
+                return new CollisionNode(this.hash, result);
+            }
+            change.modified = true;
+            Object[] result = Arrays.copyOf(content, content.length + 2);
+            result[content.length] = key;
+            result[content.length + 1] = value;
+            return new CollisionNode(this.hash, result);
+        }
+
+        @Override
+        Node delete(Object edit, Object key, int hash, int shift, Change change) {
+            int index = indexOf(key);
+            if (index < 0) return this;
+            change.modified = true;
+            Object[] result = new Object[content.length - 2];
+            System.arraycopy(content, 0, result, 0, index);
+            System.arraycopy(content, index + 2, result, index, content.length - index - 2);
+            return new CollisionNode(this.hash, result);
+        }
+
+        @Override
+        int payloadArity() {
+            return content.length / 2;
+        }
+
+        @Override
+        int nodeArity() {
+            return 0;
+        }
+
+        @Override
+        Object key(int index) {
+            return content[2 * index];
+        }
+
+        @Override
+        Object value(int index) {
+            return content[2 * index + 1];
+        }
+
+        @Override
+        Node node(int index) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    // Depth first: the inlined entries of a node, then its children. The trie is at most 8 levels deep.
+    private static abstract class TrieIterator<T> extends ReadOnlyIterator<T> {
+        private final Node[] nodes = new Node[8];
+        private final int[] children = new int[8];
+        private int depth = 0;
+        private Node current;
+        private int entry;
+
+        private TrieIterator(Node root) {
+            nodes[0] = root;
+            current = root;
+        }
+
+        protected abstract T entry(Object key, Object value);
+
+        @Override
+        public boolean hasNext() {
+            while (entry >= current.payloadArity()) {
+                if (!advance()) return false;
+            }
+            return true;
+        }
+
+        private boolean advance() {
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (children[depth] < node.nodeArity()) {
+                    Node child = node.node(children[depth]++);
+                    depth++;
+                    nodes[depth] = child;
+                    children[depth] = 0;
+                    current = child;
+                    entry = 0;
+                    return true;
+                }
+                depth--;
+            }
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            T result = entry(current.key(entry), current.value(entry));
+            entry++;
+            return result;
+        }
+    }
+}
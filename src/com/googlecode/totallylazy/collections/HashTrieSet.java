@@ -0,0 +1,130 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.Sequences;
+import com.googlecode.totallylazy.functions.Function2;
+import com.googlecode.totallylazy.functions.Functions;
+import com.googlecode.totallylazy.predicates.Predicate;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static com.googlecode.totallylazy.Option.some;
+
+public class HashTrieSet<T> extends AbstractCollection<T> implements PersistentSet<T> {
+    private final HashTrieMap<T, T> map;
+
+    private HashTrieSet(HashTrieMap<T, T> map) {
+        this.map = map;
+    }
+
+    public static <T> HashTrieSet<T> hashTrieSet(HashTrieMap<T, T> map) {
+        return new HashTrieSet<T>(map);
+    }
+
+    public static <T> HashTrieSet<T> hashTrieSet() {
+        return hashTrieSet(HashTrieMap.<T, T>hashTrieMap());
+    }
+
+    public static <T> HashTrieSet<T> hashTrieSet(Iterable<? extends T> values) {
+        HashTrieMap.Transient<T, T> result = HashTrieMap.<T, T>hashTrieMap().transientMap();
+        for (T value : values) result.insert(value, value);
+        return hashTrieSet(result.persistent());
+    }
+
+    @Override
+    public Option<T> lookup(T value) {
+        return map.lookup(value);
+    }
+
+    @Override
+    public HashTrieSet<T> empty() {
+        return hashTrieSet();
+    }
+
+    @Override
+    public HashTrieSet<T> cons(T head) {
+        return hashTrieSet(map.insert(head, head));
+    }
+
+    @Override
+    public HashTrieSet<T> delete(T value) {
+        return hashTrieSet(map.delete(value));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public T head() throws NoSuchElementException {
+        return iterator().next();
+    }
+
+    @Override
+    public Option<T> headOption() {
+        return isEmpty()
+                ? Option.<T>none()
+                : some(head());
+    }
+
+    @Override
+    public HashTrieSet<T> tail() throws NoSuchElementException {
+        return delete(head());
+    }
+
+    @Override
+    public boolean contains(Object other) {
+        return map.contains(other);
+    }
+
+    @Override
+    public boolean exists(Predicate<? super T> predicate) {
+        return map.exists(predicate);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return map.keyIterator();
+    }
+
+    @Override
+    public PersistentList<T> toPersistentList() {
+        return Sequences.sequence(this).toPersistentList();
+    }
+
+    @Override
+    public Set<T> toSet() {
+        return Sequences.sequence(this).toSet();
+    }
+
+    @Override
+    public <S> S fold(S seed, Function2<? super S, ? super T, ? extends S> callable) {
+        return map.fold(seed, (S s, Pair<T, T> pair) -> Functions.call(callable, s, pair.first()));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (T value : this) result += value.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof HashTrieSet)) return false;
+        HashTrieSet<?> set = (HashTrieSet<?>) other;
+        if (size() != set.size()) return false;
+        for (T value : this) if (!set.contains(value)) return false;
+        return true;
+    }
+}
@@ -81,7 +81,7 @@ public interface PersistentMap<K, V> extends Map<K, V>, Iterable<Pair<K, V>>, Se
 
     class constructors {
         public static <K, V> PersistentMap<K, V> map() {
-            return HashTreeMap.hashTreeMap();
+            return HashTrieMap.hashTrieMap();
         }
 
         public static <K, V> PersistentMap<K, V> emptyMap() {
@@ -118,7 +118,7 @@ public interface PersistentMap<K, V> extends Map<K, V>, Iterable<Pair<K, V>>, Se
         }
 
         public static <K, V> PersistentMap<K, V> map(final Iterable<? extends Pair<K, V>> values) {
-            return HashTreeMap.hashTreeMap(values);
+            return HashTrieMap.hashTrieMap(values);
         }
 
         public static <K, V> PersistentMap<K, V> map(final Map<K, V> values) {
@@ -11,6 +11,8 @@ import com.googlecode.totallylazy.Sequence;
 
 import java.util.Set;
 
+import static com.googlecode.totallylazy.Sequences.sequence;
+
 public interface PersistentSet<T> extends Set<T>, Iterable<T>, Segment<T>, PersistentCollection<T>, Foldable<T> {
     Option<T> lookup(T value);
 
@@ -29,7 +31,25 @@ public interface PersistentSet<T> extends Set<T>, Iterable<T>, Segment<T>, Persi
 
     Set<T> toSet();
 
+    class constructors {
+        public static <T> PersistentSet<T> set() {
+            return HashTrieSet.hashTrieSet();
+        }
+
+        public static <T> PersistentSet<T> emptySet() {
+            return set();
+        }
+
+        @SafeVarargs
+        @SuppressWarnings("varargs")
+        public static <T> PersistentSet<T> set(final T... values) {
+            return set(sequence(values));
+        }
 
+        public static <T> PersistentSet<T> set(final Iterable<? extends T> values) {
+            return HashTrieSet.hashTrieSet(values);
+        }
+    }
 
     class functions extends Segment.functions {
         public static <T> Function1<PersistentSet<T>,Option<T>> get(final T value) {
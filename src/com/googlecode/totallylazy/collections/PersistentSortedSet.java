@@ -91,7 +91,7 @@ public interface PersistentSortedSet<T> extends PersistentSet<T>, Sorted<T>, Ind
         }
 
         public static <A> PersistentSortedSet<A> sortedSet(Comparator<A> comparator, final Iterable<? extends A> values) {
-            return sequence(values).fold(constructors.<A>sortedSet(comparator), functions.<A, PersistentSortedSet<A>>cons());
+            return treeSet(PersistentSortedMap.constructors.sortedMap(comparator, sequence(values).map(value -> Pair.pair(value, value))));
         }
     }
 }
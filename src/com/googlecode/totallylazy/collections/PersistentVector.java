@@ -0,0 +1,376 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.functions.Function2;
+import com.googlecode.totallylazy.functions.Functions;
+import com.googlecode.totallylazy.iterators.ReadOnlyIterator;
+import com.googlecode.totallylazy.predicates.Predicate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import static com.googlecode.totallylazy.Option.some;
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+/**
+ * A bit-partitioned persistent vector: elements live in 32-way array nodes with the last (partial) leaf held
+ * separately as the tail, so get, append and update are O(log32 n) and most appends only copy the tail.
+ * <p>
+ * A PersistentVector is a [start, end) window onto the trie, which makes tail() and subList O(1).
+ * Appending to a window that ends early, or consing onto one that starts late, reuses the hidden slot;
+ * consing onto the very front has to rebuild the vector.
+ * Use {@link #transientVector()} to append many elements in place.
+ */
+public class PersistentVector<T> extends AbstractList<T> implements PersistentList<T>, RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final PersistentVector<?> empty = new PersistentVector<Object>(0, BITS, EMPTY_NODE, new Object[0], 0, 0);
+    private final int count;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+    private final int start;
+    private final int end;
+
+    private PersistentVector(int count, int shift, Object[] root, Object[] tail, int start, int end) {
+        this.count = count;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+        this.start = start;
+        this.end = end;
+    }
+
+    public static <T> PersistentVector<T> vector() {
+        return cast(empty);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> PersistentVector<T> vector(T... values) {
+        return vector(Arrays.asList(values));
+    }
+
+    public static <T> PersistentVector<T> vector(Iterable<? extends T> values) {
+        return PersistentVector.<T>vector().transientVector().appendAll(values).persistent();
+    }
+
+    public Transient<T> transientVector() {
+        if (start == 0 && end == count) return new Transient<T>(count, shift, root, tail);
+        return PersistentVector.<T>vector().transientVector().appendAll(this);
+    }
+
+    @Override
+    public PersistentVector<T> empty() {
+        return vector();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return start == end;
+    }
+
+    @Override
+    public int size() {
+        return end - start;
+    }
+
+    @Override
+    public T get(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(String.valueOf(index));
+        int i = start + index;
+        return cast(leafFor(i)[i & MASK]);
+    }
+
+    @Override
+    public T head() throws NoSuchElementException {
+        if (isEmpty()) throw new NoSuchElementException();
+        return get(0);
+    }
+
+    @Override
+    public Option<T> headOption() {
+        return isEmpty()
+                ? Option.<T>none()
+                : some(head());
+    }
+
+    @Override
+    public PersistentVector<T> tail() throws NoSuchElementException {
+        if (isEmpty()) throw new NoSuchElementException();
+        return window(start + 1, end);
+    }
+
+    @Override
+    public T last() {
+        if (isEmpty()) throw new NoSuchElementException();
+        return get(size() - 1);
+    }
+
+    @Override
+    public Option<T> lastOption() {
+        return isEmpty()
+                ? Option.<T>none()
+                : some(last());
+    }
+
+    @Override
+    public PersistentVector<T> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) throw new IndexOutOfBoundsException(fromIndex + " to " + toIndex);
+        return window(start + fromIndex, start + toIndex);
+    }
+
+    @Override
+    public PersistentVector<T> cons(T head) {
+        if (start > 0) return assoc(start - 1, head).window(start - 1, end);
+        return PersistentVector.<T>vector().transientVector().append(head).appendAll(this).persistent();
+    }
+
+    @Override
+    public PersistentVector<T> append(T value) {
+        if (end < count) return assoc(end, value).window(start, end + 1);
+        return push(value);
+    }
+
+    public PersistentVector<T> join(Iterable<? extends T> values) {
+        return transientVector().appendAll(values).persistent();
+    }
+
+    /**
+     * Returns a new vector with the element at the given index replaced
+     */
+    public PersistentVector<T> update(int index, T value) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(String.valueOf(index));
+        return assoc(start + index, value);
+    }
+
+    @Override
+    public PersistentVector<T> delete(T value) {
+        int index = indexOf(value);
+        if (index < 0) return this;
+        return subList(0, index).join(subList(index + 1, size()));
+    }
+
+    @Override
+    public PersistentVector<T> reverse() {
+        Transient<T> result = PersistentVector.<T>vector().transientVector();
+        for (int i = size() - 1; i >= 0; i--) result.append(get(i));
+        return result.persistent();
+    }
+
+    @Override
+    public <C extends Segment<T>> C joinTo(C rest) {
+        return toSequence().joinTo(rest);
+    }
+
+    @Override
+    public boolean contains(Object other) {
+        return indexOf(other) >= 0;
+    }
+
+    @Override
+    public boolean exists(Predicate<? super T> predicate) {
+        for (T value : this) if (predicate.matches(value)) return true;
+        return false;
+    }
+
+    @Override
+    public int indexOf(Object t) {
+        int index = 0;
+        for (T value : this) {
+            if (value == null ? t == null : value.equals(t)) return index;
+            index++;
+        }
+        return -1;
+    }
+
+    @Override
+    public <S> S fold(S seed, Function2<? super S, ? super T, ? extends S> callable) {
+        S result = seed;
+        for (T value : this) result = Functions.call(callable, result, value);
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new ReadOnlyIterator<T>() {
+            private int index = start;
+            private Object[] leaf = start < end ? leafFor(start) : null;
+
+            @Override
+            public boolean hasNext() {
+                return index < end;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                if ((index & MASK) == 0) leaf = leafFor(index);
+                return cast(leaf[index++ & MASK]);
+            }
+        };
+    }
+
+    private PersistentVector<T> window(int start, int end) {
+        if (start == end) return vector();
+        return new PersistentVector<T>(count, shift, root, tail, start, end);
+    }
+
+    private int tailOffset() {
+        return tailOffset(count);
+    }
+
+    private static int tailOffset(int count) {
+        return count < WIDTH ? 0 : ((count - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) return tail;
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) node = (Object[]) node[(index >>> level) & MASK];
+        return node;
+    }
+
+    private PersistentVector<T> assoc(int index, Object value) {
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = value;
+            return new PersistentVector<T>(count, shift, root, newTail, start, end);
+        }
+        return new PersistentVector<T>(count, shift, assoc(shift, root, index, value), tail, start, end);
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object value) {
+        Object[] result = copy(node);
+        if (level == 0) result[index & MASK] = value;
+        else {
+            int child = (index >>> level) & MASK;
+            result[child] = assoc(level - BITS, (Object[]) node[child], index, value);
+        }
+        return result;
+    }
+
+    private PersistentVector<T> push(T value) {
+        int tailSize = count - tailOffset();
+        if (tailSize < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tailSize + 1);
+            newTail[tailSize] = value;
+            return new PersistentVector<T>(count + 1, shift, root, newTail, start, end + 1);
+        }
+        int newShift = shift;
+        Object[] newRoot;
+        if ((count >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(count, shift, root, tail, null);
+        }
+        return new PersistentVector<T>(count + 1, newShift, newRoot, new Object[]{value}, start, end + 1);
+    }
+
+    // Nodes a Transient has created (its owned set) belong to it and may be changed in place
+    private static Object[] pushTail(int count, int level, Object[] parent, Object[] leaf, Set<Object[]> owned) {
+        int child = ((count - 1) >>> level) & MASK;
+        Object[] result = editable(parent, owned);
+        Object[] node;
+        if (level == BITS) node = leaf;
+        else {
+            Object[] existing = (Object[]) parent[child];
+            node = existing != null ? pushTail(count, level - BITS, existing, leaf, owned) : newPath(level - BITS, leaf);
+        }
+        result[child] = node;
+        return result;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) return node;
+        Object[] result = new Object[WIDTH];
+        result[0] = newPath(level - BITS, node);
+        return result;
+    }
+
+    private static Object[] copy(Object[] node) {
+        return Arrays.copyOf(node, WIDTH);
+    }
+
+    private static Object[] editable(Object[] node, Set<Object[]> owned) {
+        if (owned != null && owned.contains(node)) return node;
+        Object[] result = copy(node);
+        if (owned != null) owned.add(result);
+        return result;
+    }
+
+    /**
+     * A vector that is appended to in place, for building up a {@link PersistentVector} in bulk.
+     * Once {@link #persistent()} is called the Transient can no longer be used.
+     */
+    public static final class Transient<T> {
+        // Kept apart from the nodes themselves so persisted nodes are exactly WIDTH wide and hold nothing of the Transient
+        private Set<Object[]> owned = Collections.newSetFromMap(new IdentityHashMap<Object[], Boolean>());
+        private int count;
+        private int shift;
+        private Object[] root;
+        private Object[] tail;
+
+        private Transient(int count, int shift, Object[] root, Object[] tail) {
+            this.count = count;
+            this.shift = shift;
+            this.root = root;
+            this.tail = editable(tail, owned);
+        }
+
+        public Transient<T> append(T value) {
+            Set<Object[]> owned = owner();
+            int tailSize = count - tailOffset(count);
+            if (tailSize < WIDTH) {
+                tail[tailSize] = value;
+                count++;
+                return this;
+            }
+            if ((count >>> BITS) > (1 << shift)) {
+                Object[] newRoot = editable(new Object[WIDTH], owned);
+                newRoot[0] = root;
+                newRoot[1] = newPath(shift, tail);
+                root = newRoot;
+                shift += BITS;
+            } else {
+                root = pushTail(count, shift, root, tail, owned);
+            }
+            tail = editable(new Object[WIDTH], owned);
+            tail[0] = value;
+            count++;
+            return this;
+        }
+
+        public Transient<T> appendAll(Iterable<? extends T> values) {
+            for (T value : values) append(value);
+            return this;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public PersistentVector<T> persistent() {
+            owner();
+            owned = null;
+            if (count == 0) return vector();
+            return new PersistentVector<T>(count, shift, root, Arrays.copyOf(tail, count - tailOffset(count)), 0, count);
+        }
+
+        private Set<Object[]> owner() {
+            if (owned == null) throw new IllegalMutationException();
+            return owned;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.googlecode.totallylazy.functions.Function1;
 import com.googlecode.totallylazy.Pair;
 import com.googlecode.totallylazy.predicates.Predicate;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -54,11 +55,42 @@ public interface TreeMap<K, V> extends PersistentSortedMap<K, V> {
 
     class methods {
         public static <K, V> TreeMap<K, V> treeMap(final TreeFactory factory, final Comparator<K> comparator, final List<Pair<K, V>> sortedList) {
-            if(sortedList.size() == 0) return factory.create(comparator);
-            int middle = sortedList.size() / 2;
+            return treeMap(factory, comparator, sortedList, 0, sortedList.size());
+        }
+
+        /**
+         * Bulk construction: O(n) when the pairs are already in key order (only a sort otherwise).
+         * Later pairs win over earlier ones with the same key, just like repeated inserts.
+         */
+        public static <K, V> TreeMap<K, V> fromPairs(final TreeFactory factory, final Comparator<K> comparator, final Iterable<? extends Pair<K, V>> values) {
+            List<Pair<K, V>> pairs = new ArrayList<Pair<K, V>>();
+            for (Pair<K, V> pair : values) pairs.add(pair);
+            Comparator<Pair<K, V>> byKey = (a, b) -> comparator.compare(a.first(), b.first());
+            if (!isSorted(pairs, byKey)) pairs.sort(byKey);
+            return treeMap(factory, comparator, pairs, 0, lastOfEachKey(pairs, byKey));
+        }
+
+        private static <T> boolean isSorted(List<T> values, Comparator<? super T> comparator) {
+            for (int i = 1; i < values.size(); i++) if (comparator.compare(values.get(i - 1), values.get(i)) > 0) return false;
+            return true;
+        }
+
+        // Compacts runs of equal keys down to their last pair and returns the new size
+        private static <T> int lastOfEachKey(List<T> sorted, Comparator<? super T> comparator) {
+            int size = 0;
+            for (int i = 0; i < sorted.size(); i++) {
+                if (size > 0 && comparator.compare(sorted.get(size - 1), sorted.get(i)) == 0) sorted.set(size - 1, sorted.get(i));
+                else sorted.set(size++, sorted.get(i));
+            }
+            return size;
+        }
+
+        private static <K, V> TreeMap<K, V> treeMap(final TreeFactory factory, final Comparator<K> comparator, final List<Pair<K, V>> sortedList, int from, int to) {
+            if (from == to) return factory.create(comparator);
+            int middle = (from + to) >>> 1;
             Pair<K, V> pair = sortedList.get(middle);
-            TreeMap<K, V> left = treeMap(factory, comparator, sortedList.subList(0, middle));
-            TreeMap<K, V> right = treeMap(factory, comparator, sortedList.subList(middle + 1, sortedList.size()));
+            TreeMap<K, V> left = treeMap(factory, comparator, sortedList, from, middle);
+            TreeMap<K, V> right = treeMap(factory, comparator, sortedList, middle + 1, to);
             return factory.create(comparator, pair.first(), pair.second(), left, right);
         }
     }
@@ -0,0 +1,137 @@
+package com.googlecode.totallylazy.comparators;
+
+import com.googlecode.totallylazy.functions.CurriedCombiner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+/**
+ * Keeps the k smallest elements seen (according to a comparator) in a max-heap of at most k entries,
+ * so selecting them from n elements takes O(n log k) time and O(k) memory.
+ * <p>
+ * Ties go to the element seen first, giving the same result as a stable sort followed by take(k).
+ * Heaps of consecutive chunks can be merged with {@link #addAll(BoundedHeap)}, which makes
+ * {@link constructors#smallest(Comparator, int)} a Combiner for parallel reductions.
+ */
+public final class BoundedHeap<T> {
+    private final Comparator<? super T> comparator;
+    private final int capacity;
+    private final PriorityQueue<Entry<T>> queue;
+    private long seen;
+
+    private BoundedHeap(Comparator<? super T> comparator, int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must not be negative");
+        this.comparator = comparator;
+        this.capacity = capacity;
+        this.queue = new PriorityQueue<Entry<T>>(Math.min(capacity, 16) + 1, (a, b) -> b.compareTo(a, comparator));
+    }
+
+    public static <T> BoundedHeap<T> boundedHeap(Comparator<? super T> comparator, int capacity) {
+        return new BoundedHeap<T>(comparator, capacity);
+    }
+
+    public BoundedHeap<T> add(T value) {
+        offer(value, seen++);
+        return this;
+    }
+
+    /**
+     * Merges in the heap of elements seen after all of the elements in this heap
+     */
+    public BoundedHeap<T> addAll(BoundedHeap<? extends T> later) {
+        for (Entry<? extends T> entry : later.queue) offer(entry.value, seen + entry.index);
+        seen += later.seen;
+        return this;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * The retained elements, smallest first
+     */
+    public List<T> toSortedList() {
+        Entry<T>[] entries = cast(queue.toArray(new Entry<?>[queue.size()]));
+        Arrays.sort(entries, (a, b) -> a.compareTo(b, comparator));
+        List<T> result = new ArrayList<T>(entries.length);
+        for (Entry<T> entry : entries) result.add(entry.value);
+        return result;
+    }
+
+    // The head of the queue is the largest retained element, so anything not smaller than it is rejected without allocating
+    private void offer(T value, long index) {
+        if (capacity == 0) return;
+        if (queue.size() == capacity) {
+            Entry<T> largest = queue.peek();
+            int result = comparator.compare(value, largest.value);
+            if (result > 0 || (result == 0 && index > largest.index)) return;
+            queue.poll();
+        }
+        queue.add(new Entry<T>(value, index));
+    }
+
+    private static final class Entry<T> {
+        private final T value;
+        private final long index;
+
+        private Entry(T value, long index) {
+            this.value = value;
+            this.index = index;
+        }
+
+        private int compareTo(Entry<T> other, Comparator<? super T> comparator) {
+            int result = comparator.compare(value, other.value);
+            return result != 0 ? result : Long.compare(index, other.index);
+        }
+    }
+
+    public static class constructors {
+        /**
+         * Reduces to the k smallest elements
+         */
+        public static <T> Function<T> smallest(final Comparator<? super T> comparator, final int k) {
+            return new Function<T>(comparator, k);
+        }
+
+        /**
+         * Reduces to the k largest elements, which toSortedList returns largest first
+         */
+        public static <T> Function<T> largest(final Comparator<? super T> comparator, final int k) {
+            return new Function<T>(Collections.reverseOrder(comparator), k);
+        }
+    }
+
+    public static final class Function<T> implements CurriedCombiner<T, BoundedHeap<T>> {
+        private final Comparator<? super T> comparator;
+        private final int k;
+
+        private Function(Comparator<? super T> comparator, int k) {
+            if (k < 0) throw new IllegalArgumentException("k must not be negative");
+            this.comparator = comparator;
+            this.k = k;
+        }
+
+        @Override
+        public BoundedHeap<T> call(BoundedHeap<T> heap, T value) throws Exception {
+            return heap.add(value);
+        }
+
+        @Override
+        public BoundedHeap<T> combine(BoundedHeap<T> a, BoundedHeap<T> b) throws Exception {
+            return a.addAll(b);
+        }
+
+        // A fresh heap every time, as each chunk of a parallel reduction fills its own
+        @Override
+        public BoundedHeap<T> identity() {
+            return boundedHeap(comparator, k);
+        }
+    }
+}
@@ -18,6 +18,18 @@ public class NamedExecutors {
         return namedThreadFactory(creatingClass.getName());
     }
 
+    public static ThreadFactory daemonThreadFactory(String name) {
+        return namedThreadFactory(name, runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ThreadFactory daemonThreadFactory(Class<?> creatingClass) {
+        return daemonThreadFactory(creatingClass.getName());
+    }
+
     public static ExecutorService newCpuThreadPool(String name) {
         return newFixedThreadPool(Runtime.getRuntime().availableProcessors(), name);
     }
@@ -50,6 +62,14 @@ public class NamedExecutors {
         return Executors.newCachedThreadPool(namedThreadFactory(creatingClass));
     }
 
+    public static ExecutorService newCachedDaemonThreadPool(String name) {
+        return Executors.newCachedThreadPool(daemonThreadFactory(name));
+    }
+
+    public static ExecutorService newCachedDaemonThreadPool(Class<?> creatingClass) {
+        return Executors.newCachedThreadPool(daemonThreadFactory(creatingClass));
+    }
+
     public static ScheduledExecutorService newSingleThreadScheduledExecutor(String name) {
         return Executors.newSingleThreadScheduledExecutor(namedThreadFactory(name));
     }
@@ -1,16 +1,24 @@
 package com.googlecode.totallylazy.functions;
 
-import com.googlecode.totallylazy.Either;
 import com.googlecode.totallylazy.Memory;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
-import static com.googlecode.totallylazy.Closeables.safeClose;
 import static com.googlecode.totallylazy.Unchecked.cast;
 
 public abstract class Lazy<T> implements Function0<T>, Memory {
-    private final Object lock = new Object();
-    private volatile Either<Exception, T> state;
+    private static final AtomicReferenceFieldUpdater<Lazy<?>, Object> STATE = cast(AtomicReferenceFieldUpdater.newUpdater(Lazy.class, Object.class, "state"));
+    private volatile Object state;
+    private final boolean confined;
+
+    protected Lazy() {
+        this(false);
+    }
+
+    private Lazy(boolean confined) {
+        this.confined = confined;
+    }
 
     protected abstract T get() throws Exception;
 
@@ -24,23 +32,25 @@ public abstract class Lazy<T> implements Function0<T>, Memory {
         };
     }
 
-    // Thread-safe double check idiom (Effective Java 2nd edition p.283)
-    public final T call() throws Exception {
-        if (state == null) {
-            synchronized (lock) {
-                if (state == null) {
-                    try {
-                        state = Either.right(get());
-                    } catch (Exception e) {
-                        state = Either.left(e);
-                    }
-                }
+    /**
+     * A Lazy without any thread safety, for values only ever used from a single thread
+     */
+    public static <T> Lazy<T> confined(Callable<? extends T> callable) {
+        return new Lazy<T>(true) {
+            @Override
+            protected T get() throws Exception {
+                return callable.call();
             }
-        }
-        if(state.isLeft()){
-            throw state.left();
-        }
-        return state.right();
+        };
+    }
+
+    // Lock free: see Once
+    public final T call() throws Exception {
+        return cast(confined ? Once.<Lazy<?>, Object>callConfined(STATE, this, Lazy::evaluate) : Once.<Lazy<?>, Object>call(STATE, this, Lazy::evaluate));
+    }
+
+    private static Object evaluate(Lazy<?> lazy) throws Exception {
+        return lazy.get();
     }
 
     public void forget() {
@@ -49,11 +59,6 @@ public abstract class Lazy<T> implements Function0<T>, Memory {
 
     @Override
     public void close() {
-        synchronized (lock) {
-            if(state != null) {
-                safeClose(state.value());
-                state = null;
-            }
-        }
+        Once.clear(STATE, this);
     }
 }
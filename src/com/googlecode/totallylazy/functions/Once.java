@@ -0,0 +1,127 @@
+package com.googlecode.totallylazy.functions;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static com.googlecode.totallylazy.Closeables.safeClose;
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+/**
+ * Compute-once storage for a single volatile Object field, shared by {@link Lazy} and
+ * {@link com.googlecode.totallylazy.Computation}.
+ * <p>
+ * An unset field is null. The first caller CASes in a short lived marker, computes the value and publishes it;
+ * callers that race it wait on the marker, so there is no lock per instance and no wrapper per value
+ * (only failures and null values are boxed). The value is computed by a function of the owner, so callers can pass
+ * a non-capturing lambda and a call that finds the value already there allocates nothing.
+ */
+public final class Once {
+    private static final Object NULL = new Object();
+
+    private Once() {
+    }
+
+    public static <O, T> T call(AtomicReferenceFieldUpdater<O, Object> field, O owner, Function1<? super O, ? extends T> function) throws Exception {
+        Object state = field.get(owner);
+        if (state == null || state instanceof Pending) state = compute(field, owner, function);
+        return unwrap(state);
+    }
+
+    /**
+     * Calls the function without any synchronisation, for instances confined to a single thread
+     */
+    public static <O, T> T callConfined(AtomicReferenceFieldUpdater<O, Object> field, O owner, Function1<? super O, ? extends T> function) throws Exception {
+        Object state = field.get(owner);
+        if (state == null) {
+            state = evaluate(function, owner);
+            field.lazySet(owner, state);
+        }
+        return unwrap(state);
+    }
+
+    public static <O> void clear(AtomicReferenceFieldUpdater<O, Object> field, O owner) {
+        while (true) {
+            Object state = field.get(owner);
+            if (state == null) return;
+            if (state instanceof Pending) {
+                ((Pending) state).await(field, owner);
+                continue;
+            }
+            if (field.compareAndSet(owner, state, null)) {
+                if (state != NULL && !(state instanceof Failure)) safeClose(state);
+                return;
+            }
+        }
+    }
+
+    private static <O> Object compute(AtomicReferenceFieldUpdater<O, Object> field, O owner, Function1<? super O, ?> function) {
+        while (true) {
+            Object state = field.get(owner);
+            if (state instanceof Pending) {
+                Pending pending = (Pending) state;
+                // Re-entrant call from the computing thread: evaluate directly like a re-entrant monitor would
+                if (pending.owner == Thread.currentThread()) return evaluate(function, owner);
+                pending.await(field, owner);
+                continue;
+            }
+            if (state != null) return state;
+            Pending pending = new Pending();
+            if (!field.compareAndSet(owner, null, pending)) continue;
+            Object result;
+            try {
+                result = evaluate(function, owner);
+            } catch (Error e) {
+                field.set(owner, null);
+                pending.release();
+                throw e;
+            }
+            field.set(owner, result);
+            pending.release();
+            return result;
+        }
+    }
+
+    private static <O> Object evaluate(Function1<? super O, ?> function, O owner) {
+        try {
+            Object value = function.call(owner);
+            return value == null ? NULL : value;
+        } catch (Exception e) {
+            return new Failure(e);
+        }
+    }
+
+    private static <T> T unwrap(Object state) throws Exception {
+        if (state == NULL) return null;
+        if (state instanceof Failure) throw ((Failure) state).exception;
+        return cast(state);
+    }
+
+    private static final class Failure {
+        private final Exception exception;
+
+        private Failure(Exception exception) {
+            this.exception = exception;
+        }
+    }
+
+    private static final class Pending {
+        private final Thread owner = Thread.currentThread();
+        private boolean released;
+
+        private synchronized void release() {
+            released = true;
+            notifyAll();
+        }
+
+        private synchronized <O> void await(AtomicReferenceFieldUpdater<O, Object> field, O target) {
+            boolean interrupted = false;
+            while (!released && field.get(target) == this) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.googlecode.totallylazy.io;
+
+import com.googlecode.totallylazy.Pair;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes values to and reads them back from a binary stream, e.g. for spilling a sequence to disk
+ */
+public interface Serializer<T> {
+    void write(T value, DataOutputStream output) throws IOException;
+
+    T read(DataInputStream input) throws IOException;
+
+    static Serializer<String> strings() {
+        return new Serializer<String>() {
+            @Override
+            public void write(String value, DataOutputStream output) throws IOException {
+                byte[] bytes = value.getBytes(UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+
+            @Override
+            public String read(DataInputStream input) throws IOException {
+                byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                return new String(bytes, UTF_8);
+            }
+        };
+    }
+
+    static <A, B> Serializer<Pair<A, B>> pair(final Serializer<A> first, final Serializer<B> second) {
+        return new Serializer<Pair<A, B>>() {
+            @Override
+            public void write(Pair<A, B> value, DataOutputStream output) throws IOException {
+                first.write(value.first(), output);
+                second.write(value.second(), output);
+            }
+
+            @Override
+            public Pair<A, B> read(DataInputStream input) throws IOException {
+                A a = first.read(input);
+                return Pair.pair(a, second.read(input));
+            }
+        };
+    }
+
+    /**
+     * Uses Java serialization for each value: works for anything Serializable but is much slower than a dedicated Serializer
+     */
+    static <T extends Serializable> Serializer<T> serializable() {
+        return new Serializer<T>() {
+            @Override
+            public void write(T value, DataOutputStream output) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                    objects.writeObject(value);
+                }
+                output.writeInt(bytes.size());
+                bytes.writeTo(output);
+            }
+
+            @Override
+            public T read(DataInputStream input) throws IOException {
+                byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return cast(objects.readObject());
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+    }
+}
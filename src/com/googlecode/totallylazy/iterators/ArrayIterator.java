@@ -4,14 +4,21 @@ import java.util.NoSuchElementException;
 
 public final class ArrayIterator<T> extends ReadOnlyIterator<T> {
     private final T[] array;
-    private int index = 0;
+    private final int end;
+    private int index;
 
     public ArrayIterator(final T[] array) {
+        this(array, 0, array.length);
+    }
+
+    public ArrayIterator(final T[] array, final int start, final int end) {
         this.array = array;
+        this.index = start;
+        this.end = end;
     }
 
     public final boolean hasNext() {
-        return index < array.length;
+        return index < end;
     }
 
     public final T next() {
@@ -0,0 +1,97 @@
+package com.googlecode.totallylazy.iterators;
+
+import com.googlecode.totallylazy.Unchecked;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Submits callables to an executor keeping at most maxInFlight running or queued at a time.
+ * Only pulls the next callable from the source once a result has been consumed, so infinite or very large sources
+ * never have more than maxInFlight futures in memory.
+ */
+public abstract class ConcurrentIterator<T> extends StatefulIterator<T> {
+    protected final Iterator<? extends Callable<? extends T>> callables;
+    protected final Executor executor;
+    protected final int maxInFlight;
+
+    private ConcurrentIterator(Iterator<? extends Callable<? extends T>> callables, Executor executor, int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be positive");
+        this.callables = callables;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Yields results in the same order as the callables
+     */
+    public static <T> ConcurrentIterator<T> ordered(Iterator<? extends Callable<? extends T>> callables, Executor executor, int maxInFlight) {
+        return new Ordered<T>(callables, executor, maxInFlight);
+    }
+
+    /**
+     * Yields results as soon as each one completes
+     */
+    public static <T> ConcurrentIterator<T> completed(Iterator<? extends Callable<? extends T>> callables, Executor executor, int maxInFlight) {
+        return new Completed<T>(callables, executor, maxInFlight);
+    }
+
+    private static final class Ordered<T> extends ConcurrentIterator<T> {
+        private final Deque<Future<T>> inFlight = new ArrayDeque<Future<T>>();
+
+        private Ordered(Iterator<? extends Callable<? extends T>> callables, Executor executor, int maxInFlight) {
+            super(callables, executor, maxInFlight);
+        }
+
+        // The head still counts against maxInFlight until it is consumed, so the refill waits for the next call
+        @Override
+        protected T getNext() throws Exception {
+            submit();
+            Future<T> head = inFlight.poll();
+            if (head == null) return finished();
+            return head.get();
+        }
+
+        private void submit() {
+            while (inFlight.size() < maxInFlight && callables.hasNext()) {
+                FutureTask<T> task = new FutureTask<T>(Unchecked.<Callable<T>>cast(callables.next()));
+                executor.execute(task);
+                inFlight.add(task);
+            }
+        }
+    }
+
+    private static final class Completed<T> extends ConcurrentIterator<T> {
+        private final CompletionService<T> completion;
+        private int inFlight = 0;
+
+        private Completed(Iterator<? extends Callable<? extends T>> callables, Executor executor, int maxInFlight) {
+            super(callables, executor, maxInFlight);
+            completion = new ExecutorCompletionService<T>(executor);
+        }
+
+        @Override
+        protected T getNext() throws Exception {
+            submit();
+            if (inFlight == 0) return finished();
+            Future<T> done = completion.take();
+            inFlight--;
+            submit();
+            return done.get();
+        }
+
+        private void submit() {
+            while (inFlight < maxInFlight && callables.hasNext()) {
+                completion.submit(Unchecked.<Callable<T>>cast(callables.next()));
+                inFlight++;
+            }
+        }
+    }
+}
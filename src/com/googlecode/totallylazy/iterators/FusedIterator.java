@@ -0,0 +1,74 @@
+package com.googlecode.totallylazy.iterators;
+
+import com.googlecode.totallylazy.Unchecked;
+import com.googlecode.totallylazy.functions.Function1;
+import com.googlecode.totallylazy.predicates.Predicate;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.Callers.call;
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+/**
+ * Runs a chain of map and filter stages over each element in a single loop,
+ * rather than one nested MapIterator / FilterIterator per stage.
+ * <p>
+ * As with those iterators, only the filters look ahead: hasNext() runs the stages up to the last filter,
+ * and the maps after it only run in next().
+ */
+public final class FusedIterator<T> extends ReadOnlyIterator<T> {
+    private final Iterator<?> iterator;
+    private final Object[] stages;
+    private final boolean[] filters;
+    private final int lookahead;
+    private boolean loaded;
+    private Object current;
+
+    /**
+     * @param stages  Function1 or Predicate for each stage
+     * @param filters true when the stage at the same index is a Predicate
+     */
+    public FusedIterator(final Iterator<?> iterator, final Object[] stages, final boolean[] filters) {
+        this.iterator = iterator;
+        this.stages = stages;
+        this.filters = filters;
+        int last = filters.length;
+        while (last > 0 && !filters[last - 1]) last--;
+        this.lookahead = last;
+    }
+
+    public final boolean hasNext() {
+        if (loaded) return true;
+        if (lookahead == 0) return iterator.hasNext();
+        next:
+        while (iterator.hasNext()) {
+            Object value = iterator.next();
+            for (int i = 0; i < lookahead; i++) {
+                if (filters[i]) {
+                    if (!Unchecked.<Predicate<Object>>cast(stages[i]).matches(value)) continue next;
+                } else {
+                    value = call(Unchecked.<Function1<Object, Object>>cast(stages[i]), value);
+                }
+            }
+            current = value;
+            loaded = true;
+            return true;
+        }
+        return false;
+    }
+
+    public final T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Object value;
+        if (loaded) {
+            value = current;
+            current = null;
+            loaded = false;
+        } else {
+            value = iterator.next();
+        }
+        for (int i = lookahead; i < stages.length; i++) value = call(Unchecked.<Function1<Object, Object>>cast(stages[i]), value);
+        return cast(value);
+    }
+}
@@ -0,0 +1,27 @@
+package com.googlecode.totallylazy.iterators;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public final class RandomAccessIterator<T> extends ReadOnlyIterator<T> {
+    private final List<? extends T> list;
+    private final int end;
+    private int index;
+
+    public RandomAccessIterator(final List<? extends T> list, final int start, final int end) {
+        this.list = list;
+        this.index = start;
+        this.end = end;
+    }
+
+    public final boolean hasNext() {
+        return index < end;
+    }
+
+    public final T next() {
+        if (hasNext()) {
+            return list.get(index++);
+        }
+        throw new NoSuchElementException();
+    }
+}
@@ -1,5 +1,6 @@
 package com.googlecode.totallylazy.json;
 
+import com.googlecode.totallylazy.functions.Function1;
 import com.googlecode.totallylazy.reflection.Reflection;
 import com.googlecode.totallylazy.reflection.Types;
 import com.googlecode.totallylazy.time.Dates;
@@ -16,35 +17,60 @@ import static com.googlecode.totallylazy.Unchecked.cast;
 
 interface Coercer {
     static Object coerce(Type targetType, Object value) {
+        return coercer(targetType).apply(value);
+    }
+
+    static Object coerce(Class<?> targetType, Object parsedValue) {
+        return coercer(targetType).apply(parsedValue);
+    }
+
+    /**
+     * Inspects the target type once, so the returned function can be cached (e.g. per field) and applied to many values
+     */
+    static Function1<Object, Object> coercer(Type targetType) {
         if (targetType instanceof ParameterizedType) {
             ParameterizedType parameterizedType = (ParameterizedType) targetType;
             if (List.class.isAssignableFrom(Types.classOf(parameterizedType))) {
-                Type valueType = parameterizedType.getActualTypeArguments()[0];
-                return sequence((List<?>) value).map(v -> coerce(valueType, v)).toList();
+                Function1<Object, Object> values = coercer(parameterizedType.getActualTypeArguments()[0]);
+                return value -> sequence((List<?>) value).map(values).toList();
             }
         }
 
-        return coerce(Types.classOf(targetType), value);
+        return coercer(Types.classOf(targetType));
     }
 
-    static Object coerce(Class<?> targetType, Object parsedValue) {
+    static Function1<Object, Object> coercer(Class<?> targetType) {
         if (int.class.isAssignableFrom(targetType) || Integer.class.isAssignableFrom(targetType)) {
-            BigDecimal number = (BigDecimal) parsedValue;
-            return number == null ? null : number.intValue();
+            return parsedValue -> {
+                BigDecimal number = (BigDecimal) parsedValue;
+                return number == null ? null : number.intValue();
+            };
         }
         if (long.class.isAssignableFrom(targetType) || Long.class.isAssignableFrom(targetType)) {
-            BigDecimal number = (BigDecimal) parsedValue;
-            return number == null ? null : number.longValue();
+            return parsedValue -> {
+                BigDecimal number = (BigDecimal) parsedValue;
+                return number == null ? null : number.longValue();
+            };
         }
-        if (JsonRecord.class.isAssignableFrom(targetType) && parsedValue instanceof Map) {
-            return JsonRecord.create(cast(targetType), cast(parsedValue));
+        if (JsonRecord.class.isAssignableFrom(targetType)) {
+            return parsedValue -> parsedValue instanceof Map
+                    ? JsonRecord.create(cast(targetType), cast(parsedValue))
+                    : convert(targetType, parsedValue);
         }
-        if (targetType.isInterface() && parsedValue instanceof Map) {
-            return PersistentJsonRecord.create(cast(targetType), cast(parsedValue));
+        if (targetType.isInterface()) {
+            return parsedValue -> parsedValue instanceof Map
+                    ? PersistentJsonRecord.create(cast(targetType), cast(parsedValue))
+                    : convert(targetType, parsedValue);
         }
-        if (Date.class.isAssignableFrom(targetType) && parsedValue instanceof String) {
-            return Dates.parse((String) parsedValue);
+        if (Date.class.isAssignableFrom(targetType)) {
+            return parsedValue -> parsedValue instanceof String
+                    ? Dates.parse((String) parsedValue)
+                    : convert(targetType, parsedValue);
         }
+        return parsedValue -> convert(targetType, parsedValue);
+    }
+
+    static Object convert(Class<?> targetType, Object parsedValue) {
         if (parsedValue != null && !parsedValue.getClass().isAssignableFrom(targetType)) {
             return Reflection.valueOf(targetType, parsedValue);
         }
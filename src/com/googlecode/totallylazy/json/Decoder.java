@@ -0,0 +1,65 @@
+package com.googlecode.totallylazy.json;
+
+import com.googlecode.totallylazy.functions.Function1;
+import com.googlecode.totallylazy.json.JsonReader.Event;
+import com.googlecode.totallylazy.reflection.Types;
+import com.googlecode.totallylazy.time.Dates;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+/**
+ * Reads a value of a known type straight off a JsonReader: numbers, strings and dates are converted from the current
+ * token and lists and nested JsonRecords are filled in as they are read, so no intermediate Map, List or BigDecimal
+ * is built. Anything else is read as a plain value and handed to the {@link Coercer}, giving the same result as
+ * parsing to a Map and calling JsonRecord.create.
+ */
+interface Decoder {
+    Object decode(JsonReader reader, Event event, boolean unknownFields);
+
+    static Decoder decoder(Type targetType) {
+        Function1<Object, Object> coercer = Coercer.coercer(targetType);
+        Decoder fallback = (reader, event, unknownFields) -> coercer.apply(reader.value(event));
+        if (targetType instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) targetType;
+            if (List.class.isAssignableFrom(Types.classOf(parameterizedType))) {
+                Decoder values = decoder(parameterizedType.getActualTypeArguments()[0]);
+                return (reader, event, unknownFields) -> {
+                    if (event != Event.StartArray) return fallback.decode(reader, event, unknownFields);
+                    List<Object> list = new ArrayList<Object>();
+                    for (Event next; (next = reader.next()) != Event.EndArray; ) list.add(values.decode(reader, next, unknownFields));
+                    return list;
+                };
+            }
+        }
+
+        Class<?> targetClass = Types.classOf(targetType);
+        if (int.class.equals(targetClass) || Integer.class.equals(targetClass)) {
+            return (reader, event, unknownFields) -> event == Event.Number ? reader.intValue() : fallback.decode(reader, event, unknownFields);
+        }
+        if (long.class.equals(targetClass) || Long.class.equals(targetClass)) {
+            return (reader, event, unknownFields) -> event == Event.Number ? reader.longValue() : fallback.decode(reader, event, unknownFields);
+        }
+        if (BigDecimal.class.equals(targetClass)) {
+            return (reader, event, unknownFields) -> event == Event.Number ? reader.number() : fallback.decode(reader, event, unknownFields);
+        }
+        if (String.class.equals(targetClass)) {
+            return (reader, event, unknownFields) -> event == Event.Text ? reader.text() : fallback.decode(reader, event, unknownFields);
+        }
+        if (Date.class.equals(targetClass)) {
+            return (reader, event, unknownFields) -> event == Event.Text ? Dates.parse(reader.text()) : fallback.decode(reader, event, unknownFields);
+        }
+        if (JsonRecord.class.isAssignableFrom(targetClass)) {
+            return (reader, event, unknownFields) -> event == Event.StartObject
+                    ? JsonRecord.read(cast(targetClass), reader, unknownFields)
+                    : fallback.decode(reader, event, unknownFields);
+        }
+        return fallback;
+    }
+}
@@ -5,10 +5,15 @@ import com.googlecode.totallylazy.Pair;
 import com.googlecode.totallylazy.Sequence;
 import com.googlecode.totallylazy.parser.Result;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
+import static com.googlecode.totallylazy.LazyException.lazyException;
 import static com.googlecode.totallylazy.Unchecked.cast;
 
 public class Json {
@@ -16,6 +21,18 @@ public class Json {
         return JsonWriter.write(value, new StringBuilder()).toString();
     }
 
+    /**
+     * Streams the value as UTF-8, iterating any Iterables or Iterators rather than building the document in memory
+     */
+    public static <O extends OutputStream> O write(Object value, O output) {
+        try {
+            JsonGenerator.jsonGenerator(output).write(value).flush();
+            return output;
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
+    }
+
     public static <V> Map<String, V> map(String json) {
         return Json.<V>parseMap(json).value();
     }
@@ -28,12 +45,61 @@ public class Json {
         return parseObject(json).value();
     }
 
+    /**
+     * Parses UTF-8 bytes directly, without decoding them to a String first
+     */
+    public static <V> Map<String, V> map(byte[] json) {
+        return map(ByteBuffer.wrap(json));
+    }
+
+    public static <V> Map<String, V> map(ByteBuffer json) {
+        return cast(JsonReader.jsonReader(json).map());
+    }
+
+    /**
+     * Memory maps the file rather than reading it onto the heap
+     */
+    public static <V> Map<String, V> map(File json) {
+        return cast(JsonReader.jsonReader(json).map());
+    }
+
+    public static <V> List<V> list(byte[] json) {
+        return list(ByteBuffer.wrap(json));
+    }
+
+    public static <V> List<V> list(ByteBuffer json) {
+        return cast(JsonReader.jsonReader(json).list());
+    }
+
+    public static <V> List<V> list(File json) {
+        return cast(JsonReader.jsonReader(json).list());
+    }
+
+    public static Object object(byte[] json) {
+        return object(ByteBuffer.wrap(json));
+    }
+
+    public static Object object(ByteBuffer json) {
+        return JsonReader.jsonReader(json).value();
+    }
+
+    public static Object object(File json) {
+        return JsonReader.jsonReader(json).value();
+    }
+
     public static <V> Sequence<Pair<String, V>> pairs(Reader json) {
-        return Json.<V>parsePairs(json).value();
+        return cast(JsonReader.jsonReader(json).object().memorise());
     }
 
     public static <V> Sequence<V> sequence(Reader json) {
-        return Json.<V>parseSequence(json).value();
+        return cast(JsonReader.jsonReader(json).array().memorise());
+    }
+
+    /**
+     * Lazily reads whitespace (e.g. newline) separated JSON values one at a time
+     */
+    public static Sequence<Object> values(Reader json) {
+        return JsonReader.jsonReader(json).values();
     }
 
     public static <V> Result<Map<String, V>> parseMap(String json) {
@@ -0,0 +1,388 @@
+package com.googlecode.totallylazy.json;
+
+import com.googlecode.totallylazy.Record;
+import com.googlecode.totallylazy.Value;
+import com.googlecode.totallylazy.reflection.Accessors;
+import com.googlecode.totallylazy.time.Dates;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.LazyException.lazyException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes JSON as UTF-8 straight into a reusable byte buffer that is flushed to an OutputStream (or ByteBuffer) as it
+ * fills, so large documents and lazy Sequences/Iterators are streamed rather than built up in memory.
+ * <p>
+ * {@link #write(Object)} produces the same JSON as {@link JsonWriter} (other than also escaping control characters and
+ * unpaired surrogates), but dispatches with a few instanceof checks, writes field names from pre-escaped bytes
+ * ({@link FieldName}) and walks JsonRecord and Record classes through field lists cached per class.
+ */
+public final class JsonGenerator implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int KEYS = 256;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(UTF_8);
+    private static final byte[] NULL = "null".getBytes(UTF_8);
+    private static final byte[] TRUE = "true".getBytes(UTF_8);
+    private static final byte[] FALSE = "false".getBytes(UTF_8);
+    private static final ClassValue<RecordWriter> records = new ClassValue<RecordWriter>() {
+        @Override
+        protected RecordWriter computeValue(Class<?> type) {
+            return new RecordWriter(type);
+        }
+    };
+    private final OutputStream output;
+    private final byte[] buffer;
+    private int position;
+    private boolean[] first = new boolean[32];
+    private int depth;
+    private boolean afterName;
+    private FieldName[] keys;
+
+    private JsonGenerator(OutputStream output) {
+        this(output, BUFFER_SIZE);
+    }
+
+    private JsonGenerator(OutputStream output, int size) {
+        this.output = output;
+        this.buffer = new byte[size];
+    }
+
+    public static JsonGenerator jsonGenerator(OutputStream output) {
+        return new JsonGenerator(output);
+    }
+
+    /**
+     * Writes into the buffer, throwing a BufferOverflowException if the document does not fit
+     */
+    public static JsonGenerator jsonGenerator(final ByteBuffer bytes) {
+        return new JsonGenerator(new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes.put((byte) b);
+            }
+
+            @Override
+            public void write(byte[] values, int offset, int length) {
+                bytes.put(values, offset, length);
+            }
+        });
+    }
+
+    public JsonGenerator startObject() {
+        return start('{');
+    }
+
+    public JsonGenerator endObject() {
+        return end('}');
+    }
+
+    public JsonGenerator startArray() {
+        return start('[');
+    }
+
+    public JsonGenerator endArray() {
+        return end(']');
+    }
+
+    public JsonGenerator name(String name) {
+        return name(key(name));
+    }
+
+    public JsonGenerator name(FieldName name) {
+        separate();
+        bytes(name.bytes);
+        afterName = true;
+        return this;
+    }
+
+    public JsonGenerator value(CharSequence value) {
+        if (value == null) return nullValue();
+        separate();
+        string(value);
+        return this;
+    }
+
+    public JsonGenerator value(long value) {
+        separate();
+        ascii(Long.toString(value));
+        return this;
+    }
+
+    public JsonGenerator value(double value) {
+        separate();
+        ascii(Double.toString(value));
+        return this;
+    }
+
+    public JsonGenerator value(boolean value) {
+        separate();
+        bytes(value ? TRUE : FALSE);
+        return this;
+    }
+
+    public JsonGenerator nullValue() {
+        separate();
+        bytes(NULL);
+        return this;
+    }
+
+    /**
+     * Writes any value the way {@link JsonWriter} would, iterating (rather than buffering) Iterables and Iterators
+     */
+    public JsonGenerator write(Object value) {
+        if (value == null) return nullValue();
+        if (value instanceof CharSequence) return value((CharSequence) value);
+        if (value instanceof Number) {
+            separate();
+            ascii(value.toString());
+            return this;
+        }
+        if (value instanceof Boolean) return value(((Boolean) value).booleanValue());
+        if (value instanceof Date) return value(Dates.RFC3339withMilliseconds().format((Date) value));
+        if (value instanceof JsonRecord || value instanceof Record) return records.get(value.getClass()).write(this, value);
+        if (value instanceof Map) return map((Map<?, ?>) value);
+        if (value instanceof Map.Entry) return entry((Map.Entry<?, ?>) value);
+        if (value instanceof Value) return write(((Value<?>) value).value());
+        if (value instanceof Iterable) return iterator(((Iterable<?>) value).iterator());
+        if (value instanceof Iterator) return iterator((Iterator<?>) value);
+        return value(value.toString());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.write(buffer, 0, position);
+        position = 0;
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        output.close();
+    }
+
+    private JsonGenerator map(Map<?, ?> map) {
+        startObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) entry(entry);
+        return endObject();
+    }
+
+    private JsonGenerator entry(Map.Entry<?, ?> entry) {
+        name(String.valueOf(entry.getKey()));
+        return write(entry.getValue());
+    }
+
+    private JsonGenerator iterator(Iterator<?> iterator) {
+        startArray();
+        while (iterator.hasNext()) write(iterator.next());
+        return endArray();
+    }
+
+    // Map keys tend to repeat, so their escaped bytes are kept in a small cache
+    private FieldName key(String name) {
+        if (keys == null) keys = new FieldName[KEYS];
+        int index = (name.hashCode() ^ (name.hashCode() >>> 16)) & (KEYS - 1);
+        FieldName cached = keys[index];
+        if (cached != null && cached.name.equals(name)) return cached;
+        return keys[index] = FieldName.fieldName(name);
+    }
+
+    private JsonGenerator start(char c) {
+        separate();
+        if (depth == first.length) first = Arrays.copyOf(first, depth * 2);
+        first[depth++] = true;
+        ensure(1);
+        buffer[position++] = (byte) c;
+        return this;
+    }
+
+    private JsonGenerator end(char c) {
+        if (depth == 0) throw new IllegalStateException("Nothing to end");
+        depth--;
+        ensure(1);
+        buffer[position++] = (byte) c;
+        return this;
+    }
+
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth == 0) return;
+        if (first[depth - 1]) first[depth - 1] = false;
+        else {
+            ensure(1);
+            buffer[position++] = ',';
+        }
+    }
+
+    private void string(CharSequence value) {
+        ensure(1);
+        buffer[position++] = '"';
+        for (int i = 0, length = value.length(); i < length; i++) {
+            ensure(6);
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') buffer[position++] = (byte) c;
+                else escape(c);
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired, so it has no UTF-8 encoding: keep it as an escape rather than write invalid bytes
+                unicode(c);
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        ensure(1);
+        buffer[position++] = '"';
+    }
+
+    private void escape(char c) {
+        buffer[position++] = '\\';
+        switch (c) {
+            case '"':
+            case '\\':
+                buffer[position++] = (byte) c;
+                return;
+            case '\b':
+                buffer[position++] = 'b';
+                return;
+            case '\f':
+                buffer[position++] = 'f';
+                return;
+            case '\n':
+                buffer[position++] = 'n';
+                return;
+            case '\r':
+                buffer[position++] = 'r';
+                return;
+            case '\t':
+                buffer[position++] = 't';
+                return;
+            default:
+                buffer[position++] = 'u';
+                hex(c);
+        }
+    }
+
+    private void unicode(char c) {
+        buffer[position++] = '\\';
+        buffer[position++] = 'u';
+        hex(c);
+    }
+
+    private void hex(char c) {
+        buffer[position++] = HEX[c >> 12];
+        buffer[position++] = HEX[c >> 8 & 0xF];
+        buffer[position++] = HEX[c >> 4 & 0xF];
+        buffer[position++] = HEX[c & 0xF];
+    }
+
+    private void ascii(String value) {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++) buffer[position++] = (byte) value.charAt(i);
+    }
+
+    private void bytes(byte[] bytes) {
+        if (bytes.length > buffer.length) {
+            drain();
+            write(bytes, bytes.length);
+            return;
+        }
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensure(int count) {
+        if (position + count > buffer.length) drain();
+    }
+
+    private void drain() {
+        write(buffer, position);
+        position = 0;
+    }
+
+    private void write(byte[] bytes, int count) {
+        try {
+            output.write(bytes, 0, count);
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
+    }
+
+    /**
+     * A field name escaped and encoded once, ready to be copied into the output
+     */
+    public static final class FieldName {
+        private final String name;
+        private final byte[] bytes;
+
+        private FieldName(String name, byte[] bytes) {
+            this.name = name;
+            this.bytes = bytes;
+        }
+
+        // Encoded exactly as a string value would be, into a buffer that fits the longest escaping so it never flushes
+        public static FieldName fieldName(String name) {
+            JsonGenerator generator = new JsonGenerator(null, 6 * name.length() + 3);
+            generator.string(name);
+            generator.buffer[generator.position++] = ':';
+            return new FieldName(name, Arrays.copyOf(generator.buffer, generator.position));
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    // The same fields, in the same order, as JsonRecord.entrySet and Record.entrySet
+    private static final class RecordWriter {
+        private final boolean json;
+        private final Accessors accessors;
+        private final FieldName[] names;
+
+        private RecordWriter(Class<?> type) {
+            json = JsonRecord.class.isAssignableFrom(type);
+            accessors = json ? JsonRecord.accessors(type) : Accessors.accessors(type);
+            names = new FieldName[accessors.size()];
+            for (int i = 0; i < names.length; i++) names[i] = FieldName.fieldName(accessors.name(i));
+        }
+
+        private JsonGenerator write(JsonGenerator generator, Object record) {
+            generator.startObject();
+            for (int i = 0; i < names.length; i++) {
+                Object value = accessors.get(i, record);
+                if (value == null && json) continue;
+                generator.name(names[i]).write(value);
+            }
+            if (json) {
+                for (Map.Entry<String, Object> entry : ((JsonRecord) record).otherFields().entrySet()) {
+                    if (entry.getValue() != null) generator.entry(entry);
+                }
+            }
+            return generator.endObject();
+        }
+    }
+}
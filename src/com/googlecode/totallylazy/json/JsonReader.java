@@ -0,0 +1,539 @@
+package com.googlecode.totallylazy.json;
+
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.Sequences;
+import com.googlecode.totallylazy.iterators.StatefulIterator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.LazyException.lazyException;
+import static com.googlecode.totallylazy.Unchecked.cast;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A hand written streaming JSON pull parser. Input is read through one reusable buffer and only the current token is
+ * held, so arbitrarily large documents (or streams of them) are parsed in constant memory.
+ * Strings and numbers are only turned into objects when asked for, and {@link #skipValue()} passes over a value
+ * without creating anything.
+ * <p>
+ * Any number of top level values may follow each other separated by whitespace, which covers newline delimited JSON:
+ * see {@link #values()}.
+ * Values are built as the Grammar builds them: Map (in field order), List, String, BigDecimal, Boolean and null.
+ */
+public final class JsonReader implements Closeable {
+    public enum Event {StartObject, EndObject, StartArray, EndArray, Name, Text, Number, Boolean, Null, EndDocument}
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int DOCUMENT = 0;
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int NAMES = 256;
+    private static final int LONGEST_NAME = 64;
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long consumed;
+    private int[] stack = new int[32];
+    private int depth = 1;
+    private Event peeked;
+    private char[] text = new char[64];
+    private int length;
+    private String string;
+    private final String[] names = new String[NAMES];
+    private boolean name;
+    private boolean integral;
+    private boolean bool;
+    private boolean skipping;
+
+    private JsonReader(Reader reader) {
+        this.reader = reader;
+        stack[0] = DOCUMENT;
+    }
+
+    public static JsonReader jsonReader(Reader reader) {
+        return new JsonReader(reader);
+    }
+
+    public static JsonReader jsonReader(InputStream stream) {
+        return new JsonReader(new InputStreamReader(stream, UTF_8));
+    }
+
+    /**
+     * Decodes UTF-8 directly from the buffer (which may be memory mapped), advancing its position
+     */
+    public static JsonReader jsonReader(ByteBuffer bytes) {
+        return new JsonReader(new Utf8Reader(bytes));
+    }
+
+    /**
+     * Memory maps the file and decodes it in place, so no copy of the file is ever held on the heap.
+     * Files over 2GB cannot be mapped in one go: read those through an InputStream instead.
+     */
+    public static JsonReader jsonReader(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return jsonReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
+    }
+
+    public static JsonReader jsonReader(String json) {
+        return new JsonReader(new StringReader(json));
+    }
+
+    /**
+     * The next event without consuming it
+     */
+    public Event peek() {
+        if (peeked == null) peeked = advance();
+        return peeked;
+    }
+
+    public Event next() {
+        Event result = peek();
+        peeked = null;
+        return result;
+    }
+
+    /**
+     * The current Name or Text (or the digits of the current Number)
+     */
+    public String text() {
+        if (string == null) string = name ? intern() : new String(text, 0, length);
+        return string;
+    }
+
+    public BigDecimal number() {
+        return new BigDecimal(text, 0, length);
+    }
+
+    public long longValue() {
+        if (!integral || length > 18) return number().longValue();
+        boolean negative = text[0] == '-';
+        long result = 0;
+        for (int i = negative ? 1 : 0; i < length; i++) result = result * 10 + (text[i] - '0');
+        return negative ? -result : result;
+    }
+
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    public double doubleValue() {
+        return Double.parseDouble(text());
+    }
+
+    public boolean booleanValue() {
+        return bool;
+    }
+
+    /**
+     * Reads the whole of the next value
+     */
+    public Object value() {
+        return value(next());
+    }
+
+    public Map<String, Object> map() {
+        expect(Event.StartObject);
+        return cast(value(Event.StartObject));
+    }
+
+    public List<Object> list() {
+        expect(Event.StartArray);
+        return cast(value(Event.StartArray));
+    }
+
+    /**
+     * Passes over the next value, including everything nested inside it, without building it
+     */
+    public void skipValue() {
+        skipping = true;
+        try {
+            int level = 0;
+            do {
+                switch (next()) {
+                    case StartObject:
+                    case StartArray:
+                        level++;
+                        break;
+                    case EndObject:
+                    case EndArray:
+                        level--;
+                        break;
+                    case EndDocument:
+                        throw unexpected(-1, "a value");
+                    default:
+                }
+            } while (level > 0);
+        } finally {
+            skipping = false;
+        }
+    }
+
+    /**
+     * A lazy, forward only view of the elements of the array that comes next
+     */
+    public Sequence<Object> array() {
+        expect(Event.StartArray);
+        return Sequences.forwardOnly(new StatefulIterator<Object>() {
+            @Override
+            protected Object getNext() throws Exception {
+                if (JsonReader.this.peek() != Event.EndArray) return value();
+                JsonReader.this.next();
+                return finished();
+            }
+        });
+    }
+
+    /**
+     * A lazy, forward only view of the fields of the object that comes next
+     */
+    public Sequence<Pair<String, Object>> object() {
+        expect(Event.StartObject);
+        return Sequences.forwardOnly(new StatefulIterator<Pair<String, Object>>() {
+            @Override
+            protected Pair<String, Object> getNext() throws Exception {
+                if (JsonReader.this.next() == Event.EndObject) return finished();
+                String name = text();
+                return Pair.pair(name, value());
+            }
+        });
+    }
+
+    /**
+     * A lazy, forward only view of the remaining top level values, e.g. the lines of newline delimited JSON
+     */
+    public Sequence<Object> values() {
+        return Sequences.forwardOnly(new StatefulIterator<Object>() {
+            @Override
+            protected Object getNext() throws Exception {
+                if (JsonReader.this.peek() == Event.EndDocument) return finished();
+                return value();
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    void expect(Event expected) {
+        Event actual = next();
+        if (actual != expected) throw new IllegalStateException("Expected " + expected + " but was " + actual);
+    }
+
+    /**
+     * Checks nothing but whitespace is left, rather than reading whatever follows as another top level value
+     */
+    void expectEnd() {
+        if (peeked != null) {
+            if (peeked != Event.EndDocument) throw new IllegalStateException("Expected the end of the document but was " + peeked);
+            return;
+        }
+        int c = nonWhitespace();
+        if (c != -1) throw unexpected(c, "the end of the document");
+        peeked = Event.EndDocument;
+    }
+
+    Object value(Event event) {
+        switch (event) {
+            case StartObject:
+                Map<String, Object> map = new LinkedHashMap<String, Object>();
+                while (next() == Event.Name) {
+                    String name = text();
+                    map.put(name, value());
+                }
+                return map;
+            case StartArray:
+                List<Object> list = new ArrayList<Object>();
+                while (peek() != Event.EndArray) list.add(value());
+                next();
+                return list;
+            case Text:
+                return text();
+            case Number:
+                return number();
+            case Boolean:
+                return bool;
+            case Null:
+                return null;
+            default:
+                throw new IllegalStateException("Expected a value but was " + event);
+        }
+    }
+
+    private Event advance() {
+        int c;
+        switch (stack[depth - 1]) {
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nonWhitespace();
+                return c == ']' ? pop(Event.EndArray) : value(c);
+            case NONEMPTY_ARRAY:
+                c = nonWhitespace();
+                if (c == ']') return pop(Event.EndArray);
+                if (c != ',') throw unexpected(c, "',' or ']'");
+                return value(nonWhitespace());
+            case EMPTY_OBJECT:
+                c = nonWhitespace();
+                return c == '}' ? pop(Event.EndObject) : name(c);
+            case NONEMPTY_OBJECT:
+                c = nonWhitespace();
+                if (c == '}') return pop(Event.EndObject);
+                if (c != ',') throw unexpected(c, "',' or '}'");
+                return name(nonWhitespace());
+            case DANGLING_NAME:
+                c = nonWhitespace();
+                if (c != ':') throw unexpected(c, "':'");
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                return value(nonWhitespace());
+            default:
+                c = nonWhitespace();
+                return c == -1 ? Event.EndDocument : value(c);
+        }
+    }
+
+    private Event name(int c) {
+        if (c != '"') throw unexpected(c, "a field name");
+        readString();
+        name = true;
+        stack[depth - 1] = DANGLING_NAME;
+        return Event.Name;
+    }
+
+    private Event value(int c) {
+        switch (c) {
+            case '{':
+                return push(EMPTY_OBJECT, Event.StartObject);
+            case '[':
+                return push(EMPTY_ARRAY, Event.StartArray);
+            case '"':
+                readString();
+                return Event.Text;
+            case 't':
+                literal("rue");
+                bool = true;
+                return Event.Boolean;
+            case 'f':
+                literal("alse");
+                bool = false;
+                return Event.Boolean;
+            case 'n':
+                literal("ull");
+                return Event.Null;
+            default:
+                if (c != '-' && (c < '0' || c > '9')) throw unexpected(c, "a value");
+                readNumber((char) c);
+                return Event.Number;
+        }
+    }
+
+    private Event push(int context, Event event) {
+        if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+        stack[depth++] = context;
+        return event;
+    }
+
+    private Event pop(Event event) {
+        depth--;
+        return event;
+    }
+
+    // Copies runs of plain characters straight from the buffer, only escapes are handled a character at a time
+    private void readString() {
+        clear();
+        while (true) {
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"') {
+                    append(buffer, start, position - start);
+                    position++;
+                    return;
+                }
+                if (c == '\\') {
+                    append(buffer, start, position - start);
+                    position++;
+                    append(escape());
+                    start = position;
+                } else {
+                    position++;
+                }
+            }
+            append(buffer, start, position - start);
+            if (!fill()) throw unexpected(-1, "'\"'");
+        }
+    }
+
+    private char escape() {
+        int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int result = 0;
+                for (int i = 0; i < 4; i++) {
+                    int hex = read();
+                    int digit = Character.digit(hex, 16);
+                    if (digit < 0) throw unexpected(hex, "a hex digit");
+                    result = (result << 4) | digit;
+                }
+                return (char) result;
+            default:
+                throw unexpected(c, "an escape character");
+        }
+    }
+
+    // RFC 8259: -? (0 | [1-9][0-9]*) (. [0-9]+)? ([eE] [+-]? [0-9]+)?
+    private void readNumber(char first) {
+        clear();
+        integral = true;
+        append(first);
+        int c = first == '-' ? digit() : first;
+        if (c != '0') digits();
+        if (lookahead() == '.') {
+            integral = false;
+            append((char) read());
+            digit();
+            digits();
+        }
+        c = lookahead();
+        if (c == 'e' || c == 'E') {
+            integral = false;
+            append((char) read());
+            c = lookahead();
+            if (c == '+' || c == '-') append((char) read());
+            digit();
+            digits();
+        }
+        c = lookahead();
+        if (c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') throw unexpected(read(), "the end of the number");
+    }
+
+    private int digit() {
+        int c = read();
+        if (c < '0' || c > '9') throw unexpected(c, "a digit");
+        append((char) c);
+        return c;
+    }
+
+    private void digits() {
+        for (int c; (c = lookahead()) >= '0' && c <= '9'; position++) append((char) c);
+    }
+
+    private void literal(String rest) {
+        for (int i = 0; i < rest.length(); i++) {
+            int c = read();
+            if (c != rest.charAt(i)) throw unexpected(c, "'" + rest.charAt(i) + "'");
+        }
+    }
+
+    private void clear() {
+        length = 0;
+        string = null;
+        name = false;
+    }
+
+    // Field names repeat from record to record, so they are shared through a small cache rather than allocated every time
+    private String intern() {
+        if (length > LONGEST_NAME) return new String(text, 0, length);
+        int hash = 0;
+        for (int i = 0; i < length; i++) hash = 31 * hash + text[i];
+        int index = (hash ^ (hash >>> 16)) & (NAMES - 1);
+        String cached = names[index];
+        if (cached != null && matches(cached)) return cached;
+        return names[index] = new String(text, 0, length);
+    }
+
+    private boolean matches(String candidate) {
+        if (candidate.length() != length) return false;
+        for (int i = 0; i < length; i++) if (candidate.charAt(i) != text[i]) return false;
+        return true;
+    }
+
+    private void append(char c) {
+        if (skipping) return;
+        if (length == text.length) text = Arrays.copyOf(text, length * 2);
+        text[length++] = c;
+    }
+
+    private void append(char[] chars, int offset, int count) {
+        if (skipping || count == 0) return;
+        if (length + count > text.length) text = Arrays.copyOf(text, Math.max(text.length * 2, length + count));
+        System.arraycopy(chars, offset, text, length, count);
+        length += count;
+    }
+
+    private int nonWhitespace() {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+        }
+    }
+
+    private int read() {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int lookahead() {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() {
+        try {
+            consumed += limit;
+            position = 0;
+            limit = 0;
+            int count;
+            do {
+                count = reader.read(buffer, 0, buffer.length);
+            } while (count == 0);
+            if (count < 0) return false;
+            limit = count;
+            return true;
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
+    }
+
+    private IllegalArgumentException unexpected(int c, String expected) {
+        String actual = c == -1 ? "end of input" : "'" + (char) c + "'";
+        return new IllegalArgumentException("Expected " + expected + " but found " + actual + " at character " + (consumed + position));
+    }
+}
@@ -1,12 +1,17 @@
 package com.googlecode.totallylazy.json;
 
-import com.googlecode.totallylazy.Option;
 import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.functions.Function1;
+import com.googlecode.totallylazy.reflection.Accessors;
 import com.googlecode.totallylazy.reflection.Fields;
 import com.googlecode.totallylazy.reflection.Reflection;
 import com.googlecode.totallylazy.reflection.Types;
 import com.googlecode.totallylazy.time.Dates;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -21,10 +26,8 @@ import java.util.Set;
 import static com.googlecode.totallylazy.Classes.allClasses;
 import static com.googlecode.totallylazy.LazyException.lazyException;
 import static com.googlecode.totallylazy.Pair.pair;
-import static com.googlecode.totallylazy.Sequences.reject;
 import static com.googlecode.totallylazy.Sequences.sequence;
 import static com.googlecode.totallylazy.Sets.set;
-import static com.googlecode.totallylazy.Sets.union;
 import static com.googlecode.totallylazy.Unchecked.cast;
 import static com.googlecode.totallylazy.predicates.Predicates.and;
 import static com.googlecode.totallylazy.predicates.Predicates.is;
@@ -35,15 +38,59 @@ import static com.googlecode.totallylazy.reflection.Types.matches;
 import static java.util.Collections.unmodifiableSet;
 
 public abstract class JsonRecord extends AbstractMap<String, Object> {
+    private static final ClassValue<Binding> bindings = new ClassValue<Binding>() {
+        @Override
+        protected Binding computeValue(Class<?> type) {
+            return new Binding(type);
+        }
+    };
     private final Map<String, Object> _otherFields = new HashMap<>();
 
+    /**
+     * Reads a whole document holding one object. The JSON must follow RFC 8259 exactly: trailing commas, numbers
+     * with leading zeros and anything other than whitespace after the object are rejected (the {@link Json#map(String)}
+     * grammar lets them through).
+     */
     public static <T extends JsonRecord> T parse(Class<T> recordType, String data) {
-        return create(recordType, Json.map(data));
+        JsonReader reader = JsonReader.jsonReader(data);
+        T record = parse(recordType, reader);
+        reader.expectEnd();
+        return record;
+    }
+
+    /**
+     * Reads the next object from the reader straight into a new record, keeping any fields the record does not declare
+     */
+    public static <T extends JsonRecord> T parse(Class<T> recordType, JsonReader reader) {
+        reader.expect(JsonReader.Event.StartObject);
+        return read(recordType, reader, true);
+    }
+
+    /**
+     * Like {@link #parse(Class, JsonReader)} but passes over fields the record does not declare without reading them
+     */
+    public static <T extends JsonRecord> T parseDeclaredFields(Class<T> recordType, JsonReader reader) {
+        reader.expect(JsonReader.Event.StartObject);
+        return read(recordType, reader, false);
+    }
+
+    // Called with the StartObject already consumed
+    static <T extends JsonRecord> T read(Class<T> recordType, JsonReader reader, boolean unknownFields) {
+        Binding binding = bindings.get(recordType);
+        T instance = cast(binding.newInstance());
+        while (reader.next() == JsonReader.Event.Name) {
+            String name = reader.text();
+            int index = binding.accessors.indexOfIgnoreCase(name);
+            if (index >= 0) binding.accessors.set(index, instance, binding.decoders[index].decode(reader, reader.next(), unknownFields));
+            else if (unknownFields) instance.otherFields().put(name, reader.value());
+            else reader.skipValue();
+        }
+        return instance;
     }
 
     public static <T extends JsonRecord> T create(Class<T> recordType, Map<String, Object> data) {
         try {
-            T instance = Reflection.newInstance(recordType);
+            T instance = cast(bindings.get(recordType).newInstance());
             for (Entry<String, Object> entry : data.entrySet()) {
                 instance.put(entry.getKey(), entry.getValue());
             }
@@ -55,50 +102,50 @@ public abstract class JsonRecord extends AbstractMap<String, Object> {
 
     @Override
     public Set<Entry<String, Object>> entrySet() {
-        return unmodifiableSet(reject(union(fieldSet(), _otherFields.entrySet()), entry -> entry.getValue() == null).toSet());
-    }
-
-    private Set<Entry<String, Object>> fieldSet() {
-        Sequence<Field> fields = fields();
-        return set(fields.
-                reject(where(modifiers, synthetic)).
-                map(f -> pair(f.getName(), Fields.get(f, this))));
+        Accessors accessors = accessors(getClass());
+        Set<Entry<String, Object>> entries = set();
+        for (int i = 0; i < accessors.size(); i++) {
+            Object value = accessors.get(i, this);
+            if (value != null) entries.add(pair(accessors.name(i), value));
+        }
+        for (Entry<String, Object> entry : _otherFields.entrySet()) {
+            if (entry.getValue() != null) entries.add(entry);
+        }
+        return unmodifiableSet(entries);
     }
 
-    private Sequence<Field> fields() {
-        Sequence<Class<?>> classes = allClasses(getClass()).
+    static Sequence<Field> fields(Class<?> recordType) {
+        Sequence<Class<?>> classes = allClasses(recordType).
                 reject(Class::isInterface).
                 takeWhile(c -> !c.equals(JsonRecord.class));
         return classes.flatMap(Fields.fields());
     }
 
-    @Override
-    public Object get(Object key) {
-        return field(key.toString()).
-                map(Fields.value(this)).
-                getOrElse(() -> _otherFields.get(key));
+    /**
+     * The non-synthetic fields of the record class, resolved once per class
+     */
+    static Accessors accessors(Class<?> recordType) {
+        return bindings.get(recordType).accessors;
+    }
+
+    Map<String, Object> otherFields() {
+        return _otherFields;
     }
 
-    private Option<Field> field(String name) {
-        return fields().
-                find(f -> f.getName().equalsIgnoreCase(name)).
-                map(Fields::access);
+    @Override
+    public Object get(Object key) {
+        Accessors accessors = accessors(getClass());
+        int index = accessors.indexOfIgnoreCase(key.toString());
+        return index < 0 ? _otherFields.get(key) : accessors.get(index, this);
     }
 
     @Override
     public Object put(String key, Object value) {
-        try {
-            Option<Field> field = field(key);
-            if (field.isDefined()) {
-                Field actual = field.get();
-                actual.set(this, Coercer.coerce(actual.getGenericType(), value));
-                return Fields.get(actual, this);
-            } else {
-                return _otherFields.put(key, value);
-            }
-        } catch (IllegalAccessException e) {
-            throw lazyException(e);
-        }
+        Binding binding = bindings.get(getClass());
+        int index = binding.accessors.indexOfIgnoreCase(key);
+        if (index < 0) return _otherFields.put(key, value);
+        binding.accessors.set(index, this, binding.coercers[index].apply(value));
+        return binding.accessors.get(index, this);
     }
 
 
@@ -106,5 +153,45 @@ public abstract class JsonRecord extends AbstractMap<String, Object> {
     public String toString() {
         return Json.json(this);
     }
-}
 
+    private static final class Binding {
+        private final Class<?> recordType;
+        private final Accessors accessors;
+        private final Function1<Object, Object>[] coercers;
+        private final Decoder[] decoders;
+        private final MethodHandle constructor;
+
+        private Binding(Class<?> recordType) {
+            this.recordType = recordType;
+            accessors = Accessors.accessors(fields(recordType).reject(where(modifiers, synthetic)));
+            coercers = cast(new Function1<?, ?>[accessors.size()]);
+            decoders = new Decoder[accessors.size()];
+            for (int i = 0; i < coercers.length; i++) {
+                coercers[i] = Coercer.coercer(accessors.field(i).getGenericType());
+                decoders[i] = Decoder.decoder(accessors.field(i).getGenericType());
+            }
+            constructor = constructor(recordType);
+        }
+
+        private static MethodHandle constructor(Class<?> recordType) {
+            try {
+                Constructor<?> constructor = recordType.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return null;
+            }
+        }
+
+        private Object newInstance() {
+            try {
+                if (constructor == null) return Reflection.newInstance(recordType);
+                return constructor.invokeExact();
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw lazyException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.googlecode.totallylazy.json;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes UTF-8 straight out of a ByteBuffer (heap, direct or memory mapped) without copying it first.
+ * Malformed or truncated sequences decode to U+FFFD, as InputStreamReader does. A supplementary character that does
+ * not fit in the caller's buffer has its low surrogate held back for the next read.
+ */
+final class Utf8Reader extends Reader {
+    private static final char REPLACEMENT = '\uFFFD';
+    private final ByteBuffer bytes;
+    private char pending;
+
+    Utf8Reader(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        if (length == 0) return 0;
+        int count = 0;
+        if (pending != 0) {
+            buffer[offset + count++] = pending;
+            pending = 0;
+        } else if (!bytes.hasRemaining()) {
+            return -1;
+        }
+        count += ascii(buffer, offset + count, length - count);
+        while (count < length && bytes.hasRemaining()) {
+            int b = bytes.get() & 0xFF;
+            if (b < 0x80) {
+                buffer[offset + count++] = (char) b;
+            } else if (b < 0xC0) {
+                buffer[offset + count++] = REPLACEMENT;
+            } else if (b < 0xE0) {
+                buffer[offset + count++] = (char) decode(b & 0x1F, 1);
+            } else if (b < 0xF0) {
+                buffer[offset + count++] = (char) decode(b & 0x0F, 2);
+            } else {
+                int codePoint = decode(b & 0x07, 3);
+                if (Character.isSupplementaryCodePoint(codePoint)) {
+                    buffer[offset + count++] = Character.highSurrogate(codePoint);
+                    if (count < length) buffer[offset + count++] = Character.lowSurrogate(codePoint);
+                    else pending = Character.lowSurrogate(codePoint);
+                } else {
+                    buffer[offset + count++] = REPLACEMENT;
+                }
+            }
+        }
+        return count;
+    }
+
+    // JSON is mostly ASCII: copy a run of it in a tight loop before falling back to decoding byte by byte
+    private int ascii(char[] buffer, int offset, int length) {
+        int start = bytes.position();
+        int end = start + Math.min(length, bytes.remaining());
+        int index = start;
+        if (bytes.hasArray()) {
+            byte[] array = bytes.array();
+            int base = bytes.arrayOffset();
+            for (byte b; index < end && (b = array[base + index]) >= 0; index++) buffer[offset + index - start] = (char) b;
+        } else {
+            for (byte b; index < end && (b = bytes.get(index)) >= 0; index++) buffer[offset + index - start] = (char) b;
+        }
+        bytes.position(index);
+        return index - start;
+    }
+
+    private int decode(int value, int continuations) {
+        for (int i = 0; i < continuations; i++) {
+            if (!bytes.hasRemaining()) return REPLACEMENT;
+            int b = bytes.get(bytes.position()) & 0xFF;
+            if ((b & 0xC0) != 0x80) return REPLACEMENT;
+            bytes.get();
+            value = (value << 6) | (b & 0x3F);
+        }
+        return value;
+    }
+
+    @Override
+    public void close() {
+    }
+}
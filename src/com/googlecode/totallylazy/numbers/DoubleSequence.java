@@ -0,0 +1,332 @@
+package com.googlecode.totallylazy.numbers;
+
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.Sequences;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A lazy Sequence of unboxed doubles: every operation works directly on double values so pipelines allocate
+ * per stage rather than per element. Use {@link #numbers()} to get back to a Sequence&lt;Number&gt;.
+ */
+public abstract class DoubleSequence implements Iterable<Double> {
+    public abstract PrimitiveIterator.OfDouble iterator();
+
+    public static DoubleSequence doubles(final double... values) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                return new PrimitiveIterator.OfDouble() {
+                    private int index = 0;
+
+                    public boolean hasNext() {
+                        return index < values.length;
+                    }
+
+                    public double nextDouble() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        return values[index++];
+                    }
+                };
+            }
+
+            @Override
+            public double[] toArray() {
+                return values.clone();
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    public static DoubleSequence doubles(final Iterable<? extends Number> numbers) {
+        if (numbers instanceof DoubleSequence) return (DoubleSequence) numbers;
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                Iterator<? extends Number> iterator = numbers.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public double nextDouble() {
+                        return iterator.next().doubleValue();
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence map(final DoubleUnaryOperator mapper) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                PrimitiveIterator.OfDouble iterator = DoubleSequence.this.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public double nextDouble() {
+                        return mapper.applyAsDouble(iterator.nextDouble());
+                    }
+                };
+            }
+        };
+    }
+
+    public IntSequence mapToInt(final DoubleToIntFunction mapper) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                PrimitiveIterator.OfDouble iterator = DoubleSequence.this.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public int nextInt() {
+                        return mapper.applyAsInt(iterator.nextDouble());
+                    }
+                };
+            }
+        };
+    }
+
+    public LongSequence mapToLong(final DoubleToLongFunction mapper) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                PrimitiveIterator.OfDouble iterator = DoubleSequence.this.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public long nextLong() {
+                        return mapper.applyAsLong(iterator.nextDouble());
+                    }
+                };
+            }
+        };
+    }
+
+    public <T> Sequence<T> mapToObject(final DoubleFunction<? extends T> mapper) {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                PrimitiveIterator.OfDouble iterator = DoubleSequence.this.iterator();
+                return new Iterator<T>() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public T next() {
+                        return mapper.apply(iterator.nextDouble());
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence filter(final DoublePredicate predicate) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                PrimitiveIterator.OfDouble iterator = DoubleSequence.this.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    private boolean loaded;
+                    private double current;
+
+                    public boolean hasNext() {
+                        while (!loaded && iterator.hasNext()) {
+                            double value = iterator.nextDouble();
+                            if (predicate.test(value)) {
+                                current = value;
+                                loaded = true;
+                            }
+                        }
+                        return loaded;
+                    }
+
+                    public double nextDouble() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        loaded = false;
+                        return current;
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence take(final int count) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                PrimitiveIterator.OfDouble iterator = DoubleSequence.this.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    private int remaining = count;
+
+                    public boolean hasNext() {
+                        return remaining > 0 && iterator.hasNext();
+                    }
+
+                    public double nextDouble() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        remaining--;
+                        return iterator.nextDouble();
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence drop(final int count) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                PrimitiveIterator.OfDouble iterator = DoubleSequence.this.iterator();
+                for (int i = 0; i < count && iterator.hasNext(); i++) iterator.nextDouble();
+                return iterator;
+            }
+        };
+    }
+
+    public DoubleSequence zip(final DoubleSequence other, final DoubleBinaryOperator combiner) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                PrimitiveIterator.OfDouble left = DoubleSequence.this.iterator();
+                PrimitiveIterator.OfDouble right = other.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    public boolean hasNext() {
+                        return left.hasNext() && right.hasNext();
+                    }
+
+                    public double nextDouble() {
+                        return combiner.applyAsDouble(left.nextDouble(), right.nextDouble());
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence each(final DoubleConsumer consumer) {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        while (iterator.hasNext()) consumer.accept(iterator.nextDouble());
+        return this;
+    }
+
+    public double fold(final double seed, final DoubleBinaryOperator reducer) {
+        double result = seed;
+        PrimitiveIterator.OfDouble iterator = iterator();
+        while (iterator.hasNext()) result = reducer.applyAsDouble(result, iterator.nextDouble());
+        return result;
+    }
+
+    public double reduce(final DoubleBinaryOperator reducer) {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        double result = iterator.nextDouble();
+        while (iterator.hasNext()) result = reducer.applyAsDouble(result, iterator.nextDouble());
+        return result;
+    }
+
+    public double sum() {
+        double result = 0;
+        PrimitiveIterator.OfDouble iterator = iterator();
+        while (iterator.hasNext()) result += iterator.nextDouble();
+        return result;
+    }
+
+    public double average() {
+        double total = 0;
+        long count = 0;
+        PrimitiveIterator.OfDouble iterator = iterator();
+        while (iterator.hasNext()) {
+            total += iterator.nextDouble();
+            count++;
+        }
+        if (count == 0) throw new NoSuchElementException();
+        return total / count;
+    }
+
+    public double minimum() {
+        return reduce(Math::min);
+    }
+
+    public double maximum() {
+        return reduce(Math::max);
+    }
+
+    public int size() {
+        int count = 0;
+        PrimitiveIterator.OfDouble iterator = iterator();
+        while (iterator.hasNext()) {
+            iterator.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    public double head() {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        return iterator.nextDouble();
+    }
+
+    public double[] toArray() {
+        double[] result = new double[16];
+        int size = 0;
+        PrimitiveIterator.OfDouble iterator = iterator();
+        while (iterator.hasNext()) {
+            if (size == result.length) result = Arrays.copyOf(result, size * 2);
+            result[size++] = iterator.nextDouble();
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Materialises the values into an array so they can be iterated repeatedly
+     */
+    public DoubleSequence realise() {
+        return doubles(toArray());
+    }
+
+    public Sequence<Number> numbers() {
+        return mapToObject(Double::valueOf);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof DoubleSequence && Arrays.equals(toArray(), ((DoubleSequence) obj).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Sequences.toString(numbers());
+    }
+}
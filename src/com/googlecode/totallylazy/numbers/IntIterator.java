@@ -3,8 +3,9 @@ package com.googlecode.totallylazy.numbers;
 import com.googlecode.totallylazy.iterators.ReadOnlyIterator;
 
 import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 
-public final class IntIterator extends ReadOnlyIterator<Number> {
+public final class IntIterator extends ReadOnlyIterator<Integer> implements PrimitiveIterator.OfInt {
     private final int[] array;
     private int index = 0;
 
@@ -16,10 +17,14 @@ public final class IntIterator extends ReadOnlyIterator<Number> {
         return index < array.length;
     }
 
-    public final Number next() {
+    public final int nextInt() {
         if(hasNext()){
-            return (Number) array[index++];
+            return array[index++];
         }
         throw new NoSuchElementException();
     }
+
+    public final Integer next() {
+        return nextInt();
+    }
 }
@@ -0,0 +1,371 @@
+package com.googlecode.totallylazy.numbers;
+
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.Sequences;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A lazy Sequence of unboxed ints: every operation works directly on int values so pipelines allocate
+ * per stage rather than per element. Use {@link #numbers()} to get back to a Sequence&lt;Number&gt;.
+ * <p>
+ * {@link Numbers#range(Number, Number)} and {@link Numbers#sum()} stay on Number rather than using this:
+ * they take any Number and promote to Long or BigInteger instead of overflowing.
+ */
+public abstract class IntSequence implements Iterable<Integer> {
+    public abstract PrimitiveIterator.OfInt iterator();
+
+    public static IntSequence ints(final int... values) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                return new IntIterator(values);
+            }
+
+            @Override
+            public int[] toArray() {
+                return values.clone();
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    /**
+     * Numbers outside the int range throw an ArithmeticException rather than wrapping around
+     */
+    public static IntSequence ints(final Iterable<? extends Number> numbers) {
+        if (numbers instanceof IntSequence) return (IntSequence) numbers;
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                Iterator<? extends Number> iterator = numbers.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public int nextInt() {
+                        Number number = iterator.next();
+                        return number instanceof Integer ? (Integer) number : Math.toIntExact(number.longValue());
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Inclusive range, descending when end is less than start (matching {@link Numbers#range(Number, Number)})
+     */
+    public static IntSequence range(final int start, final int end) {
+        return range(start, end, end < start ? -1 : 1);
+    }
+
+    public static IntSequence range(final int start, final int end, final int step) {
+        if (step == 0) throw new IllegalArgumentException("step can not be zero");
+        final int absoluteStep = Math.abs(step);
+        final boolean descending = end < start;
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                return new PrimitiveIterator.OfInt() {
+                    private long next = start;
+
+                    public boolean hasNext() {
+                        return descending ? next >= end : next <= end;
+                    }
+
+                    public int nextInt() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        int result = (int) next;
+                        next = descending ? next - absoluteStep : next + absoluteStep;
+                        return result;
+                    }
+                };
+            }
+        };
+    }
+
+    public IntSequence map(final IntUnaryOperator mapper) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                PrimitiveIterator.OfInt iterator = IntSequence.this.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public int nextInt() {
+                        return mapper.applyAsInt(iterator.nextInt());
+                    }
+                };
+            }
+        };
+    }
+
+    public LongSequence mapToLong(final IntToLongFunction mapper) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                PrimitiveIterator.OfInt iterator = IntSequence.this.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public long nextLong() {
+                        return mapper.applyAsLong(iterator.nextInt());
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence mapToDouble(final IntToDoubleFunction mapper) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                PrimitiveIterator.OfInt iterator = IntSequence.this.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public double nextDouble() {
+                        return mapper.applyAsDouble(iterator.nextInt());
+                    }
+                };
+            }
+        };
+    }
+
+    public <T> Sequence<T> mapToObject(final IntFunction<? extends T> mapper) {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                PrimitiveIterator.OfInt iterator = IntSequence.this.iterator();
+                return new Iterator<T>() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public T next() {
+                        return mapper.apply(iterator.nextInt());
+                    }
+                };
+            }
+        };
+    }
+
+    public IntSequence filter(final IntPredicate predicate) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                PrimitiveIterator.OfInt iterator = IntSequence.this.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    private boolean loaded;
+                    private int current;
+
+                    public boolean hasNext() {
+                        while (!loaded && iterator.hasNext()) {
+                            int value = iterator.nextInt();
+                            if (predicate.test(value)) {
+                                current = value;
+                                loaded = true;
+                            }
+                        }
+                        return loaded;
+                    }
+
+                    public int nextInt() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        loaded = false;
+                        return current;
+                    }
+                };
+            }
+        };
+    }
+
+    public IntSequence take(final int count) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                PrimitiveIterator.OfInt iterator = IntSequence.this.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    private int remaining = count;
+
+                    public boolean hasNext() {
+                        return remaining > 0 && iterator.hasNext();
+                    }
+
+                    public int nextInt() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        remaining--;
+                        return iterator.nextInt();
+                    }
+                };
+            }
+        };
+    }
+
+    public IntSequence drop(final int count) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                PrimitiveIterator.OfInt iterator = IntSequence.this.iterator();
+                for (int i = 0; i < count && iterator.hasNext(); i++) iterator.nextInt();
+                return iterator;
+            }
+        };
+    }
+
+    public IntSequence zip(final IntSequence other, final IntBinaryOperator combiner) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                PrimitiveIterator.OfInt left = IntSequence.this.iterator();
+                PrimitiveIterator.OfInt right = other.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    public boolean hasNext() {
+                        return left.hasNext() && right.hasNext();
+                    }
+
+                    public int nextInt() {
+                        return combiner.applyAsInt(left.nextInt(), right.nextInt());
+                    }
+                };
+            }
+        };
+    }
+
+    public IntSequence each(final IntConsumer consumer) {
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) consumer.accept(iterator.nextInt());
+        return this;
+    }
+
+    public int fold(final int seed, final IntBinaryOperator reducer) {
+        int result = seed;
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) result = reducer.applyAsInt(result, iterator.nextInt());
+        return result;
+    }
+
+    public int reduce(final IntBinaryOperator reducer) {
+        PrimitiveIterator.OfInt iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        int result = iterator.nextInt();
+        while (iterator.hasNext()) result = reducer.applyAsInt(result, iterator.nextInt());
+        return result;
+    }
+
+    /**
+     * Sums into a long so large sequences do not silently overflow
+     */
+    public long sum() {
+        long result = 0;
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) result += iterator.nextInt();
+        return result;
+    }
+
+    public double average() {
+        long total = 0;
+        long count = 0;
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) {
+            total += iterator.nextInt();
+            count++;
+        }
+        if (count == 0) throw new NoSuchElementException();
+        return (double) total / count;
+    }
+
+    public int minimum() {
+        return reduce(Math::min);
+    }
+
+    public int maximum() {
+        return reduce(Math::max);
+    }
+
+    public int size() {
+        int count = 0;
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) {
+            iterator.nextInt();
+            count++;
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    public int head() {
+        PrimitiveIterator.OfInt iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        return iterator.nextInt();
+    }
+
+    public int[] toArray() {
+        int[] result = new int[16];
+        int size = 0;
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) {
+            if (size == result.length) result = Arrays.copyOf(result, size * 2);
+            result[size++] = iterator.nextInt();
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Materialises the values into an array so they can be iterated repeatedly
+     */
+    public IntSequence realise() {
+        return ints(toArray());
+    }
+
+    public LongSequence longs() {
+        return mapToLong(value -> value);
+    }
+
+    public DoubleSequence doubles() {
+        return mapToDouble(value -> value);
+    }
+
+    public Sequence<Number> numbers() {
+        return mapToObject(Integer::valueOf);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IntSequence && Arrays.equals(toArray(), ((IntSequence) obj).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Sequences.toString(numbers());
+    }
+}
@@ -0,0 +1,373 @@
+package com.googlecode.totallylazy.numbers;
+
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.Sequences;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A lazy Sequence of unboxed longs: every operation works directly on long values so pipelines allocate
+ * per stage rather than per element. Use {@link #numbers()} to get back to a Sequence&lt;Number&gt;.
+ * <p>
+ * {@link Numbers#range(Number, Number)} and {@link Numbers#sum()} stay on Number rather than using this:
+ * they take any Number and promote to BigInteger instead of overflowing.
+ */
+public abstract class LongSequence implements Iterable<Long> {
+    public abstract PrimitiveIterator.OfLong iterator();
+
+    public static LongSequence longs(final long... values) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                return new PrimitiveIterator.OfLong() {
+                    private int index = 0;
+
+                    public boolean hasNext() {
+                        return index < values.length;
+                    }
+
+                    public long nextLong() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        return values[index++];
+                    }
+                };
+            }
+
+            @Override
+            public long[] toArray() {
+                return values.clone();
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    public static LongSequence longs(final Iterable<? extends Number> numbers) {
+        if (numbers instanceof LongSequence) return (LongSequence) numbers;
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                Iterator<? extends Number> iterator = numbers.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public long nextLong() {
+                        return iterator.next().longValue();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Inclusive range, descending when end is less than start (matching {@link Numbers#range(Number, Number)})
+     */
+    public static LongSequence range(final long start, final long end) {
+        return range(start, end, end < start ? -1 : 1);
+    }
+
+    public static LongSequence range(final long start, final long end, final long step) {
+        if (step == 0) throw new IllegalArgumentException("step can not be zero");
+        final long absoluteStep = Math.abs(step);
+        final boolean descending = end < start;
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                return new PrimitiveIterator.OfLong() {
+                    private long next = start;
+                    private boolean finished = false;
+
+                    public boolean hasNext() {
+                        return !finished && (descending ? next >= end : next <= end);
+                    }
+
+                    public long nextLong() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        long result = next;
+                        next = descending ? next - absoluteStep : next + absoluteStep;
+                        finished = descending ? next > result : next < result;
+                        return result;
+                    }
+                };
+            }
+        };
+    }
+
+    public LongSequence map(final LongUnaryOperator mapper) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                PrimitiveIterator.OfLong iterator = LongSequence.this.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public long nextLong() {
+                        return mapper.applyAsLong(iterator.nextLong());
+                    }
+                };
+            }
+        };
+    }
+
+    public IntSequence mapToInt(final LongToIntFunction mapper) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                PrimitiveIterator.OfLong iterator = LongSequence.this.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public int nextInt() {
+                        return mapper.applyAsInt(iterator.nextLong());
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence mapToDouble(final LongToDoubleFunction mapper) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                PrimitiveIterator.OfLong iterator = LongSequence.this.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public double nextDouble() {
+                        return mapper.applyAsDouble(iterator.nextLong());
+                    }
+                };
+            }
+        };
+    }
+
+    public <T> Sequence<T> mapToObject(final LongFunction<? extends T> mapper) {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                PrimitiveIterator.OfLong iterator = LongSequence.this.iterator();
+                return new Iterator<T>() {
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    public T next() {
+                        return mapper.apply(iterator.nextLong());
+                    }
+                };
+            }
+        };
+    }
+
+    public LongSequence filter(final LongPredicate predicate) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                PrimitiveIterator.OfLong iterator = LongSequence.this.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    private boolean loaded;
+                    private long current;
+
+                    public boolean hasNext() {
+                        while (!loaded && iterator.hasNext()) {
+                            long value = iterator.nextLong();
+                            if (predicate.test(value)) {
+                                current = value;
+                                loaded = true;
+                            }
+                        }
+                        return loaded;
+                    }
+
+                    public long nextLong() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        loaded = false;
+                        return current;
+                    }
+                };
+            }
+        };
+    }
+
+    public LongSequence take(final int count) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                PrimitiveIterator.OfLong iterator = LongSequence.this.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    private int remaining = count;
+
+                    public boolean hasNext() {
+                        return remaining > 0 && iterator.hasNext();
+                    }
+
+                    public long nextLong() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        remaining--;
+                        return iterator.nextLong();
+                    }
+                };
+            }
+        };
+    }
+
+    public LongSequence drop(final int count) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                PrimitiveIterator.OfLong iterator = LongSequence.this.iterator();
+                for (int i = 0; i < count && iterator.hasNext(); i++) iterator.nextLong();
+                return iterator;
+            }
+        };
+    }
+
+    public LongSequence zip(final LongSequence other, final LongBinaryOperator combiner) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                PrimitiveIterator.OfLong left = LongSequence.this.iterator();
+                PrimitiveIterator.OfLong right = other.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    public boolean hasNext() {
+                        return left.hasNext() && right.hasNext();
+                    }
+
+                    public long nextLong() {
+                        return combiner.applyAsLong(left.nextLong(), right.nextLong());
+                    }
+                };
+            }
+        };
+    }
+
+    public LongSequence each(final LongConsumer consumer) {
+        PrimitiveIterator.OfLong iterator = iterator();
+        while (iterator.hasNext()) consumer.accept(iterator.nextLong());
+        return this;
+    }
+
+    public long fold(final long seed, final LongBinaryOperator reducer) {
+        long result = seed;
+        PrimitiveIterator.OfLong iterator = iterator();
+        while (iterator.hasNext()) result = reducer.applyAsLong(result, iterator.nextLong());
+        return result;
+    }
+
+    public long reduce(final LongBinaryOperator reducer) {
+        PrimitiveIterator.OfLong iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        long result = iterator.nextLong();
+        while (iterator.hasNext()) result = reducer.applyAsLong(result, iterator.nextLong());
+        return result;
+    }
+
+    public long sum() {
+        long result = 0;
+        PrimitiveIterator.OfLong iterator = iterator();
+        while (iterator.hasNext()) result += iterator.nextLong();
+        return result;
+    }
+
+    public double average() {
+        double total = 0;
+        long count = 0;
+        PrimitiveIterator.OfLong iterator = iterator();
+        while (iterator.hasNext()) {
+            total += iterator.nextLong();
+            count++;
+        }
+        if (count == 0) throw new NoSuchElementException();
+        return total / count;
+    }
+
+    public long minimum() {
+        return reduce(Math::min);
+    }
+
+    public long maximum() {
+        return reduce(Math::max);
+    }
+
+    public int size() {
+        int count = 0;
+        PrimitiveIterator.OfLong iterator = iterator();
+        while (iterator.hasNext()) {
+            iterator.nextLong();
+            count++;
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    public long head() {
+        PrimitiveIterator.OfLong iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        return iterator.nextLong();
+    }
+
+    public long[] toArray() {
+        long[] result = new long[16];
+        int size = 0;
+        PrimitiveIterator.OfLong iterator = iterator();
+        while (iterator.hasNext()) {
+            if (size == result.length) result = Arrays.copyOf(result, size * 2);
+            result[size++] = iterator.nextLong();
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Materialises the values into an array so they can be iterated repeatedly
+     */
+    public LongSequence realise() {
+        return longs(toArray());
+    }
+
+    public DoubleSequence doubles() {
+        return mapToDouble(value -> value);
+    }
+
+    public Sequence<Number> numbers() {
+        return mapToObject(Long::valueOf);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof LongSequence && Arrays.equals(toArray(), ((LongSequence) obj).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Sequences.toString(numbers());
+    }
+}
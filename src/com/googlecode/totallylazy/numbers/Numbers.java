@@ -23,6 +23,7 @@ import com.googlecode.totallylazy.functions.CurriedMonoid;
 import com.googlecode.totallylazy.Computation;
 import com.googlecode.totallylazy.Option;
 import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.ParallelSequence;
 import com.googlecode.totallylazy.predicates.Predicate;
 import com.googlecode.totallylazy.predicates.Predicates;
 import com.googlecode.totallylazy.Segment;
@@ -49,6 +50,7 @@ import static com.googlecode.totallylazy.Segment.constructors.unique;
 import static com.googlecode.totallylazy.Sequences.characters;
 import static com.googlecode.totallylazy.Sequences.iterate;
 import static com.googlecode.totallylazy.Sequences.repeat;
+import static com.googlecode.totallylazy.Unchecked.cast;
 import static com.googlecode.totallylazy.predicates.WherePredicate.where;
 
 public class Numbers {
@@ -63,7 +65,23 @@ public class Numbers {
 
     public static Sequence<Number> range(final Number start, final Number end) {
         if (lessThan(end, start)) return range(start, end, 1);
-        return range(start).takeWhile(lessThanOrEqualTo(end));
+        final Sequence<Number> range = range(start).takeWhile(lessThanOrEqualTo(end));
+        if (!splittable(start, end)) return range;
+        return new Sequence<Number>() {
+            public Iterator<Number> iterator() {
+                return range.iterator();
+            }
+
+            @Override
+            public ParallelSequence<Number> parallel() {
+                return ParallelSequence.range(start, end);
+            }
+        };
+    }
+
+    private static boolean splittable(Number start, Number end) {
+        return operatorsFor(start, end) instanceof IntegralOperators &&
+                lessThan(subtract(end, start), Integer.MAX_VALUE);
     }
 
     public static Sequence<Number> range(final Number start, final Number end, final Number step) {
@@ -93,7 +111,7 @@ public class Numbers {
     public static Sequence<Number> numbers(final int[] numbers) {
         return new Sequence<Number>() {
             public Iterator<Number> iterator() {
-                return new IntIterator(numbers);
+                return cast(new IntIterator(numbers));
             }
         };
     }
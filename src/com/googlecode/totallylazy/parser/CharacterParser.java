@@ -8,7 +8,7 @@ import static com.googlecode.totallylazy.predicates.Predicates.is;
 import static com.googlecode.totallylazy.predicates.Predicates.not;
 import static com.googlecode.totallylazy.parser.Success.success;
 
-class CharacterParser implements Parser<Character> {
+class CharacterParser implements Parser<Character>, First.Lookahead {
     private final Predicate<Character> predicate;
 
     private CharacterParser(Predicate<Character> predicate) {
@@ -39,6 +39,10 @@ class CharacterParser implements Parser<Character> {
         return character -> character(character);
     }
 
+    Predicate<Character> predicate() {
+        return predicate;
+    }
+
     @Override
     public Result<Character> parse(final Segment<Character> characters) {
         if(characters.isEmpty()) return fail(predicate, "[EOF]");
@@ -52,4 +56,9 @@ class CharacterParser implements Parser<Character> {
     public String toString() {
         return predicate.toString();
     }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.characters(predicate);
+    }
 }
@@ -2,10 +2,11 @@ package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.predicates.Predicate;
 import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.segments.CharacterSegment;
 
 import static com.googlecode.totallylazy.parser.Success.success;
 
-class CharactersParser implements Parser<CharSequence> {
+class CharactersParser implements Parser<CharSequence>, First.Lookahead {
     private final Predicate<Character> predicate;
 
     private CharactersParser(Predicate<Character> predicate) {
@@ -22,6 +23,7 @@ class CharactersParser implements Parser<CharSequence> {
 
     @Override
     public Result<CharSequence> parse(Segment<Character> characters) {
+        if(characters instanceof CharacterSegment) return parse((CharacterSegment) characters);
         if(characters.isEmpty()) return fail(predicate, "");
         Segment<Character> segment = characters;
         StringBuilder result = new StringBuilder();
@@ -34,4 +36,18 @@ class CharactersParser implements Parser<CharSequence> {
         if(result.length() == 0) return fail(predicate, characters.head());
         return success(result, segment);
     }
+
+    private Result<CharSequence> parse(CharacterSegment segment) {
+        int length = segment.length();
+        if(length == 0) return fail(predicate, "");
+        int count = 0;
+        while (count < length && predicate.matches(segment.charAt(count))) count++;
+        if(count == 0) return fail(predicate, segment.charAt(0));
+        return success(segment.prefix(count), segment.drop(count));
+    }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.characters(predicate);
+    }
 }
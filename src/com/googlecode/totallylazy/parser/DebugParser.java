@@ -20,4 +20,10 @@ class DebugParser<T> extends DelegateParser<T> {
         printStream.println(name + " -> " + result);
         return result;
     }
+
+    // Always tried, so every attempt still shows up
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.ANY;
+    }
 }
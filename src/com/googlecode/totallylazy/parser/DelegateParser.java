@@ -2,7 +2,7 @@ package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.Segment;
 
-abstract class DelegateParser<A> implements Parser<A> {
+abstract class DelegateParser<A> implements Parser<A>, First.Lookahead {
     protected final Parser<A> delegate;
 
     protected DelegateParser(Parser<A> delegate) {
@@ -18,4 +18,9 @@ abstract class DelegateParser<A> implements Parser<A> {
     public Result<A> parse(Segment<Character> characters) {
         return delegate.parse(characters);
     }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.first(delegate, visiting);
+    }
 }
@@ -4,6 +4,7 @@ import com.googlecode.totallylazy.functions.Function1;
 import com.googlecode.totallylazy.Either;
 import com.googlecode.totallylazy.Option;
 import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.functions.Lazy;
 
 import static com.googlecode.totallylazy.Option.none;
 import static com.googlecode.totallylazy.Unchecked.cast;
@@ -18,7 +19,29 @@ public interface Failure<A> extends Result<A>{
 
             @Override
             public String message() {
-                return String.format("%s expected, %s encountered.", expected, actual);
+                return expected + " expected, " + actual + " encountered.";
+            }
+
+            @Override
+            public String toString() {
+                return "Failure(\"" + message() + "\")";
+            }
+        };
+    }
+
+    /**
+     * A failure whose actual value is only worked out if it is asked for, e.g. to report it
+     */
+    static <A> Failure<A> failure(final Object expected, final Lazy<?> actual) {
+        return new Failure<A>() {
+            @Override
+            public Object actual() {
+                return actual.value();
+            }
+
+            @Override
+            public String message() {
+                return expected + " expected, " + actual() + " encountered.";
             }
 
             @Override
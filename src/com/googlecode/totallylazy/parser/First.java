@@ -0,0 +1,132 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.predicates.Predicate;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The FIRST set of a parser: the characters a successful parse can start with, and whether it can succeed without
+ * consuming anything. ASCII characters are tracked exactly, anything beyond is a single "other" flag. It is only ever
+ * an over-approximation, so a parser whose FIRST set does not contain the next character is certain to fail there.
+ */
+final class First {
+    static final First ANY = new First(-1L, -1L, true, true);
+    static final First EMPTY = new First(0L, 0L, false, true);
+    static final First NONE = new First(0L, 0L, false, false);
+    static final int ASCII = 128;
+    private final long low;
+    private final long high;
+    private final boolean other;
+    private final boolean empty;
+
+    private First(long low, long high, boolean other, boolean empty) {
+        this.low = low;
+        this.high = high;
+        this.other = other;
+        this.empty = empty;
+    }
+
+    static First first(Parser<?> parser) {
+        return first(parser, new Visiting());
+    }
+
+    /**
+     * Parsers that do not say what they start with could start with anything, and so could a rule that (indirectly)
+     * starts with itself
+     */
+    static First first(Parser<?> parser, Visiting visiting) {
+        if (!(parser instanceof Lookahead) || !visiting.add(parser)) return ANY;
+        try {
+            return ((Lookahead) parser).first(visiting);
+        } finally {
+            visiting.remove(parser);
+        }
+    }
+
+    static First character(char c) {
+        if (c >= ASCII) return new First(0L, 0L, true, false);
+        return c < 64 ? new First(1L << c, 0L, false, false) : new First(0L, 1L << (c - 64), false, false);
+    }
+
+    /**
+     * The ASCII characters that match, and (as predicates can not be enumerated) any other character
+     */
+    static First characters(Predicate<? super Character> predicate) {
+        long low = 0L, high = 0L;
+        for (char c = 0; c < ASCII; c++) {
+            if (!predicate.matches(c)) continue;
+            if (c < 64) low |= 1L << c;
+            else high |= 1L << (c - 64);
+        }
+        return new First(low, high, true, false);
+    }
+
+    /**
+     * The parsers one after another: later parsers only count while everything before them can match nothing
+     */
+    static First sequence(Visiting visiting, Parser<?>... parsers) {
+        First result = EMPTY;
+        for (Parser<?> parser : parsers) {
+            if (!result.empty) return result;
+            First next = first(parser, visiting);
+            result = new First(result.low | next.low, result.high | next.high, result.other || next.other, next.empty);
+        }
+        return result;
+    }
+
+    First or(First first) {
+        return new First(low | first.low, high | first.high, other || first.other, empty || first.empty);
+    }
+
+    First optional() {
+        return empty ? this : new First(low, high, other, true);
+    }
+
+    boolean empty() {
+        return empty;
+    }
+
+    boolean other() {
+        return other;
+    }
+
+    boolean contains(char c) {
+        if (c >= ASCII) return other;
+        return c < 64 ? (low & 1L << c) != 0 : (high & 1L << (c - 64)) != 0;
+    }
+
+    /**
+     * The rules being worked out (to stop at recursion), and what every reference reached pointed at, so anything
+     * built from the result can tell when a reference has been set since
+     */
+    static final class Visiting {
+        private final Set<Parser<?>> parsers = Collections.newSetFromMap(new IdentityHashMap<Parser<?>, Boolean>());
+        private final Map<ReferenceParser<?>, Parser<?>> references = new IdentityHashMap<ReferenceParser<?>, Parser<?>>();
+
+        private boolean add(Parser<?> parser) {
+            return parsers.add(parser);
+        }
+
+        private void remove(Parser<?> parser) {
+            parsers.remove(parser);
+        }
+
+        void reference(ReferenceParser<?> reference, Parser<?> value) {
+            references.put(reference, value);
+        }
+
+        Map<ReferenceParser<?>, Parser<?>> references() {
+            return references;
+        }
+    }
+
+    /**
+     * Implemented by the parsers in this package that know what they can start with
+     */
+    interface Lookahead {
+        First first(Visiting visiting);
+    }
+}
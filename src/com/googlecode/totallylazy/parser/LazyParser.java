@@ -5,7 +5,7 @@ import com.googlecode.totallylazy.Segment;
 
 import java.util.concurrent.Callable;
 
-class LazyParser<T> implements Parser<T> {
+class LazyParser<T> implements Parser<T>, First.Lookahead {
     private final Lazy<Parser<T>> value;
 
     private LazyParser(Lazy<Parser<T>> value) {
@@ -23,6 +23,11 @@ class LazyParser<T> implements Parser<T> {
 
     @Override
     public Result<T> parse(Segment<Character> characters) {
-        return value.value().parse(characters);
+        return Memo.parse(this, value.value(), characters);
+    }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.first(value.value(), visiting);
     }
 }
@@ -11,7 +11,7 @@ import static com.googlecode.totallylazy.Sequences.sequence;
 import static com.googlecode.totallylazy.Unchecked.cast;
 import static com.googlecode.totallylazy.parser.Success.success;
 
-class ListParser<A> implements Parser<List<A>> {
+class ListParser<A> implements Parser<List<A>>, First.Lookahead {
     private final Sequence<? extends Parser<? extends A>> parsers;
 
     private ListParser(Sequence<? extends Parser<? extends A>> parsers) {
@@ -39,4 +39,9 @@ class ListParser<A> implements Parser<List<A>> {
         }
         return success(parsed, state);
     }
-}
\ No newline at end of file
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.sequence(visiting, parsers.toArray(Parser.class));
+    }
+}
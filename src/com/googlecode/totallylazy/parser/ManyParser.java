@@ -1,13 +1,16 @@
 package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.predicates.Predicate;
+import com.googlecode.totallylazy.segments.CharacterSegment;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.googlecode.totallylazy.Unchecked.cast;
 import static com.googlecode.totallylazy.parser.Success.success;
 
-class ManyParser<A> implements Parser<List<A>> {
+class ManyParser<A> implements Parser<List<A>>, First.Lookahead {
     private final Parser<? extends A> parser;
 
     private ManyParser(Parser<? extends A> parser) {
@@ -19,6 +22,8 @@ class ManyParser<A> implements Parser<List<A>> {
     }
 
     public Result<List<A>> parse(Segment<Character> characters) {
+        if (parser instanceof CharacterParser && characters instanceof CharacterSegment)
+            return characters(((CharacterParser) parser).predicate(), (CharacterSegment) characters);
         Segment<Character> segment = characters;
         List<A> list = new ArrayList<A>();
 
@@ -31,8 +36,25 @@ class ManyParser<A> implements Parser<List<A>> {
         return success(list, segment);
     }
 
+    // Many single characters (e.g. whitespace): scan ahead and only create the remainder once
+    private Result<List<A>> characters(Predicate<Character> predicate, CharacterSegment segment) {
+        List<A> list = new ArrayList<A>();
+        int count = 0;
+        for (int length = segment.length(); count < length; count++) {
+            Character c = segment.charAt(count);
+            if (!predicate.matches(c)) break;
+            list.add(cast(c));
+        }
+        return success(list, segment.drop(count));
+    }
+
     @Override
     public String toString() {
         return String.format("many %s", parser);
     }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.first(parser, visiting).optional();
+    }
 }
@@ -5,7 +5,7 @@ import com.googlecode.totallylazy.Segment;
 
 import static com.googlecode.totallylazy.Unchecked.cast;
 
-class MappingParser<A, B> implements Parser<B> {
+class MappingParser<A, B> implements Parser<B>, First.Lookahead {
     private final Parser<? extends A> source;
     private final Function1<? super A, ? extends B> callable;
 
@@ -27,4 +27,9 @@ class MappingParser<A, B> implements Parser<B> {
     public String toString() {
         return String.format("%s %s", source, callable);
     }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.first(source, visiting);
+    }
 }
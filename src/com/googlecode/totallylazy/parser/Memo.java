@@ -0,0 +1,150 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.segments.CharacterSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+import static com.googlecode.totallylazy.segments.CharacterSegment.characterSegment;
+
+/**
+ * The packrat table of a single parse: the Result of each memorised rule by (rule, position), in a fixed size
+ * direct-mapped table so memory stays bounded however long the input is (an overwritten result is simply parsed
+ * again). The table travels with the input as an {@link Input} segment, so parsers stay stateless and thread safe.
+ * <p>
+ * Rules being parsed are kept on a stack. A rule that is re-entered at the same position without consuming anything
+ * is left recursive: it gets the failure seed and is then re-parsed, growing the seed, until it stops consuming more
+ * (Warth et al, "Packrat Parsers Can Support Left Recursion"). Results that other rules get at that position while it
+ * grows depend on the seed, so they are not kept.
+ */
+final class Memo {
+    private final Parser<?>[] rules;
+    private final int[] offsets;
+    private final Result<?>[] results;
+    private final int mask;
+    private final List<Head> heads = new ArrayList<Head>();
+    private int leftRecursive;
+
+    private Memo(int size) {
+        rules = new Parser<?>[size];
+        offsets = new int[size];
+        results = new Result<?>[size];
+        mask = size - 1;
+    }
+
+    /**
+     * A memorising copy of the segment, with a table of at most capacity entries (fewer for short input)
+     */
+    static Input input(CharacterSegment segment, int capacity) {
+        int size = Integer.highestOneBit(Math.min(capacity, Math.max(16, segment.length())));
+        return new Input(segment.charSequence(), segment.offset(), new Memo(size));
+    }
+
+    static <A> Result<A> parse(Parser<A> rule, Parser<A> body, Segment<Character> characters) {
+        if (!(characters instanceof Input)) return body.parse(characters);
+        Input input = (Input) characters;
+        return input.memo.parse(rule, body, input);
+    }
+
+    private <A> Result<A> parse(Parser<A> rule, Parser<A> body, Input input) {
+        int offset = input.offset();
+        Head head = head(rule, offset);
+        if (head != null) {
+            if (!head.recursive) {
+                head.recursive = true;
+                head.seed = Failure.failure(rule, "left recursion");
+                leftRecursive++;
+            }
+            return cast(head.seed);
+        }
+        int slot = slot(rule, offset);
+        if (rules[slot] == rule && offsets[slot] == offset) return cast(results[slot]);
+
+        head = new Head(rule, offset);
+        heads.add(head);
+        Result<A> result;
+        try {
+            result = body.parse(input);
+            if (head.recursive) result = grow(head, body, input, result);
+        } finally {
+            heads.remove(heads.size() - 1);
+            if (head.recursive) leftRecursive--;
+        }
+        if (keep(offset)) {
+            rules[slot] = rule;
+            offsets[slot] = offset;
+            results[slot] = result;
+        }
+        return result;
+    }
+
+    private <A> Result<A> grow(Head head, Parser<A> body, Input input, Result<A> result) {
+        while (result.success()) {
+            head.seed = result;
+            Result<A> next = body.parse(input);
+            if (next.failure() || consumed(next) <= consumed(result)) break;
+            result = next;
+        }
+        return result;
+    }
+
+    private Head head(Parser<?> rule, int offset) {
+        for (int i = heads.size() - 1; i >= 0; i--) {
+            Head head = heads.get(i);
+            if (head.rule == rule && head.offset == offset) return head;
+        }
+        return null;
+    }
+
+    private boolean keep(int offset) {
+        if (leftRecursive == 0) return true;
+        for (Head head : heads) {
+            if (head.recursive && head.offset == offset) return false;
+        }
+        return true;
+    }
+
+    private int slot(Parser<?> rule, int offset) {
+        int hash = System.identityHashCode(rule) * 31 + offset;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static int consumed(Result<?> result) {
+        return ((CharacterSegment) result.remainder()).offset();
+    }
+
+    private static final class Head {
+        private final Parser<?> rule;
+        private final int offset;
+        private boolean recursive;
+        private Result<?> seed;
+
+        private Head(Parser<?> rule, int offset) {
+            this.rule = rule;
+            this.offset = offset;
+        }
+    }
+
+    static final class Input extends CharacterSegment {
+        private final Memo memo;
+
+        private Input(CharSequence charSequence, int offset, Memo memo) {
+            super(charSequence, offset);
+            this.memo = memo;
+        }
+
+        @Override
+        protected CharacterSegment at(int offset) {
+            return new Input(charSequence(), offset, memo);
+        }
+
+        /**
+         * The same position without the table, so it can be let go of once the parse is over
+         */
+        CharacterSegment release() {
+            return ((CharacterSegment) characterSegment(charSequence())).drop(offset());
+        }
+    }
+}
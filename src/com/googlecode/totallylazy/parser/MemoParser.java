@@ -0,0 +1,21 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.Segment;
+
+/**
+ * A rule whose results are memorised in the {@link Memo} table when parsed inside a {@link PackratParser}
+ */
+class MemoParser<A> extends DelegateParser<A> {
+    private MemoParser(Parser<A> parser) {
+        super(parser);
+    }
+
+    static <A> MemoParser<A> memorise(Parser<A> parser) {
+        return new MemoParser<A>(parser);
+    }
+
+    @Override
+    public Result<A> parse(Segment<Character> characters) {
+        return Memo.parse(this, delegate, characters);
+    }
+}
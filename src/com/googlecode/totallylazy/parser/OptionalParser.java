@@ -6,7 +6,7 @@ import com.googlecode.totallylazy.Segment;
 import static com.googlecode.totallylazy.parser.Success.success;
 import static java.lang.String.format;
 
-class OptionalParser<A> implements Parser<Option<A>> {
+class OptionalParser<A> implements Parser<Option<A>>, First.Lookahead {
     private final Parser<? extends A> parserA;
 
     private OptionalParser(Parser<? extends A> parserA) {
@@ -28,4 +28,9 @@ class OptionalParser<A> implements Parser<Option<A>> {
         if (result instanceof Failure) return success(Option.<A>none(), characters);
         return success(Option.option(result.value()), result.remainder());
     }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.first(parserA, visiting).optional();
+    }
 }
@@ -3,14 +3,30 @@ package com.googlecode.totallylazy.parser;
 import com.googlecode.totallylazy.Segment;
 import com.googlecode.totallylazy.Sequence;
 import com.googlecode.totallylazy.Sequences;
+import com.googlecode.totallylazy.segments.CharacterSegment;
 
-import static com.googlecode.totallylazy.Sequences.sequence;
+import java.util.Arrays;
 
-class OrParser<A> implements Parser<A> {
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+/**
+ * Tries each alternative in turn, but only those whose {@link First} set allows the next character: a table indexed
+ * by character lists them in order. The table is built on the first parse and built again if a
+ * {@link ReferenceParser} it reached has been set since, so rules can be defined (or redefined) after they are first
+ * used.
+ * Building it tests every character predicate against all 128 ASCII characters up front, so predicates should be
+ * cheap and free of side effects.
+ * If none succeed the failure is the last alternative's, as if every one had been tried.
+ */
+class OrParser<A> implements Parser<A>, First.Lookahead {
     private final Sequence<Parser<A>> parsers;
+    private final Parser<A>[] alternatives;
+    // Immutable once built, so it is fine for racing threads to each build their own
+    private Dispatch dispatch;
 
     private OrParser(Sequence<Parser<A>> parsers) {
         this.parsers = parsers;
+        this.alternatives = cast(parsers.toArray(Parser.class));
     }
 
     static <A> OrParser<A> or(Iterable<? extends Parser<? extends A>> parsers) {
@@ -24,11 +40,78 @@ class OrParser<A> implements Parser<A> {
 
     @Override
     public Result<A> parse(Segment<Character> characters) {
+        int last = alternatives.length - 1;
+        if (last < 1) return last < 0 ? null : alternatives[0].parse(characters);
+        int[] viable = dispatch().viable(characters);
         Result<A> result = null;
-        for (Parser<A> parser : parsers) {
-            result = parser.parse(characters);
+        for (int index : viable) {
+            result = alternatives[index].parse(characters);
             if (result.success()) return result;
         }
+        if (viable.length > 0 && viable[viable.length - 1] == last) return result;
+        return alternatives[last].parse(characters);
+    }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        First result = First.NONE;
+        for (Parser<A> alternative : alternatives) result = result.or(First.first(alternative, visiting));
         return result;
     }
+
+    private Dispatch dispatch() {
+        Dispatch result = dispatch;
+        if (result == null || result.stale()) dispatch = result = new Dispatch(alternatives);
+        return result;
+    }
+
+    private static final class Dispatch {
+        private final int[][] ascii = new int[First.ASCII][];
+        private final int[] other;
+        private final int[] end;
+        private final ReferenceParser<?>[] references;
+        private final Parser<?>[] values;
+
+        private Dispatch(Parser<?>[] alternatives) {
+            First.Visiting visiting = new First.Visiting();
+            First[] firsts = new First[alternatives.length];
+            for (int i = 0; i < firsts.length; i++) firsts[i] = First.first(alternatives[i], visiting);
+            references = visiting.references().keySet().toArray(new ReferenceParser<?>[0]);
+            values = new Parser<?>[references.length];
+            for (int i = 0; i < references.length; i++) values[i] = visiting.references().get(references[i]);
+            for (char c = 0; c < First.ASCII; c++) ascii[c] = viable(firsts, c);
+            other = viable(firsts, (char) First.ASCII);
+            end = viable(firsts, null);
+        }
+
+        // A reference set after its value was read is always caught, as the next parse sees the new value
+        private boolean stale() {
+            for (int i = 0; i < references.length; i++) {
+                if (references[i].value() != values[i]) return true;
+            }
+            return false;
+        }
+
+        private static int[] viable(First[] firsts, Character next) {
+            int[] indexes = new int[firsts.length];
+            int count = 0;
+            for (int i = 0; i < firsts.length; i++) {
+                if (firsts[i].empty() || next != null && firsts[i].contains(next)) indexes[count++] = i;
+            }
+            return Arrays.copyOf(indexes, count);
+        }
+
+        private int[] viable(Segment<Character> characters) {
+            char next;
+            if (characters instanceof CharacterSegment) {
+                CharacterSegment segment = (CharacterSegment) characters;
+                if (segment.length() == 0) return end;
+                next = segment.charAt(0);
+            } else {
+                if (characters.isEmpty()) return end;
+                next = characters.head();
+            }
+            return next < First.ASCII ? ascii[next] : other;
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.segments.CharacterSegment;
+
+import static com.googlecode.totallylazy.parser.Success.success;
+
+/**
+ * Parses with a {@link Memo} table so every memorised rule (see {@link Parser#memorise()}, {@link LazyParser} and
+ * {@link ReferenceParser}) is parsed at most once per position, and left recursive rules terminate.
+ * Input read from a Reader is parsed as before, without memorising anything.
+ */
+class PackratParser<A> extends DelegateParser<A> {
+    static final int DEFAULT_CAPACITY = 1 << 14;
+    private final int capacity;
+
+    private PackratParser(Parser<A> parser, int capacity) {
+        super(parser);
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1 but was " + capacity);
+        this.capacity = capacity;
+    }
+
+    static <A> PackratParser<A> packrat(Parser<A> parser, int capacity) {
+        return new PackratParser<A>(parser, capacity);
+    }
+
+    static <A> PackratParser<A> packrat(Parser<A> parser) {
+        return packrat(parser, DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public Result<A> parse(Segment<Character> characters) {
+        if (!(characters instanceof CharacterSegment) || characters instanceof Memo.Input) return delegate.parse(characters);
+        Result<A> result = delegate.parse(Memo.input((CharacterSegment) characters, capacity));
+        if (result.failure() || !(result.remainder() instanceof Memo.Input)) return result;
+        return success(result.value(), ((Memo.Input) result.remainder()).release());
+    }
+}
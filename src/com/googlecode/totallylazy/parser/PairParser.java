@@ -6,7 +6,7 @@ import com.googlecode.totallylazy.Segment;
 import static com.googlecode.totallylazy.Unchecked.cast;
 import static com.googlecode.totallylazy.parser.Success.success;
 
-class PairParser<A, B> implements Parser<Pair<A, B>> {
+class PairParser<A, B> implements Parser<Pair<A, B>>, First.Lookahead {
     private final Parser<? extends A> parserA;
     private final Parser<? extends B> parserB;
 
@@ -34,4 +34,9 @@ class PairParser<A, B> implements Parser<Pair<A, B>> {
     public String toString() {
         return String.format("%s and %s", parserA, parserB);
     }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.sequence(visiting, parserA, parserB);
+    }
 }
@@ -138,6 +138,22 @@ public interface Parser<A> extends Functor<A> {
         return next(Parsers.returns(value));
     }
 
+    /**
+     * Parses with a packrat table (of bounded size) so memorised rules are only parsed once at each position and
+     * left recursive rules work; see {@link #memorise()}
+     */
+    default Parser<A> packrat() {
+        return PackratParser.packrat(this);
+    }
+
+    /**
+     * Remembers what this parser parsed at each position when run inside {@link #packrat()}; lazy and reference
+     * parsers always do
+     */
+    default Parser<A> memorise() {
+        return MemoParser.memorise(this);
+    }
+
     default Parser<A> peek() {
         return new PeekParser<>(this);
     }
@@ -31,6 +31,18 @@ public interface Parsers {
         return ReferenceParser.reference();
     }
 
+    static <T> Parser<T> packrat(Parser<T> parser) {
+        return PackratParser.packrat(parser);
+    }
+
+    static <T> Parser<T> packrat(Parser<T> parser, int capacity) {
+        return PackratParser.packrat(parser, capacity);
+    }
+
+    static <T> Parser<T> memorise(Parser<T> parser) {
+        return MemoParser.memorise(parser);
+    }
+
     static Parser<Character> character(Predicate<Character> value) {
         return CharacterParser.character(value);
     }
@@ -1,18 +1,17 @@
 package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.Segment;
-import com.googlecode.totallylazy.Strings;
-import com.googlecode.totallylazy.regex.Regex;
+import com.googlecode.totallylazy.functions.Lazy;
+import com.googlecode.totallylazy.segments.CharacterSegment;
 
 import java.util.NoSuchElementException;
-import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.googlecode.totallylazy.parser.CharacterSequence.charSequence;
 import static com.googlecode.totallylazy.parser.Success.success;
 
-class PatternParser implements Parser<String> {
+class PatternParser implements Parser<String>, First.Lookahead {
     private final Pattern pattern;
 
     private PatternParser(Pattern pattern) {
@@ -34,12 +33,45 @@ class PatternParser implements Parser<String> {
 
     @Override
     public Result<String> parse(Segment<Character> characters) {
+        if (characters instanceof CharacterSegment) return parse((CharacterSegment) characters);
         CharacterSequence sequence = charSequence(characters);
         Matcher matcher = pattern.matcher(sequence);
         if (matches(matcher)) return success(matcher.group(), drop(matcher.end(), characters));
         return fail(toString(), sequence);
     }
 
+    // Matches in place: no copy of the input and the remainder is a single drop
+    private Result<String> parse(final CharacterSegment segment) {
+        int offset = segment.offset();
+        Matcher matcher = pattern.matcher(segment.charSequence()).region(offset, offset + segment.length());
+        if (matcher.lookingAt()) return success(matcher.group(), segment.drop(matcher.end() - offset));
+        return Failure.failure(toString(), Lazy.lazy(() -> examined(segment)));
+    }
+
+    // The characters a failed match looked at, only worked out again if the failure is reported
+    private String examined(final CharacterSegment segment) {
+        final int[] read = {0};
+        pattern.matcher(new CharSequence() {
+            @Override
+            public int length() {
+                return segment.length();
+            }
+
+            @Override
+            public char charAt(int index) {
+                read[0] = Math.max(read[0], index + 1);
+                return segment.charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                read[0] = Math.max(read[0], end);
+                return segment.prefix(end).substring(start);
+            }
+        }).lookingAt();
+        return segment.prefix(read[0]);
+    }
+
     private boolean matches(Matcher matcher) {
         try {
             return matcher.lookingAt();
@@ -56,4 +88,14 @@ class PatternParser implements Parser<String> {
         }
         return current;
     }
+
+    // A character can start a match if the pattern matches it, or needs more input to tell
+    @Override
+    public First first(First.Visiting visiting) {
+        First first = First.characters(c -> {
+            Matcher matcher = pattern.matcher(String.valueOf(c));
+            return matcher.lookingAt() || matcher.hitEnd();
+        });
+        return pattern.matcher("").lookingAt() ? first.optional() : first;
+    }
 }
@@ -8,7 +8,7 @@ import com.googlecode.totallylazy.Sequences;
 import static com.googlecode.totallylazy.Sequences.sequence;
 import static com.googlecode.totallylazy.parser.Success.success;
 
-class PredicatesParser implements Parser<String> {
+class PredicatesParser implements Parser<String>, First.Lookahead {
     private final Sequence<? extends Predicate<? super Character>> predicates;
 
     private PredicatesParser(Sequence<? extends Predicate<? super Character>> predicates) {
@@ -41,4 +41,9 @@ class PredicatesParser implements Parser<String> {
     public String toString() {
         return predicates.toString("");
     }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return predicates.isEmpty() ? First.EMPTY : First.characters(predicates.first());
+    }
 }
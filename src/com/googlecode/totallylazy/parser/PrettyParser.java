@@ -1,8 +1,9 @@
 package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.functions.Lazy;
 
-class PrettyParser<A> implements Parser<A> {
+class PrettyParser<A> implements Parser<A>, First.Lookahead {
     private final Parser<A> parse;
     private final String pretty;
 
@@ -23,6 +24,11 @@ class PrettyParser<A> implements Parser<A> {
         Result<A> result = parse.parse(characters);
         if (result.success())
             return result;
-        return fail(toString(), result.actual());
+        return Failure.failure(toString(), Lazy.lazy(result::actual));
+    }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.first(parse, visiting);
     }
 }
@@ -4,7 +4,7 @@ import com.googlecode.totallylazy.Segment;
 
 import java.util.concurrent.atomic.AtomicReference;
 
-class ReferenceParser<T> implements Parser<T> {
+class ReferenceParser<T> implements Parser<T>, First.Lookahead {
     private final AtomicReference<Parser<T>> value = new AtomicReference<Parser<T>>();
 
     private ReferenceParser() {}
@@ -18,7 +18,7 @@ class ReferenceParser<T> implements Parser<T> {
 
     @Override
     public Result<T> parse(Segment<Character> characters) {
-        return value.get().parse(characters);
+        return Memo.parse(this, value.get(), characters);
     }
 
     public ReferenceParser<T> set(Parser<T> parse) {
@@ -26,4 +26,14 @@ class ReferenceParser<T> implements Parser<T> {
         return this;
     }
 
-}
\ No newline at end of file
+    Parser<T> value() {
+        return value.get();
+    }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        Parser<T> parser = value.get();
+        visiting.reference(this, parser);
+        return First.first(parser, visiting);
+    }
+}
@@ -2,7 +2,7 @@ package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.Segment;
 
-class ReturnsParser<A> implements Parser<A> {
+class ReturnsParser<A> implements Parser<A>, First.Lookahead {
     private final A a;
 
     ReturnsParser(A a) {
@@ -18,4 +18,9 @@ class ReturnsParser<A> implements Parser<A> {
     public String toString() {
         return a.toString();
     }
-}
\ No newline at end of file
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.EMPTY;
+    }
+}
@@ -10,7 +10,7 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static com.googlecode.totallylazy.Sequences.forwardOnly;
 
-class SequenceParser<A> implements Parser<Sequence<A>> {
+class SequenceParser<A> implements Parser<Sequence<A>>, First.Lookahead {
     private final Parser<A> parser;
 
     private SequenceParser(Parser<A> parser) {
@@ -51,4 +51,9 @@ class SequenceParser<A> implements Parser<Sequence<A>> {
     public String toString() {
         return String.format("sequence %s", parser);
     }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.first(parser, visiting).optional();
+    }
 }
@@ -1,10 +1,12 @@
 package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.functions.Lazy;
+import com.googlecode.totallylazy.segments.CharacterSegment;
 
 import static com.googlecode.totallylazy.parser.Success.success;
 
-class StringParser implements Parser<String> {
+class StringParser implements Parser<String>, First.Lookahead {
     private final String expected;
 
     private StringParser(String expected) {
@@ -17,6 +19,7 @@ class StringParser implements Parser<String> {
 
     @Override
     public Result<String> parse(Segment<Character> characters) {
+        if(characters instanceof CharacterSegment) return parse((CharacterSegment) characters);
         Segment<Character> segment = characters;
         StringBuilder result = new StringBuilder();
         for (int i = 0, n = expected.length(); i < n; i++) {
@@ -30,8 +33,26 @@ class StringParser implements Parser<String> {
         return success(result.toString(), segment);
     }
 
+    private Result<String> parse(CharacterSegment segment) {
+        int available = segment.length();
+        for (int i = 0, n = expected.length(); i < n; i++) {
+            if(i == available) return fail(segment, i);
+            if(expected.charAt(i) != segment.charAt(i)) return fail(segment, i + 1);
+        }
+        return success(expected, segment.drop(expected.length()));
+    }
+
+    private Result<String> fail(CharacterSegment segment, int read) {
+        return Failure.failure(expected, Lazy.lazy(() -> segment.prefix(read)));
+    }
+
     @Override
     public String toString() {
         return expected;
     }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return expected.isEmpty() ? First.EMPTY : First.character(expected.charAt(0));
+    }
 }
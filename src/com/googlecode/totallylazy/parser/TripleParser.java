@@ -5,7 +5,7 @@ import com.googlecode.totallylazy.Triple;
 
 import static com.googlecode.totallylazy.Unchecked.cast;
 
-class TripleParser<A, B, C> implements Parser<Triple<A, B, C>> {
+class TripleParser<A, B, C> implements Parser<Triple<A, B, C>>, First.Lookahead {
     private final Parser<? extends A> parserA;
     private final Parser<? extends B> parserB;
     private final Parser<? extends C> parserC;
@@ -38,4 +38,9 @@ class TripleParser<A, B, C> implements Parser<Triple<A, B, C>> {
     public String toString() {
         return String.format("%s and %s and %s", parserA, parserB, parserC);
     }
+
+    @Override
+    public First first(First.Visiting visiting) {
+        return First.sequence(visiting, parserA, parserB, parserC);
+    }
 }
@@ -0,0 +1,147 @@
+package com.googlecode.totallylazy.reflection;
+
+import com.googlecode.totallylazy.Sequence;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.LazyException.lazyException;
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.reflection.Fields.nonSyntheticFields;
+
+/**
+ * Getters and setters for a fixed list of fields, resolved once into MethodHandles so reading and writing a field by
+ * position (or by name through a prebuilt index) does not search the class hierarchy or go through Field.get/set.
+ * Build one per class and keep it, e.g. in a ClassValue as {@link #accessors(Class)} does.
+ */
+public final class Accessors {
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final ClassValue<Accessors> nonSynthetic = new ClassValue<Accessors>() {
+        @Override
+        protected Accessors computeValue(Class<?> type) {
+            return accessors(nonSyntheticFields(type));
+        }
+    };
+    private final Field[] fields;
+    private final String[] names;
+    private final MethodHandle[] getters;
+    private final MethodHandle[] setters;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final Map<String, Integer> ignoringCase = new HashMap<>();
+
+    private Accessors(Field[] fields) {
+        this.fields = fields;
+        names = new String[fields.length];
+        getters = new MethodHandle[fields.length];
+        setters = new MethodHandle[fields.length];
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < fields.length; i++) {
+            Field field = Fields.access(fields[i]);
+            names[i] = field.getName();
+            getters[i] = getter(lookup, field);
+            setters[i] = setter(lookup, field);
+            index.putIfAbsent(names[i], i);
+        }
+        for (String name : names) ignoringCase.putIfAbsent(name, firstIgnoringCase(name));
+    }
+
+    /**
+     * The declared non-synthetic fields of the class, as used by {@link com.googlecode.totallylazy.Record}
+     */
+    public static Accessors accessors(Class<?> type) {
+        return nonSynthetic.get(type);
+    }
+
+    public static Accessors accessors(Iterable<Field> fields) {
+        return new Accessors(sequence(fields).toArray(Field.class));
+    }
+
+    public int size() {
+        return fields.length;
+    }
+
+    public Field field(int index) {
+        return fields[index];
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public Sequence<String> names() {
+        return sequence(names);
+    }
+
+    /**
+     * The position of the first field with this name, or -1
+     */
+    public int indexOf(String name) {
+        Integer position = index.get(name);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * The position of the first field whose name matches ignoring case, or -1
+     */
+    public int indexOfIgnoreCase(String name) {
+        Integer position = ignoringCase.get(name);
+        return position == null ? firstIgnoringCase(name) : position;
+    }
+
+    private int firstIgnoringCase(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+
+    public Object get(int index, Object instance) {
+        try {
+            return getters[index].invokeExact(instance);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public void set(int index, Object instance, Object value) {
+        MethodHandle setter = setters[index];
+        try {
+            if (setter == null) throw new IllegalAccessException("Can not set final field " + fields[index]);
+            setter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static MethodHandle getter(MethodHandles.Lookup lookup, Field field) {
+        try {
+            MethodHandle getter = lookup.unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            return getter.asType(GETTER);
+        } catch (IllegalAccessException e) {
+            throw lazyException(e);
+        }
+    }
+
+    // Field.set refuses static final fields too, so the failure is deferred until someone tries
+    private static MethodHandle setter(MethodHandles.Lookup lookup, Field field) {
+        try {
+            MethodHandle setter = lookup.unreflectSetter(field);
+            if (Modifier.isStatic(field.getModifiers())) setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            return setter.asType(SETTER);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof Error) throw (Error) e;
+        return lazyException(e);
+    }
+}
@@ -4,11 +4,15 @@ import com.googlecode.totallylazy.Segment;
 
 import java.util.NoSuchElementException;
 
+/**
+ * The characters of a CharSequence from an offset onwards. Besides head and tail it gives parsers positional access to
+ * what is left, so they can look ahead and {@link #drop(int)} everything they consume in one step.
+ */
 public class CharacterSegment extends AbstractSegment<Character> {
     private final CharSequence charSequence;
     private final int offset;
 
-    private CharacterSegment(CharSequence charSequence, int offset) {
+    protected CharacterSegment(CharSequence charSequence, int offset) {
         this.charSequence = charSequence;
         this.offset = offset;
     }
@@ -33,7 +37,49 @@ public class CharacterSegment extends AbstractSegment<Character> {
     @Override
     public Segment<Character> tail() throws NoSuchElementException {
         if (isEmpty()) throw new NoSuchElementException();
-        return new CharacterSegment(charSequence, offset + 1);
+        return at(offset + 1);
+    }
+
+    public CharSequence charSequence() {
+        return charSequence;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * The number of characters left
+     */
+    public int length() {
+        return charSequence.length() - offset;
+    }
+
+    /**
+     * The character index places after the head
+     */
+    public char charAt(int index) {
+        return charSequence.charAt(offset + index);
+    }
+
+    /**
+     * The first count characters as a String
+     */
+    public String prefix(int count) {
+        return charSequence.subSequence(offset, offset + count).toString();
+    }
+
+    public CharacterSegment drop(int count) throws NoSuchElementException {
+        if (count == 0) return this;
+        if (count < 0 || count > length()) throw new NoSuchElementException();
+        return at(offset + count);
+    }
+
+    /**
+     * The same characters from another offset, used by tail and drop so subclasses can carry extra state along
+     */
+    protected CharacterSegment at(int offset) {
+        return new CharacterSegment(charSequence, offset);
     }
 
     @Override
@@ -0,0 +1,153 @@
+package com.googlecode.totallylazy.xml;
+
+import org.w3c.dom.Node;
+
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+
+/**
+ * Compiled XPath expressions shared by every thread. XPathExpression is not thread safe, so each expression keeps a
+ * small pool of compiled copies: a thread borrows one for the duration of an evaluation and hands it back, compiling
+ * another only when they are all in use. When more than {@code capacity} expressions are cached the least recently
+ * used one is evicted. A capacity below 1 turns caching off: every evaluation compiles its expression afresh.
+ */
+public final class XPathCache {
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    private final int capacity;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder compilations = new LongAdder();
+
+    private XPathCache(int capacity) {
+        this.capacity = Math.max(capacity, 0);
+    }
+
+    public static XPathCache xpathCache(int capacity) {
+        return new XPathCache(capacity);
+    }
+
+    public Object evaluate(String expression, Node node, QName returnType) throws XPathExpressionException {
+        if (capacity == 0) {
+            misses.increment();
+            return compile(expression).evaluate(node, returnType);
+        }
+        Pool pool = pool(expression);
+        XPathExpression compiled = pool.borrow();
+        if (compiled == null) compiled = compile(expression);
+        try {
+            return compiled.evaluate(node, returnType);
+        } finally {
+            pool.release(compiled);
+        }
+    }
+
+    /**
+     * Lookups of an expression that was already cached
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Lookups of an expression that was not cached (or had been evicted)
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Expressions compiled, including extra copies for threads evaluating the same expression at the same time
+     */
+    public long compilations() {
+        return compilations.sum();
+    }
+
+    public int size() {
+        return pools.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public void clear() {
+        pools.clear();
+    }
+
+    @Override
+    public String toString() {
+        return format("XPathCache(size=%s, capacity=%s, hits=%s, misses=%s, evictions=%s, compilations=%s)",
+                size(), capacity, hits(), misses(), evictions(), compilations());
+    }
+
+    private Pool pool(String expression) throws XPathExpressionException {
+        Pool pool = pools.get(expression);
+        if (pool != null) {
+            hits.increment();
+            pool.lastUsed = System.nanoTime();
+            return pool;
+        }
+        misses.increment();
+        // Compile before caching so expressions that do not compile are never cached
+        Pool created = new Pool();
+        created.release(compile(expression));
+        pool = pools.putIfAbsent(expression, created);
+        if (pool != null) return pool;
+        if (pools.size() > capacity) evictEldest();
+        return created;
+    }
+
+    private XPathExpression compile(String expression) throws XPathExpressionException {
+        compilations.increment();
+        return Xml.xpath().compile(expression);
+    }
+
+    private void evictEldest() {
+        Map.Entry<String, Pool> eldest = null;
+        for (Map.Entry<String, Pool> entry : pools.entrySet()) {
+            if (eldest == null || entry.getValue().lastUsed < eldest.getValue().lastUsed) eldest = entry;
+        }
+        if (eldest != null && pools.remove(eldest.getKey(), eldest.getValue())) evictions.increment();
+    }
+
+    private static final class Pool {
+        private final AtomicReferenceArray<XPathExpression> idle = new AtomicReferenceArray<>(POOL_SIZE);
+        // Written without synchronisation: an approximate recency is good enough to pick what to evict
+        private long lastUsed = System.nanoTime();
+
+        private XPathExpression borrow() {
+            int start = start();
+            for (int i = 0; i < POOL_SIZE; i++) {
+                int slot = (start + i) % POOL_SIZE;
+                XPathExpression expression = idle.get(slot);
+                if (expression != null && idle.compareAndSet(slot, expression, null)) return expression;
+            }
+            return null;
+        }
+
+        // When every slot is full the extra copy is simply dropped
+        private void release(XPathExpression expression) {
+            int start = start();
+            for (int i = 0; i < POOL_SIZE; i++) {
+                if (idle.compareAndSet((start + i) % POOL_SIZE, null, expression)) return;
+            }
+        }
+
+        private static int start() {
+            return (int) (Thread.currentThread().getId() % POOL_SIZE);
+        }
+    }
+}
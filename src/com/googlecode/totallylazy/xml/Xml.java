@@ -5,7 +5,6 @@ import com.googlecode.totallylazy.functions.Curried2;
 import com.googlecode.totallylazy.Escaper;
 import com.googlecode.totallylazy.functions.Function1;
 import com.googlecode.totallylazy.LazyException;
-import com.googlecode.totallylazy.Maps;
 import com.googlecode.totallylazy.Option;
 import com.googlecode.totallylazy.Pair;
 import com.googlecode.totallylazy.predicates.Predicate;
@@ -25,6 +24,7 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 
+import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.transform.OutputKeys;
@@ -37,7 +37,6 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import java.io.ByteArrayInputStream;
@@ -45,7 +44,6 @@ import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.NoSuchElementException;
 
 import static com.googlecode.totallylazy.Strings.bytes;
@@ -76,7 +74,7 @@ public class Xml {
 
     public static Number selectNumber(final Node node, final String expression) {
         try {
-            return (Number) xpathExpression(expression).evaluate(node, XPathConstants.NUMBER);
+            return (Number) evaluate(expression, node, XPathConstants.NUMBER);
         } catch (XPathExpressionException e) {
             throw LazyException.lazyException(e);
         }
@@ -84,7 +82,7 @@ public class Xml {
 
     public static boolean matches(final Node node, final String expression) {
         try {
-            return (Boolean) xpathExpression(expression).evaluate(node, XPathConstants.BOOLEAN);
+            return (Boolean) evaluate(expression, node, XPathConstants.BOOLEAN);
         } catch (XPathExpressionException e) {
             throw LazyException.lazyException(e);
         }
@@ -92,10 +90,10 @@ public class Xml {
 
     private static Sequence<Node> internalSelectNodes(final Node node, final String expression) {
         try {
-            return sequence((NodeList) xpathExpression(expression).evaluate(node, XPathConstants.NODESET));
+            return sequence((NodeList) evaluate(expression, node, XPathConstants.NODESET));
         } catch (XPathExpressionException e) {
             try {
-                String nodeAsString = (String) xpathExpression(expression).evaluate(node, XPathConstants.STRING);
+                String nodeAsString = (String) evaluate(expression, node, XPathConstants.STRING);
                 return Sequences.<Node>sequence(documentFor(node).createTextNode(nodeAsString));
             } catch (XPathExpressionException ignore) {
                 throw new IllegalArgumentException(String.format("Failed to compile xpath '%s'", expression), e);
@@ -151,19 +149,17 @@ public class Xml {
         return xpath.get();
     }
 
-    private static ThreadLocal<Map<String, XPathExpression>> expressions = new ThreadLocal<Map<String, XPathExpression>>() {
-        @Override
-        protected Map<String, XPathExpression> initialValue() {
-            return Maps.lruMap(getInteger("totallylazy.xpath.cache.size", 1000));
-        }
-    };
+    private static final XPathCache expressions = XPathCache.xpathCache(getInteger("totallylazy.xpath.cache.size", 1000));
 
-    private static XPathExpression xpathExpression(String expression) throws XPathExpressionException {
-        Map<String, XPathExpression> expressionMap = expressions.get();
-        if (!expressionMap.containsKey(expression)) {
-            expressionMap.put(expression, xpath().compile(expression));
-        }
-        return expressionMap.get(expression);
+    /**
+     * The compiled expressions shared by all threads, with hit, miss and eviction counts
+     */
+    public static XPathCache xpathCache() {
+        return expressions;
+    }
+
+    private static Object evaluate(String expression, Node node, QName returnType) throws XPathExpressionException {
+        return expressions.evaluate(expression, node, returnType);
     }
 
     public static Sequence<Node> sequence(final NodeList nodes) {
@@ -2,22 +2,32 @@ package com.googlecode.totallylazy.xml.streaming;
 
 import com.googlecode.totallylazy.Pair;
 import com.googlecode.totallylazy.Unchecked;
+import com.googlecode.totallylazy.collections.PersistentList;
 import com.googlecode.totallylazy.collections.PersistentMap;
 
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import static com.googlecode.totallylazy.Sequences.forwardOnly;
+import static com.googlecode.totallylazy.collections.PersistentList.constructors.empty;
 import static com.googlecode.totallylazy.collections.PersistentMap.constructors.map;
+import static java.util.Arrays.asList;
 
 public class Element implements Node {
     private final String name;
     private final PersistentMap<String, String> attributes;
+    private final PersistentList<Node> children;
 
-    private Element(String name, PersistentMap<String, String> attributes) {
+    private Element(String name, PersistentMap<String, String> attributes, PersistentList<Node> children) {
         this.name = name;
         this.attributes = attributes;
+        this.children = children;
     }
 
     public static Element element(StartElement startElement){
@@ -27,7 +37,11 @@ public class Element implements Node {
     }
 
     public static Element element(String name, PersistentMap<String, String> attributes){
-        return new Element(name, attributes);
+        return element(name, attributes, empty());
+    }
+
+    public static Element element(String name, PersistentMap<String, String> attributes, PersistentList<Node> children){
+        return new Element(name, attributes, children);
     }
 
     @Override
@@ -36,9 +50,54 @@ public class Element implements Node {
     @Override
     public PersistentMap<String, String> attributes() { return attributes; }
 
+    @Override
+    public PersistentList<Node> children() { return children; }
+
+    /**
+     * All the text inside the element
+     */
+    @Override
+    public String text() {
+        StringBuilder builder = new StringBuilder();
+        for (Node child : children) builder.append(child.text());
+        return builder.toString();
+    }
+
     @Override
     public boolean isElement() { return true; }
 
+    /**
+     * The attributes and child elements by name: elements with only text become Strings, others nested maps,
+     * and names that repeat collect their values into a List
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Pair<String, String> attribute : attributes) map.put(attribute.first(), attribute.second());
+        for (Node child : children) {
+            if (!child.isElement()) continue;
+            Element element = (Element) child;
+            Object value = element.attributes.isEmpty() && !element.children.exists(Node::isElement) ? element.text() : element.toMap();
+            Object existing = map.get(element.name);
+            if (existing == null) map.put(element.name, value);
+            else if (existing instanceof List) Unchecked.<List<Object>>cast(existing).add(value);
+            else map.put(element.name, new ArrayList<>(asList(existing, value)));
+        }
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Element &&
+                name.equals(((Element) other).name) &&
+                attributes.equals(((Element) other).attributes) &&
+                children.equals(((Element) other).children);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, attributes, children);
+    }
+
     @Override
     public String toString() {
         return String.format("<%s>", name());
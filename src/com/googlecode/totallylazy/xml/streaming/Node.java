@@ -1,7 +1,9 @@
 package com.googlecode.totallylazy.xml.streaming;
 
+import com.googlecode.totallylazy.collections.PersistentList;
 import com.googlecode.totallylazy.collections.PersistentMap;
 
+import static com.googlecode.totallylazy.collections.PersistentList.constructors.empty;
 import static com.googlecode.totallylazy.collections.PersistentMap.constructors.emptyMap;
 
 public interface Node {
@@ -11,6 +13,8 @@ public interface Node {
 
     default PersistentMap<String, String> attributes() { return emptyMap(); }
 
+    default PersistentList<Node> children() { return empty(); }
+
     default boolean isText() { return false; }
 
     default boolean isElement() { return false; }
@@ -0,0 +1,52 @@
+package com.googlecode.totallylazy.xml.streaming;
+
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.collections.PersistentList;
+import com.googlecode.totallylazy.functions.Function1;
+import com.googlecode.totallylazy.predicates.Predicate;
+
+import static com.googlecode.totallylazy.Option.some;
+
+/**
+ * The steps of a streaming XPath, matched against the path of a {@link Context}. A descendant {@link Step} may match
+ * any of the remaining ancestors, and each is tried in turn as in XPath (and as {@link PathMatcher} does), rather than
+ * only the deepest.
+ */
+public final class Path implements Predicate<Context> {
+    private final Function1<? super PersistentList<Node>, ? extends Option<PersistentList<Node>>>[] steps;
+
+    Path(Function1<? super PersistentList<Node>, ? extends Option<PersistentList<Node>>>[] steps) {
+        this.steps = steps;
+    }
+
+    @Override
+    public boolean matches(Context context) {
+        return matches(0, context.path());
+    }
+
+    private boolean matches(int index, PersistentList<Node> path) {
+        if (index == steps.length) return path.isEmpty();
+        if (steps[index] instanceof Step && ((Step) steps[index]).isDescendant()) {
+            Step step = (Step) steps[index];
+            for (PersistentList<Node> tail = path; !tail.isEmpty(); tail = tail.tail()) {
+                if (step.matches(tail.head()) && matches(index + 1, tail.tail())) return true;
+            }
+            return false;
+        }
+        Option<? extends PersistentList<Node>> remainder = steps[index].apply(path);
+        return !remainder.isEmpty() && matches(index + 1, remainder.get());
+    }
+
+    /**
+     * The steps as a state machine, if they are all {@link Step}s
+     */
+    Option<PathMatcher.Steps> compile() {
+        Step[] compiled = new Step[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            if (!(steps[i] instanceof Step)) return Option.none();
+            compiled[i] = (Step) steps[i];
+        }
+        if (compiled.length == 0 || compiled.length > PathMatcher.MAX_STEPS) return Option.none();
+        return some(new PathMatcher.Steps(compiled));
+    }
+}
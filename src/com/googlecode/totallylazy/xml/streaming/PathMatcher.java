@@ -0,0 +1,138 @@
+package com.googlecode.totallylazy.xml.streaming;
+
+import com.googlecode.totallylazy.collections.PersistentMap;
+import com.googlecode.totallylazy.iterators.StatefulIterator;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Runs the steps of a {@link Path} as a state machine over the XMLStreamReader cursor: each open element only pushes
+ * a bit set of the steps that may match its children, so elements outside a match cost no allocation and memory is
+ * bounded by the document depth. Matching elements are handed to a {@link TreeBuilder} as their events arrive.
+ * <p>
+ * Every way of matching the steps is tried, as in XPath, so it agrees with {@link Path#matches(Context)}.
+ */
+final class PathMatcher<B, T> extends StatefulIterator<T> {
+    static final int MAX_STEPS = Long.SIZE - 1;
+    private final XMLStreamReader reader;
+    private final Steps steps;
+    private final TreeBuilder<B, T> builder;
+    private final Cursor cursor = new Cursor();
+    private final Deque<T> matched = new ArrayDeque<>();
+    private final List<T> nested = new ArrayList<>();
+    private long[] states = new long[32];
+    private int depth;
+    // The open elements of the match being built, and where any nested matches go in the nested list
+    private final List<B> building = new ArrayList<>();
+    private int[] slots = new int[32];
+
+    PathMatcher(XMLStreamReader reader, Steps steps, TreeBuilder<B, T> builder) {
+        this.reader = reader;
+        this.steps = steps;
+        this.builder = builder;
+        states[0] = 1L;
+    }
+
+    @Override
+    protected T getNext() throws Exception {
+        while (matched.isEmpty()) {
+            if (!reader.hasNext()) {
+                reader.close();
+                return finished();
+            }
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    startElement();
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    endElement();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (!building.isEmpty()) builder.text(building.get(building.size() - 1), reader.getText());
+                    break;
+                default:
+            }
+        }
+        return matched.poll();
+    }
+
+    private void startElement() {
+        long active = states[depth];
+        long next = 0L;
+        boolean match = false;
+        for (long remaining = active; remaining != 0; remaining &= remaining - 1) {
+            int index = Long.numberOfTrailingZeros(remaining);
+            Step step = steps.steps[index];
+            if (step.isDescendant()) next |= 1L << index;
+            if (step.matches(cursor)) {
+                if (index == steps.last) match = true;
+                else next |= 1L << (index + 1);
+            }
+        }
+        if (++depth == states.length) states = Arrays.copyOf(states, depth * 2);
+        states[depth] = next;
+
+        if (building.isEmpty() && !match) return;
+        int open = building.size();
+        B parent = open == 0 ? null : building.get(open - 1);
+        building.add(builder.start(reader, parent));
+        if (open == slots.length) slots = Arrays.copyOf(slots, open * 2);
+        slots[open] = open > 0 && match ? nested.size() : -1;
+        if (slots[open] >= 0) nested.add(null);
+    }
+
+    private void endElement() {
+        depth--;
+        if (building.isEmpty()) return;
+        int open = building.size() - 1;
+        B current = building.remove(open);
+        T result = builder.end(current, open == 0 ? null : building.get(open - 1));
+        if (slots[open] >= 0) nested.set(slots[open], result);
+        if (open == 0) {
+            matched.add(result);
+            matched.addAll(nested);
+            nested.clear();
+        }
+    }
+
+    static final class Steps {
+        private final Step[] steps;
+        private final int last;
+
+        Steps(Step[] steps) {
+            this.steps = steps;
+            this.last = steps.length - 1;
+        }
+    }
+
+    // The element the reader is positioned on, seen through the Node interface without copying it
+    private final class Cursor implements Node {
+        @Override
+        public String name() {
+            return reader.getLocalName();
+        }
+
+        @Override
+        public PersistentMap<String, String> attributes() {
+            return TreeBuilder.attributes(reader);
+        }
+
+        @Override
+        public boolean isElement() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("<%s>", name());
+        }
+    }
+}
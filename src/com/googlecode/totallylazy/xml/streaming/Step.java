@@ -0,0 +1,50 @@
+package com.googlecode.totallylazy.xml.streaming;
+
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.collections.PersistentList;
+import com.googlecode.totallylazy.functions.Function1;
+import com.googlecode.totallylazy.predicates.Predicate;
+
+import static com.googlecode.totallylazy.Option.none;
+import static com.googlecode.totallylazy.Option.some;
+
+/**
+ * A child or descendant step of a streaming XPath. As a function it consumes the matching prefix of a Context path,
+ * but because the axis and predicate are kept a {@link Path} made only of Steps can also be compiled into a
+ * {@link PathMatcher} that runs directly over an XMLStreamReader.
+ */
+public final class Step implements Function1<PersistentList<Node>, Option<PersistentList<Node>>> {
+    private final boolean descendant;
+    private final Predicate<? super Node> predicate;
+
+    private Step(boolean descendant, Predicate<? super Node> predicate) {
+        this.descendant = descendant;
+        this.predicate = predicate;
+    }
+
+    public static Step child(Predicate<? super Node> predicate) {
+        return new Step(false, predicate);
+    }
+
+    public static Step descendant(Predicate<? super Node> predicate) {
+        return new Step(true, predicate);
+    }
+
+    public boolean isDescendant() {
+        return descendant;
+    }
+
+    public boolean matches(Node node) {
+        return predicate.matches(node);
+    }
+
+    @Override
+    public Option<PersistentList<Node>> call(PersistentList<Node> steps) {
+        if (descendant) return steps.tails().toSequence().
+                filter(tail -> predicate.matches(tail.head())).
+                lastOption().
+                map(PersistentList::tail);
+        if (steps.headOption().is(predicate)) return some(steps.tail());
+        return none();
+    }
+}
@@ -21,6 +21,16 @@ public class Text implements Node {
     @Override
     public boolean isText() { return true; }
 
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Text && value.equals(((Text) other).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
     @Override
     public String toString() {
         return text();
@@ -0,0 +1,114 @@
+package com.googlecode.totallylazy.xml.streaming;
+
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.collections.PersistentList;
+import com.googlecode.totallylazy.collections.PersistentMap;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.googlecode.totallylazy.LazyException.lazyException;
+import static com.googlecode.totallylazy.collections.PersistentList.constructors.empty;
+import static com.googlecode.totallylazy.collections.PersistentList.constructors.reverse;
+import static com.googlecode.totallylazy.collections.PersistentMap.constructors.emptyMap;
+import static com.googlecode.totallylazy.collections.PersistentMap.constructors.map;
+
+/**
+ * Builds the matched subtrees of a {@link PathMatcher} from the reader's events as they arrive.
+ * B is whatever is needed while an element is open and T what each matched element becomes.
+ */
+interface TreeBuilder<B, T> {
+    /**
+     * The reader is on a START_ELEMENT; parent is null for the outermost match
+     */
+    B start(XMLStreamReader reader, B parent);
+
+    void text(B current, String text);
+
+    T end(B current, B parent);
+
+    static TreeBuilder<org.w3c.dom.Node, org.w3c.dom.Node> dom() {
+        return new Dom();
+    }
+
+    static TreeBuilder<Elements.Open, Element> elements() {
+        return new Elements();
+    }
+
+    static PersistentMap<String, String> attributes(XMLStreamReader reader) {
+        int count = reader.getAttributeCount();
+        if (count == 0) return emptyMap();
+        List<Pair<String, String>> attributes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) attributes.add(Pair.pair(reader.getAttributeLocalName(i), reader.getAttributeValue(i)));
+        return map(attributes);
+    }
+
+    final class Dom implements TreeBuilder<org.w3c.dom.Node, org.w3c.dom.Node> {
+        private final DocumentBuilder documentBuilder;
+
+        private Dom() {
+            try {
+                documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            } catch (Exception e) {
+                throw lazyException(e);
+            }
+        }
+
+        @Override
+        public org.w3c.dom.Node start(XMLStreamReader reader, org.w3c.dom.Node parent) {
+            Document document = parent == null ? documentBuilder.newDocument() : parent.getOwnerDocument();
+            org.w3c.dom.Element element = document.createElement(reader.getLocalName());
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+            return (parent == null ? document : parent).appendChild(element);
+        }
+
+        @Override
+        public void text(org.w3c.dom.Node current, String text) {
+            current.appendChild(current.getOwnerDocument().createTextNode(text));
+        }
+
+        @Override
+        public org.w3c.dom.Node end(org.w3c.dom.Node current, org.w3c.dom.Node parent) {
+            return current;
+        }
+    }
+
+    final class Elements implements TreeBuilder<Elements.Open, Element> {
+        private Elements() {
+        }
+
+        @Override
+        public Open start(XMLStreamReader reader, Open parent) {
+            return new Open(reader.getLocalName(), attributes(reader));
+        }
+
+        @Override
+        public void text(Open current, String text) {
+            current.children = current.children.cons(Text.text(text));
+        }
+
+        @Override
+        public Element end(Open current, Open parent) {
+            Element element = Element.element(current.name, current.attributes, reverse(current.children));
+            if (parent != null) parent.children = parent.children.cons(element);
+            return element;
+        }
+
+        static final class Open {
+            private final String name;
+            private final PersistentMap<String, String> attributes;
+            private PersistentList<Node> children = empty();
+
+            private Open(String name, PersistentMap<String, String> attributes) {
+                this.name = name;
+                this.attributes = attributes;
+            }
+        }
+    }
+}
@@ -7,11 +7,7 @@ import com.googlecode.totallylazy.predicates.Predicates;
 import com.googlecode.totallylazy.collections.PersistentList;
 import com.googlecode.totallylazy.predicates.LogicalPredicate;
 
-import static com.googlecode.totallylazy.Option.none;
-import static com.googlecode.totallylazy.Option.some;
 import static com.googlecode.totallylazy.predicates.Predicates.is;
-import static com.googlecode.totallylazy.Sequences.sequence;
-import static com.googlecode.totallylazy.functions.Compose.compose;
 import static com.googlecode.totallylazy.predicates.LogicalPredicate.logicalPredicate;
 
 public class XPath {
@@ -27,31 +23,20 @@ public class XPath {
         return logicalPredicate((Node node) -> predicate.matches(node.attributes().get(name)));
     }
 
-    public static Function1<PersistentList<Node>, Option<PersistentList<Node>>> descendant(String name) {
+    public static Step descendant(String name) {
         return descendant(name(name));
     }
 
-    public static Function1<PersistentList<Node>, Option<PersistentList<Node>>> descendant(Predicate<? super Node> predicate) {
-        return steps -> descendant(predicate, steps);
+    public static Step descendant(Predicate<? super Node> predicate) {
+        return Step.descendant(predicate);
     }
 
-    private static Option<PersistentList<Node>> descendant(Predicate<? super Node> predicate, PersistentList<Node> steps) {
-        return steps.tails().toSequence().
-                filter(tail -> predicate.matches(tail.head())).
-                lastOption().
-                map(PersistentList::tail);
-
-    }
-
-    public static Function1<PersistentList<Node>, Option<PersistentList<Node>>> child(String name) {
+    public static Step child(String name) {
         return child(name(name));
     }
 
-    public static Function1<PersistentList<Node>, Option<PersistentList<Node>>> child(Predicate<? super Node> predicate) {
-        return steps -> {
-            if (steps.headOption().is(predicate)) return some(steps.tail());
-            return none();
-        };
+    public static Step child(Predicate<? super Node> predicate) {
+        return Step.child(predicate);
     }
 
     public static LogicalPredicate<Node> text() {
@@ -59,10 +44,8 @@ public class XPath {
     }
 
     @SafeVarargs
-    public static Predicate<Context> xpath(Function1<? super PersistentList<Node>, ? extends Option<PersistentList<Node>>>... steps) {
-        return context -> sequence(steps).
-                fold(some(context.path()), Option::flatMap).
-                contains(PersistentList.constructors.empty());
+    public static Path xpath(Function1<? super PersistentList<Node>, ? extends Option<PersistentList<Node>>>... steps) {
+        return new Path(steps);
     }
 
     public static Predicate<Node> node() {
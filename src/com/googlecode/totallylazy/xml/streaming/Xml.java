@@ -2,35 +2,53 @@ package com.googlecode.totallylazy.xml.streaming;
 
 import com.googlecode.totallylazy.Computation;
 import com.googlecode.totallylazy.LazyException;
+import com.googlecode.totallylazy.Option;
 import com.googlecode.totallylazy.predicates.Predicate;
 import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.Sequences;
 import com.googlecode.totallylazy.Unchecked;
 import org.w3c.dom.Node;
 
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.XMLEvent;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.Iterator;
 
 import static com.googlecode.totallylazy.LazyException.lazyException;
+import static com.googlecode.totallylazy.collections.PersistentList.constructors.list;
+import static com.googlecode.totallylazy.xml.streaming.XPath.child;
 import static com.googlecode.totallylazy.xml.streaming.XPath.descendant;
 import static com.googlecode.totallylazy.xml.streaming.XPath.name;
+import static com.googlecode.totallylazy.xml.streaming.XPath.node;
 import static com.googlecode.totallylazy.xml.streaming.XPath.xpath;
 
 public class Xml {
+    private static XMLInputFactory xmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true); // so we can ignore them!
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory;
+    }
+
     private static XMLEventReader xmlEventReader(Reader reader) {
         try {
-            XMLInputFactory factory = XMLInputFactory.newInstance();
-            factory.setProperty(XMLInputFactory.IS_COALESCING, true);
-            factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
-            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true); // so we can ignore them!
-            factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
-            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-            return factory.createXMLEventReader(reader);
+            return xmlInputFactory().createXMLEventReader(reader);
+        } catch (XMLStreamException e) {
+            throw lazyException(e);
+        }
+    }
+
+    private static XMLStreamReader xmlStreamReader(Reader reader) {
+        try {
+            return xmlInputFactory().createXMLStreamReader(reader);
         } catch (XMLStreamException e) {
             throw lazyException(e);
         }
@@ -40,12 +58,42 @@ public class Xml {
         return nodes(reader, xpath(descendant(name(localName))));
     }
 
+    /**
+     * An xpath made only of child and descendant steps is matched directly against the XMLStreamReader cursor,
+     * any other predicate is tested against every Context
+     */
     public static Sequence<Node> nodes(Reader reader, Predicate<Context> predicate) {
+        if (predicate instanceof Path) {
+            Option<PathMatcher.Steps> steps = ((Path) predicate).compile();
+            if (steps.isDefined()) return Sequences.memorise(new PathMatcher<>(xmlStreamReader(reader), steps.get(), TreeBuilder.dom()));
+        }
         return contexts(reader).filter(predicate).map(DomConverter::convert);
     }
 
+    public static Sequence<Element> elements(Reader reader, String localName) {
+        return elements(reader, xpath(descendant(name(localName))));
+    }
+
+    /**
+     * Like {@link #nodes(Reader, Predicate)} but each match becomes an immutable {@link Element} (see
+     * {@link Element#toMap()}) built straight from the stream, without creating a DOM
+     */
+    public static Sequence<Element> elements(Reader reader, Predicate<Context> predicate) {
+        if (predicate instanceof Path) {
+            Option<PathMatcher.Steps> steps = ((Path) predicate).compile();
+            if (steps.isDefined()) return Sequences.memorise(new PathMatcher<>(xmlStreamReader(reader), steps.get(), TreeBuilder.elements()));
+        }
+        return contexts(reader).filter(predicate).map(Xml::element);
+    }
+
+    private static Element element(Context context) {
+        return Element.element(context.name(), context.attributes(), list(context.relative().
+                filter(xpath(child(node()))).
+                map(child -> child.isText() ? Text.text(child.text()) : element(child))));
+    }
+
     public static Sequence<XMLEvent> events(Reader reader) {
-        return Computation.memoize(Unchecked.<Iterator<XMLEvent>>cast(xmlEventReader(reader)));
+        return Sequences.memorise(Unchecked.<Iterator<XMLEvent>>cast(xmlEventReader(reader)));
     }
 
     public static Sequence<Context> contexts(String xml) {
@@ -0,0 +1,44 @@
+package com.googlecode.totallylazy;
+
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+
+import static com.googlecode.totallylazy.Files.emptyVMDirectory;
+import static com.googlecode.totallylazy.Files.hasSuffix;
+import static com.googlecode.totallylazy.Files.recursiveFiles;
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Nothing else builds the benchmark source folder, so this compiles it (JMH annotation processing included)
+ * against the test classpath to make sure a change to the main classes can not quietly break it.
+ */
+public class BenchmarksTest {
+    @Test
+    public void benchmarkSourcesCompile() throws Exception {
+        File benchmarks = new File("benchmark");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(benchmarks.isDirectory() && compiler != null);
+
+        File output = emptyVMDirectory("benchmarks");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null)) {
+            boolean compiled = compiler.getTask(null, files, diagnostics,
+                    sequence("-nowarn", "-encoding", "UTF-8", "-d", output.getPath(), "-s", output.getPath(),
+                            "-cp", System.getProperty("java.class.path")),
+                    null, files.getJavaFileObjectsFromFiles(recursiveFiles(benchmarks).filter(hasSuffix("java")))).call();
+            assertThat(sequence(diagnostics.getDiagnostics()).filter(d -> d.getKind() == Diagnostic.Kind.ERROR).toString("\n"), compiled, is(true));
+        } finally {
+            Files.delete(output);
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.googlecode.totallylazy;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.googlecode.totallylazy.Callers.callConcurrently;
 import static java.lang.Thread.currentThread;
@@ -16,4 +18,24 @@ public class CallersTest {
     public void callConcurrentlyIgnoresAnEmptyIterator() throws Exception {
         callConcurrently(new ArrayList<Callable<Object>>());
     }
+
+    @Test
+    public void boundedCallConcurrentlyOnlyPullsCallablesAsResultsAreConsumed() throws Exception {
+        AtomicInteger pulled = new AtomicInteger();
+        Sequence<Callable<Integer>> callables = Sequences.repeat(() -> {
+            int value = pulled.incrementAndGet();
+            return () -> value;
+        });
+        Iterator<Integer> results = callConcurrently(callables, 2).iterator();
+        assertThat(results.next(), is(1));
+        assertThat(pulled.get(), is(2));
+        assertThat(results.next(), is(2));
+        assertThat(pulled.get(), is(3));
+    }
+
+    @Test
+    public void reusesASharedPoolOfDaemonThreads() throws Exception {
+        Thread first = callConcurrently(Thread::currentThread).call();
+        assertThat(first.isDaemon(), is(true));
+    }
 }
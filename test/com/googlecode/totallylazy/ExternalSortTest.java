@@ -0,0 +1,139 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.io.Serializer;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.googlecode.totallylazy.Files.emptyTemporaryDirectory;
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.comparators.Comparators.ascending;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class ExternalSortTest {
+    private final File directory = emptyTemporaryDirectory("ExternalSortTest");
+
+    @Test
+    public void sortsAcrossRunsSpilledToDisk() throws Exception {
+        Sequence<String> sorted = sequence("delta", "alpha", "echo", "charlie", "bravo", "foxtrot", "golf").
+                sortBy(ascending(), Serializer.strings(), 2, directory);
+        assertThat(sorted, hasExactly("alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf"));
+        assertThat(directory.list().length, is(0));
+    }
+
+    @Test
+    public void isStable() throws Exception {
+        Sequence<String> sorted = sequence("b1", "a1", "b2", "a2", "b3", "a3").
+                sortBy((String x, String y) -> x.charAt(0) - y.charAt(0), Serializer.strings(), 1, directory);
+        assertThat(sorted, hasExactly("a1", "a2", "a3", "b1", "b2", "b3"));
+    }
+
+    @Test
+    public void mergesInSeveralPassesWhenThereAreTooManyRuns() throws Exception {
+        Sequence<Integer> numbers = Sequences.iterate(i -> (i * 7919) % 1000, 1).take(1000).realise();
+        Sequence<Integer> sorted = numbers.sortBy(ascending(), Serializer.<Integer>serializable(), 3, directory);
+        assertThat(sorted.realise(), is(numbers.sort(ascending())));
+        assertThat(directory.list().length, is(0));
+    }
+
+    @Test
+    public void sortsInMemoryWhenEverythingFitsInOneRun() throws Exception {
+        Sequence<String> sorted = sequence("b", "c", "a").sortBy(ascending(), Serializer.strings(), 10, directory);
+        assertThat(sorted, hasExactly("a", "b", "c"));
+        assertThat(directory.list().length, is(0));
+    }
+
+    @Test
+    public void closingTheSequenceDeletesTheRunsOfAnAbandonedIteration() throws Exception {
+        Sequence<String> sorted = sequence("d", "a", "c", "b").sortBy(ascending(), Serializer.strings(), 1, directory);
+        Iterator<String> iterator = sorted.iterator();
+        assertThat(iterator.next(), is("a"));
+        assertThat(directory.list().length, is(4));
+        ((Closeable) sorted).close();
+        assertThat(directory.list().length, is(0));
+    }
+
+    @Test
+    public void deletesTheRunsWhenReadingOneBackFails() throws Exception {
+        Sequence<String> sorted = sequence("f", "d", "a", "e", "c", "b").sortBy(ascending(), failing(Serializer.strings(), Integer.MAX_VALUE, 4), 2, directory);
+        Iterator<String> iterator = sorted.iterator();
+        try {
+            while (iterator.hasNext()) iterator.next();
+            fail("Expected the read to fail");
+        } catch (RuntimeException e) {
+            assertThat(directory.list().length, is(0));
+        }
+    }
+
+    @Test
+    public void deletesEveryFileWhenWritingARunFails() throws Exception {
+        try {
+            sequence("d", "a", "c", "b").sortBy(ascending(), failing(Serializer.strings(), 3, Integer.MAX_VALUE), 1, directory).iterator();
+            fail("Expected the write to fail");
+        } catch (RuntimeException e) {
+            assertThat(directory.list().length, is(0));
+        }
+    }
+
+    @Test
+    public void deletesEveryFileWhenAMergePassFails() throws Exception {
+        int runs = ExternalSort.MAXIMUM_OPEN_RUNS * 2 + 1;
+        try {
+            Sequences.iterate(i -> i + 1, 0).take(runs).sortBy(ascending(), failing(Serializer.<Integer>serializable(), runs + 10, Integer.MAX_VALUE), 1, directory).iterator();
+            fail("Expected the merge to fail");
+        } catch (RuntimeException e) {
+            assertThat(directory.list().length, is(0));
+        }
+    }
+
+    @Test
+    public void doesNotKeepRunsInTheDeleteOnExitList() throws Exception {
+        Collection<?> deleteOnExit = deleteOnExit();
+        File nested = new File(directory, "nested");
+        int before = deleteOnExit.size();
+        assertThat(sequence("d", "a", "c", "b").sortBy(ascending(), Serializer.strings(), 1, nested), hasExactly("a", "b", "c", "d"));
+        assertThat(deleteOnExit.size(), is(before));
+        assertThat(nested.list().length, is(0));
+    }
+
+    // The JVM's own list, which only reflection can see; skipped where the JDK does not allow that
+    private static Collection<?> deleteOnExit() {
+        try {
+            Field files = Class.forName("java.io.DeleteOnExitHook").getDeclaredField("files");
+            files.setAccessible(true);
+            return (Collection<?>) files.get(null);
+        } catch (Exception e) {
+            assumeTrue(false);
+            return null;
+        }
+    }
+
+    private static <T> Serializer<T> failing(Serializer<T> serializer, int writes, int reads) {
+        AtomicInteger written = new AtomicInteger(), read = new AtomicInteger();
+        return new Serializer<T>() {
+            @Override
+            public void write(T value, DataOutputStream output) throws IOException {
+                if (written.incrementAndGet() > writes) throw new IOException("disk full");
+                serializer.write(value, output);
+            }
+
+            @Override
+            public T read(DataInputStream input) throws IOException {
+                if (read.incrementAndGet() > reads) throw new IOException("bad sector");
+                return serializer.read(input);
+            }
+        };
+    }
+}
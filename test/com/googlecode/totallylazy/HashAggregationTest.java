@@ -0,0 +1,128 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.io.Serializer;
+import com.googlecode.totallylazy.numbers.Numbers;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.Files.emptyTemporaryDirectory;
+import static com.googlecode.totallylazy.Pair.pair;
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.functions.Count.count;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class HashAggregationTest {
+    private final File directory = emptyTemporaryDirectory("HashAggregationTest");
+
+    @Test
+    public void reducesEachGroupInTheOrderKeysWereFirstSeen() throws Exception {
+        Sequence<Pair<Character, Number>> counts = sequence("bob", "al", "ben", "ann", "cat", "bill").
+                groupBy((String name) -> name.charAt(0), count());
+        assertThat(counts, hasExactly(pair('b', (Number) 3), pair('a', (Number) 2), pair('c', (Number) 1)));
+    }
+
+    @Test
+    public void growsPastTheExpectedNumberOfKeys() throws Exception {
+        Sequence<Integer> numbers = Sequences.iterate(i -> i + 1, 0).take(10000).realise();
+        Sequence<Pair<Integer, Number>> sums = numbers.groupBy(i -> i % 1000, Numbers.sum(), 2);
+        assertThat(sums.size(), is(1000));
+        assertThat(sums.map(Pair::first), is(Sequences.iterate(i -> i + 1, 0).take(1000)));
+        assertThat(sums.head(), is(pair(0, (Number) 45000)));
+    }
+
+    @Test
+    public void supportsNullKeys() throws Exception {
+        assertThat(sequence("a", null, "b", null).groupBy(value -> value, count()), hasExactly(pair("a", (Number) 1), pair(null, (Number) 0), pair("b", (Number) 1)));
+    }
+
+    @Test
+    public void spillsToDiskWhenThereAreMoreKeysThanTheBudget() throws Exception {
+        Sequence<String> words = Sequences.iterate(i -> (i * 7919) % 2003, 1).take(6000).map(i -> "word" + (i % 500)).realise();
+        Serializer<Pair<String, Number>> serializer = Serializer.pair(Serializer.strings(), Serializer.<Number>serializable());
+        Map<String, Number> spilled = Maps.map(words.groupBy(word -> word, count(), serializer, 20, directory));
+        Map<String, Number> inMemory = Maps.map(words.groupBy(word -> word, count()));
+        assertThat(spilled.size(), is(words.unique().size()));
+        assertThat(spilled, is(inMemory));
+        assertThat(directory.list().length, is(0));
+    }
+
+    @Test
+    public void closingTheSequenceDeletesThePartitionsOfAnAbandonedIteration() throws Exception {
+        Sequence<Pair<Integer, Number>> counts = Sequences.iterate(i -> i + 1, 0).take(1000).groupBy(i -> i, count(), serializer(), 20, directory);
+        Iterator<Pair<Integer, Number>> iterator = counts.iterator();
+        iterator.next();
+        assertThat(directory.list().length > 0, is(true));
+        ((Closeable) counts).close();
+        assertThat(directory.list().length, is(0));
+    }
+
+    @Test
+    public void deletesDeeperSpillsWhenReadingAPartitionBackFails() throws Exception {
+        Serializer<Pair<Integer, Number>> failing = new Serializer<Pair<Integer, Number>>() {
+            private int reads = 0;
+
+            @Override
+            public void write(Pair<Integer, Number> value, DataOutputStream output) throws IOException {
+                serializer().write(value, output);
+            }
+
+            @Override
+            public Pair<Integer, Number> read(DataInputStream input) throws IOException {
+                if (++reads > 300) throw new IOException("bad sector");
+                return serializer().read(input);
+            }
+        };
+        try {
+            Sequences.iterate(i -> i + 1, 0).take(6000).map(i -> i % 500).groupBy(i -> i, count(), failing, 20, directory).size();
+            fail("Expected the read to fail");
+        } catch (RuntimeException e) {
+            assertThat(directory.list().length, is(0));
+        }
+    }
+
+    @Test
+    public void doesNotKeepPartitionsInTheDeleteOnExitList() throws Exception {
+        Collection<?> deleteOnExit = deleteOnExit();
+        File nested = new File(directory, "nested");
+        int before = deleteOnExit.size();
+        Sequence<Pair<Integer, Number>> counts = Sequences.iterate(i -> i + 1, 0).take(1000).groupBy(i -> i, count(), serializer(), 20, nested);
+        assertThat(counts.size(), is(1000));
+        assertThat(deleteOnExit.size(), is(before));
+        assertThat(nested.list().length, is(0));
+    }
+
+    // The JVM's own list, which only reflection can see; skipped where the JDK does not allow that
+    private static Collection<?> deleteOnExit() {
+        try {
+            Field files = Class.forName("java.io.DeleteOnExitHook").getDeclaredField("files");
+            files.setAccessible(true);
+            return (Collection<?>) files.get(null);
+        } catch (Exception e) {
+            assumeTrue(false);
+            return null;
+        }
+    }
+
+    private static Serializer<Pair<Integer, Number>> serializer() {
+        return Serializer.pair(Serializer.<Integer>serializable(), Serializer.<Number>serializable());
+    }
+
+    @Test
+    public void mergesTheGroupsOfEachParallelChunk() throws Exception {
+        Sequence<Integer> numbers = Sequences.iterate(i -> i + 1, 0).take(10000).realise();
+        assertThat(numbers.parallel().chunkSize(64).groupBy(i -> i % 7, Numbers.sum()), is(numbers.groupBy(i -> i % 7, Numbers.sum())));
+    }
+}
@@ -3,11 +3,14 @@ package com.googlecode.totallylazy;
 import com.googlecode.totallylazy.functions.Lazy;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.googlecode.totallylazy.Sequences.repeat;
 import static com.googlecode.totallylazy.matchers.Matchers.is;
 import static java.lang.String.format;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assume.assumeTrue;
 
 public class LazyTest {
     @Test
@@ -73,4 +76,53 @@ public class LazyTest {
         assertThat(count[0], is(2));
     }
 
+    @Test
+    public void confinedLazyRemembersValueAndCanBeClosed() throws Exception {
+        final int[] count = {0};
+
+        Lazy<String> lazy = Lazy.confined(() -> "Hello " + ++count[0]);
+
+        assertThat(lazy.value(), is("Hello 1"));
+        assertThat(lazy.value(), is("Hello 1"));
+
+        lazy.close();
+
+        assertThat(lazy.value(), is("Hello 2"));
+    }
+
+    @Test
+    public void remembersNull() throws Exception {
+        final int[] count = {0};
+
+        Lazy<String> lazy = Lazy.lazy(() -> {
+            count[0]++;
+            return null;
+        });
+
+        assertThat(lazy.value() == null, is(true));
+        assertThat(lazy.value() == null, is(true));
+        assertThat(count[0], is(1));
+    }
+
+    @Test
+    public void readingAMemorisedValueAllocatesNothing() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Lazy<String> lazy = Lazy.lazy(() -> "Hello");
+        Lazy<String> confined = Lazy.confined(() -> "Hello");
+        Computation<Integer> computation = Computation.memorise(repeat(1));
+        lazy.call(); confined.call(); computation.tail();
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 10000; i++) {
+            lazy.call();
+            confined.call();
+            computation.head();
+            computation.tail();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertThat(format("%s bytes allocated", allocated), allocated < 10000, is(true));
+    }
 }
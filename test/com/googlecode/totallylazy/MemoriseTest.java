@@ -5,6 +5,12 @@ import com.googlecode.totallylazy.functions.Function0;
 import com.googlecode.totallylazy.matchers.NumberMatcher;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+
 import static com.googlecode.totallylazy.functions.Callables.call;
 import static com.googlecode.totallylazy.Callers.callConcurrently;
 import static com.googlecode.totallylazy.Runnables.doNothing;
@@ -56,6 +62,84 @@ public class MemoriseTest {
         assertThat(counting.count(), is(1));
     }
 
+    @Test
+    public void concurrentIterationConsumesTheUnderlyingIteratorOnce() throws Exception {
+        CountCalls0<Integer> counting = counting();
+        final Sequence<Integer> numbers = repeat(counting).take(1000).memorise();
+        Function0<Integer> size = numbers::size;
+
+        Sequence<Integer> result = callConcurrently(size, size, size, size).realise();
+
+        assertThat(result, hasExactly(1000, 1000, 1000, 1000));
+        assertThat(counting.count(), is(1000));
+        assertThat(numbers.last(), is(999));
+    }
+
+    @Test
+    public void tailSharesMemoryAcrossChunkBoundaries() throws Exception {
+        CountCalls0<Integer> counting = counting();
+        Sequence<Integer> numbers = repeat(counting).take(5000).memorise();
+        Sequence<Integer> remainder = numbers;
+        for (int i = 0; i < 3000; i++) remainder = remainder.tail();
+
+        assertThat(remainder.head(), is(3000));
+        assertThat(numbers.drop(2999).head(), is(2999));
+        assertThat(remainder.size(), is(2000));
+        assertThat(numbers.size(), is(5000));
+        assertThat(counting.count(), is(5000));
+    }
+
+    @Test
+    public void forgettingAnIterableCarriesOnFromWhereItGotTo() throws Exception {
+        CountCalls0<Integer> counting = counting();
+        Sequence<Integer> numbers = repeat(counting).take(5).memorise();
+        assertThat(numbers.take(3), hasExactly(0, 1, 2));
+
+        ((Memory) numbers).forget();
+
+        assertThat(numbers, hasExactly(3, 4));
+        assertThat(numbers, hasExactly(3, 4));
+        assertThat(counting.count(), is(5));
+
+        ((Memory) numbers).forget();
+
+        assertThat(numbers.isEmpty(), is(true));
+    }
+
+    @Test
+    public void viewsFromBeforeAndAfterForgettingAnIteratorShareIt() throws Exception {
+        int size = 1000000;
+        Iterator<Integer> iterator = new Iterator<Integer>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            public Integer next() {
+                return next++;
+            }
+        };
+        Sequence<Integer> numbers = memorise(iterator);
+        Sequence<Integer> before = numbers.tail();
+        ((Memory) numbers).forget();
+
+        CyclicBarrier start = new CyclicBarrier(2);
+        Sequence<List<Integer>> result = callConcurrently(() -> {
+            start.await();
+            return before.toList();
+        }, () -> {
+            start.await();
+            return numbers.toList();
+        }).realise();
+
+        List<Integer> all = new ArrayList<Integer>(result.first());
+        all.addAll(result.second());
+        Collections.sort(all);
+        assertThat(all.size(), is(size - 1));
+        for (int i = 0; i < all.size(); i++) assertThat(all.get(i), is(i + 1));
+    }
+
     private Function0<Integer> callHead(final Sequence<Integer> number) {
         return number::head;
     }
@@ -0,0 +1,92 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.collections.TreeList;
+import com.googlecode.totallylazy.comparators.Comparators;
+import com.googlecode.totallylazy.numbers.Numbers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.numbers.Numbers.even;
+import static com.googlecode.totallylazy.numbers.Numbers.range;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ParallelSequenceTest {
+    @Test
+    public void supportsMapFilterAndReduceOverAnArray() throws Exception {
+        Number[] numbers = range(1, 10000).toArray(Number.class);
+        assertThat(sequence(numbers).parallel().filter(even).map(Numbers.multiply(2)).reduce(Numbers.sum()), is((Number) 50010000));
+    }
+
+    @Test
+    public void splitsRanges() throws Exception {
+        assertThat(range(1, 100000).parallel().reduce(Numbers.sum()), is((Number) 5000050000L));
+        assertThat(range(1, 100000).parallel().size(), is(100000));
+    }
+
+    @Test
+    public void preservesEncounterOrder() throws Exception {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 10000; i++) values.add(i);
+        assertThat(sequence(values).parallel().chunkSize(7).map(i -> i * 2).toList(), is(sequence(values).map(i -> i * 2).toList()));
+        assertThat(TreeList.treeList(values).toSequence().parallel().chunkSize(100).sequential(), is(sequence(values)));
+    }
+
+    @Test
+    public void supportsNonSplittableSourcesByBatching() throws Exception {
+        Sequence<Integer> values = Sequences.iterate(i -> i + 1, 0).take(5000);
+        assertThat(values.parallel().chunkSize(64).flatMap(i -> sequence(i, i)).size(), is(10000));
+        assertThat(values.parallel().fold(0, (a, b) -> a + b, (a, b) -> a + b), is(values.fold(0, (a, b) -> a + b)));
+    }
+
+    @Test
+    public void onlyReadsAFewBatchesAheadOfTheOldestUnfinishedOne() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            AtomicInteger pulled = new AtomicInteger();
+            AtomicInteger furthestAhead = new AtomicInteger();
+            Sequence<Integer> values = Sequences.iterate(i -> i + 1, 0).take(10000).map(i -> {
+                pulled.incrementAndGet();
+                return i;
+            });
+            values.parallel().pool(pool).chunkSize(10).each(i -> furthestAhead.accumulateAndGet(pulled.get() - i, Math::max));
+            assertThat(furthestAhead.get() <= 2 * 4 * 10, is(true));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void handlesEmptySources() throws Exception {
+        assertThat(Sequences.<Integer>empty().parallel().reduce(Numbers.sum()), is((Number) 0));
+        assertThat(sequence(new ArrayList<Integer>()).parallel().toList().isEmpty(), is(true));
+    }
+
+    @Test
+    public void runsOnTheSuppliedPool() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ConcurrentHashMap<String, Boolean> threads = new ConcurrentHashMap<String, Boolean>();
+            range(1, 1000).parallel().pool(pool).chunkSize(10).each(i -> threads.put(Thread.currentThread().getName(), true));
+            assertThat(sequence(threads.keySet()).forAll(name -> name.startsWith("ForkJoinPool")), is(true));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void mergesBoundedHeapsFromEachChunk() throws Exception {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 10000; i++) values.add((i * 7919) % 10007);
+        Sequence<Integer> sequence = sequence(values);
+        assertThat(sequence.parallel().chunkSize(100).topK(Comparators.<Integer>ascending(), 5), is(sequence.topK(Comparators.<Integer>ascending(), 5)));
+        assertThat(sequence.parallel().chunkSize(100).bottomK(Comparators.<Integer>ascending(), 5), is(sequence.sortBy(Comparators.<Integer>ascending()).take(5)));
+        assertThat(Sequences.iterate(i -> i + 1, 0).take(1000).parallel().chunkSize(64).filter(even).topK(Comparators.<Integer>ascending(), 3), is(sequence(998, 996, 994)));
+    }
+}
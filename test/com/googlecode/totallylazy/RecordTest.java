@@ -21,6 +21,14 @@ public class RecordTest {
         assertThat(new Record(){ int x = 1; String y = "2"; }.toString(), is("{x=1, y=2}"));
     }
 
+    @Test
+    public void canGetFieldsByName() throws Exception {
+        Record record = new Record(){ int x = 1; String y = "2"; };
+        assertThat(record.get("x"), is((Object) 1));
+        assertThat(record.get("y"), is((Object) "2"));
+        assertThat(record.get("z") == null, is(true));
+    }
+
     @Test(expected = UnsupportedOperationException.class)
     public void isImmutable() throws Exception {
         new Record(){ int x = 1; int y = 2; }.remove("x");
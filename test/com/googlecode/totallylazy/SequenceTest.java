@@ -15,11 +15,13 @@ import com.googlecode.totallylazy.time.Dates;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -444,6 +446,54 @@ public class SequenceTest {
         assertThat(unsorted.sortBy(descending(length())), hasExactly(large, medium, small));
     }
 
+    @Test
+    public void supportsTopAndBottomK() throws Exception {
+        Sequence<Integer> values = sequence(5, 6, 1, 3, 4, 2);
+        assertThat(values.topK(Comparators.<Integer>ascending(), 3), hasExactly(6, 5, 4));
+        assertThat(values.bottomK(Comparators.<Integer>ascending(), 3), hasExactly(1, 2, 3));
+        assertThat(values.sortedTake(Comparators.<Integer>descending(), 2), hasExactly(6, 5));
+        assertThat(Sequences.topK(values, 10), hasExactly(6, 5, 4, 3, 2, 1));
+        assertThat(Sequences.bottomK(values, 0).isEmpty(), is(true));
+    }
+
+    @Test
+    public void sortedTakeIsTheSameAsAStableSortThenTake() throws Exception {
+        Sequence<String> words = sequence("bob", "dan", "al", "matt", "ed", "tom", "jo", "sam");
+        Function1<String, Integer> length = String::length;
+        for (int k = 0; k <= 9; k++) {
+            assertThat(words.sortedTake(Comparators.ascending(length), k), is(words.sortBy(length).take(k)));
+            assertThat(words.bottomK(length, k), is(words.sortBy(length).take(k)));
+            assertThat(words.topK(length, k), is(words.sortBy(Comparators.descending(length)).take(k)));
+        }
+    }
+
+    @Test
+    public void sortByCallsTheKeyFunctionOncePerElement() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Sequence<String> numbers = sequence("10", "3", "7", "1", "12", "5", "8", "2");
+        Function1<String, Integer> parse = value -> {
+            calls.incrementAndGet();
+            return Integer.valueOf(value);
+        };
+        assertThat(numbers.sortBy(parse), hasExactly("1", "2", "3", "5", "7", "8", "10", "12"));
+        assertThat(calls.get(), is(8));
+        assertThat(numbers.sortBy(descending(parse)), hasExactly("12", "10", "8", "7", "5", "3", "2", "1"));
+        assertThat(calls.get(), is(16));
+    }
+
+    @Test
+    public void sortByPrimitiveKeysIsStable() throws Exception {
+        Sequence<Pair<String, Integer>> ints = sequence(pair("a", 2), pair("b", Integer.MIN_VALUE), pair("c", 2), pair("d", Integer.MAX_VALUE), pair("e", -1));
+        assertThat(ints.sortBy(ascending(Pair::second)).map(Pair::first), hasExactly("b", "e", "a", "c", "d"));
+        assertThat(ints.sortBy(descending(Pair::second)).map(Pair::first), hasExactly("d", "a", "c", "e", "b"));
+        Sequence<Pair<String, Long>> longs = sequence(pair("a", 2L), pair("b", Long.MIN_VALUE), pair("c", 2L), pair("d", Long.MAX_VALUE));
+        assertThat(longs.sortBy(ascending(Pair::second)).map(Pair::first), hasExactly("b", "a", "c", "d"));
+        assertThat(longs.sortBy(descending(Pair::second)).map(Pair::first), hasExactly("d", "a", "c", "b"));
+        Sequence<Pair<String, Double>> doubles = sequence(pair("a", 0.5), pair("b", -0.0), pair("c", Double.NaN), pair("d", -3.5), pair("e", 0.0), pair("f", 0.5));
+        assertThat(doubles.sortBy(ascending(Pair::second)).map(Pair::first), hasExactly("d", "b", "e", "a", "f", "c"));
+        assertThat(doubles.sortBy(descending(Pair::second)).map(Pair::first), hasExactly("c", "a", "f", "e", "b", "d"));
+    }
+
     @Test
     public void whenSortingWithNullsTheyAlwaysComeLast() throws Exception {
         Sequence<Integer> unsorted = sequence(2, null, 1);
@@ -719,6 +769,71 @@ public class SequenceTest {
         executorService.shutdown();
     }
 
+    @Test
+    public void supportsBoundedConcurrentMapOverAnInfiniteSequence() throws Exception {
+        AtomicInteger started = new AtomicInteger();
+        Sequence<Number> result = Numbers.range(1).mapConcurrently(number -> {
+            started.incrementAndGet();
+            return number;
+        }, 4);
+        assertThat(result.take(10), hasExactly((Number) 1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+        assertThat(started.get() <= 14, is(true));
+    }
+
+    @Test
+    public void supportsConcurrentMapInCompletionOrder() throws Exception {
+        ExecutorService executorService = NamedExecutors.newCachedThreadPool(getClass());
+        List<CountDownLatch> latches = list(new CountDownLatch(1), new CountDownLatch(1), new CountDownLatch(1));
+        Iterator<Integer> results = sequence(0, 1, 2).mapAsCompleted(index -> {
+            latches.get(index).await();
+            return index;
+        }, executorService, 3).iterator();
+        latches.get(1).countDown();
+        assertThat(results.next(), is(1));
+        latches.get(2).countDown();
+        assertThat(results.next(), is(2));
+        latches.get(0).countDown();
+        assertThat(results.next(), is(0));
+        assertThat(results.hasNext(), is(false));
+        executorService.shutdown();
+    }
+
+    @Test
+    public void fusesChainsOfMapAndFilterIntoASingleIterator() throws Exception {
+        List<String> stages = new ArrayList<String>();
+        Sequence<String> result = sequence(1, 2, 3).
+                map(i -> { stages.add("map " + i); return i * 10; }).
+                filter(i -> { stages.add("filter " + i); return i > 10; }).
+                map(i -> { stages.add("show " + i); return String.valueOf(i); });
+        assertThat(result, hasExactly("20", "30"));
+        assertThat(stages, is(list("map 1", "filter 10", "map 2", "filter 20", "show 20", "map 3", "filter 30", "show 30")));
+        assertThat(result, hasExactly("20", "30"));
+    }
+
+    @Test
+    public void fusedChainsOnlyLookAheadAsFarAsTheLastFilter() throws Exception {
+        Function1<Integer, Integer> boom = i -> { throw new IllegalStateException("boom"); };
+        assertThat(sequence(1, 2).map(boom).isEmpty(), is(false));
+        assertThat(sequence(1, 2).map(i -> i + 1).filter(i -> i > 2).map(boom).iterator().hasNext(), is(true));
+        assertThat(sequence(1, 2).filter(i -> i > 1).map(boom).map(boom).isEmpty(), is(false));
+    }
+
+    @Test
+    public void fusedChainsEvaluateEachStageOncePerElement() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Sequence<Integer> result = sequence(1, 2, 3).map(i -> {
+            calls.incrementAndGet();
+            return i;
+        }).filter(Predicates.<Integer>always()).map(i -> i + 1);
+        assertThat(result.head(), is(2));
+        assertThat(calls.get(), is(1));
+    }
+
+    @Test
+    public void fusedChainsRemainSplittableInParallel() throws Exception {
+        assertThat(sequence(1, 2, 3, 4).map(i -> i * 2).filter(i -> i > 2).parallel().chunkSize(1).toList(), is(list(4, 6, 8)));
+    }
+
     @Test
     public void mapIsLazy() throws Exception {
         Iterable<Integer> result = sequence(returns(1), callThrows(new Exception(), Integer.class)).
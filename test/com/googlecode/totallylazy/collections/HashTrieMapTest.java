@@ -0,0 +1,92 @@
+package com.googlecode.totallylazy.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.googlecode.totallylazy.Option.none;
+import static com.googlecode.totallylazy.Option.some;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class HashTrieMapTest extends MapContract {
+    @Override
+    protected <K extends Comparable<K>, V> MapFactory<K, V, ? extends PersistentMap<K, V>> factory() {
+        return HashTrieMap.<K, V>factory();
+    }
+
+    @Test
+    public void supportsKeysWithTheSameHashCode() throws Exception {
+        PersistentMap<Colliding, String> map = HashTrieMap.<Colliding, String>hashTrieMap()
+                .insert(new Colliding("a"), "A")
+                .insert(new Colliding("b"), "B")
+                .insert(new Colliding("c"), "C");
+        assertThat(map.size(), is(3));
+        assertThat(map.lookup(new Colliding("b")), is(some("B")));
+
+        PersistentMap<Colliding, String> deleted = map.delete(new Colliding("b")).delete(new Colliding("a"));
+        assertThat(deleted.size(), is(1));
+        assertThat(deleted.lookup(new Colliding("b")), is(none(String.class)));
+        assertThat(deleted.lookup(new Colliding("c")), is(some("C")));
+        assertThat(map.size(), is(3));
+    }
+
+    @Test
+    public void behavesLikeAHashMapUnderRandomInsertsAndDeletes() throws Exception {
+        Random random = new Random(1);
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        PersistentMap<Integer, Integer> actual = HashTrieMap.hashTrieMap();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000) * (random.nextBoolean() ? 1 : -65536);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                actual = actual.delete(key);
+            } else {
+                expected.put(key, i);
+                actual = actual.insert(key, i);
+            }
+        }
+        assertThat(actual.size(), is(expected.size()));
+        assertThat(actual.toMutableMap(), is(expected));
+    }
+
+    @Test
+    public void transientChangesDoNotLeakIntoTheOriginalMap() throws Exception {
+        HashTrieMap<Integer, String> original = HashTrieMap.<Integer, String>hashTrieMap().insert(1, "one").insert(2, "two");
+        HashTrieMap<Integer, String> changed = original.transientMap().insert(3, "three").delete(1).insert(2, "TWO").persistent();
+
+        assertThat(original.size(), is(2));
+        assertThat(original.lookup(2), is(some("two")));
+        assertThat(changed.size(), is(2));
+        assertThat(changed.lookup(2), is(some("TWO")));
+        assertThat(changed.lookup(1), is(none(String.class)));
+    }
+
+    @Test
+    public void equalityDoesNotDependOnInsertionOrder() throws Exception {
+        PersistentMap<Integer, String> first = HashTrieMap.<Integer, String>hashTrieMap().insert(33, "a").insert(1, "b").insert(65, "c");
+        PersistentMap<Integer, String> second = HashTrieMap.<Integer, String>hashTrieMap().insert(65, "c").insert(33, "a").insert(1, "b");
+        assertThat(first.equals(second), is(true));
+        assertThat(first.hashCode(), is(second.hashCode()));
+    }
+
+    private static final class Colliding {
+        private final String value;
+
+        private Colliding(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Colliding && ((Colliding) obj).value.equals(value);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.googlecode.totallylazy.collections;
+
+import org.junit.Test;
+
+import static com.googlecode.totallylazy.Option.none;
+import static com.googlecode.totallylazy.Option.some;
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.collections.PersistentSet.constructors.set;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+public class PersistentSetTest {
+    @Test
+    public void ignoresDuplicates() throws Exception {
+        PersistentSet<String> set = set("Dan", "Matt", "Dan").cons("Matt");
+        assertThat(set.size(), is(2));
+        assertThat(set, containsInAnyOrder("Dan", "Matt"));
+    }
+
+    @Test
+    public void canCheckContainsAndLookup() throws Exception {
+        PersistentSet<Integer> set = set(sequence(1, 2, 3));
+        assertThat(set.contains(2), is(true));
+        assertThat(set.contains(4), is(false));
+        assertThat(set.lookup(3), is(some(3)));
+        assertThat(set.lookup(4), is(none(Integer.class)));
+    }
+
+    @Test
+    public void canDelete() throws Exception {
+        PersistentSet<Integer> set = set(1, 2, 3);
+        assertThat(set.delete(2), containsInAnyOrder(1, 3));
+        assertThat(set.delete(4).size(), is(3));
+        assertThat(set.size(), is(3));
+    }
+
+    @Test
+    public void equalityIgnoresOrder() throws Exception {
+        assertThat(set(1, 33, 65).equals(set(65, 1, 33)), is(true));
+        assertThat(set(1, 33).equals(set(1, 65)), is(false));
+    }
+}
@@ -23,6 +23,21 @@ import static com.googlecode.totallylazy.numbers.Numbers.range;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class PersistentSortedMapTest {
+    @Test
+    public void laterPairsWinWhenBuildingFromAnIterable() throws Exception {
+        PersistentSortedMap<Integer, String> map = sortedMap(sequence(pair(2, "Two"), pair(1, "One"), pair(2, "Deux"), pair(3, "Three"), pair(1, "Un")));
+        assertThat(map, hasExactly(pair(1, "Un"), pair(2, "Deux"), pair(3, "Three")));
+        assertThat(map.size(), is(3));
+    }
+
+    @Test
+    public void buildsABalancedTreeFromSortedInput() throws Exception {
+        PersistentSortedMap<Integer, Integer> map = sortedMap(range(1, 1023).safeCast(Integer.class).map(i -> pair(i, i)));
+        assertThat(map.size(), is(1023));
+        assertThat(((AVLTree<Integer, Integer>) map).height(), is(10));
+        assertThat(map.lookup(512), is(some(512)));
+    }
+
     @Test
     public void canPutAndReturnOldValue() throws Exception {
         PersistentSortedMap<Integer, String> pairs = sortedMap(4, "Four", 5, "Five", 3, "Three", 2, "Two", 6, "Six");
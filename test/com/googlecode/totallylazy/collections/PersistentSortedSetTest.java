@@ -12,6 +12,13 @@ import static com.googlecode.totallylazy.matchers.Matchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class PersistentSortedSetTest {
+    @Test
+    public void ignoresDuplicatesWhenBuiltFromAnIterable() throws Exception {
+        PersistentSortedSet<Integer> sortedSet = sortedSet(sequence(3, 1, 3, 2, 1));
+        assertThat(sortedSet, hasExactly(1, 2, 3));
+        assertThat(sortedSet.size(), is(3));
+    }
+
     @Test
     public void canInsertAnElement() throws Exception {
         PersistentSortedSet<Integer> actual = sortedSet(1).cons(2).cons(3);
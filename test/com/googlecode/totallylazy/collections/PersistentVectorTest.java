@@ -0,0 +1,129 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Option;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.collections.PersistentList.constructors.empty;
+import static com.googlecode.totallylazy.collections.PersistentVector.vector;
+import static com.googlecode.totallylazy.functions.Count.count;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.numbers.Numbers.range;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PersistentVectorTest {
+    @Test
+    public void supportsHashcode() throws Exception {
+        assertThat(vector("Dan", "Matt").hashCode(), is(vector("Dan", "Matt").hashCode()));
+    }
+
+    @Test
+    public void supportsEquality() throws Exception {
+        assertThat(vector("Dan", "Matt"), is(vector("Dan", "Matt")));
+    }
+
+    @Test
+    public void supportsToString() throws Exception {
+        assertThat(vector("Dan", "Matt").toString(), is("(Dan,Matt)"));
+    }
+
+    @Test
+    public void canFold() throws Exception {
+        assertThat(vector("Dan", "Matt").fold(0, count()).intValue(), is(2));
+    }
+
+    @Test
+    public void canConsAnElementOntoTheHead() throws Exception {
+        assertThat(PersistentVector.<String>vector().cons("Dan").cons("Matt"), hasExactly("Matt", "Dan"));
+    }
+
+    @Test
+    public void canAddAnElementOntoTheEnd() throws Exception {
+        assertThat(PersistentVector.<String>vector().append("Dan").append("Matt"), hasExactly("Dan", "Matt"));
+    }
+
+    @Test
+    public void supportsHeadOption() {
+        assertThat(vector("Dan", "Matt").headOption(), is(Option.some("Dan")));
+        assertThat(empty(String.class).headOption(), is(Option.none(String.class)));
+    }
+
+    @Test
+    public void appendingManyElementsKeepsThemInOrder() throws Exception {
+        PersistentVector<Integer> vector = vector();
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 40000; i++) {
+            vector = vector.append(i);
+            expected.add(i);
+        }
+        assertThat(vector.size(), is(40000));
+        assertThat(vector.get(0), is(0));
+        assertThat(vector.get(1055), is(1055));
+        assertThat(vector.get(39999), is(39999));
+        assertThat(vector.toMutableList(), is(expected));
+        assertThat(PersistentVector.vector(expected), is(vector));
+    }
+
+    @Test
+    public void updatesDoNotChangeTheOriginal() throws Exception {
+        PersistentVector<Integer> original = vector(range(0, 99).safeCast(Integer.class));
+        PersistentVector<Integer> updated = original.update(5, -5).update(99, -99);
+        assertThat(original.get(5), is(5));
+        assertThat(original.get(99), is(99));
+        assertThat(updated.get(5), is(-5));
+        assertThat(updated.get(99), is(-99));
+    }
+
+    @Test
+    public void tailAndSubListShareStructure() throws Exception {
+        PersistentVector<Integer> vector = vector(range(0, 99).safeCast(Integer.class));
+        assertThat(vector.tail().tail().head(), is(2));
+        assertThat(vector.subList(10, 13), hasExactly(10, 11, 12));
+        assertThat(vector.subList(10, 13).append(99), hasExactly(10, 11, 12, 99));
+        assertThat(vector.tail().cons(-1).subList(0, 3), hasExactly(-1, 1, 2));
+        assertThat(vector.get(13), is(13));
+        assertThat(vector.head(), is(0));
+    }
+
+    @Test
+    public void supportsDeleteReverseAndJoin() throws Exception {
+        PersistentVector<String> vector = vector("Dan", "Matt", "Raymond");
+        assertThat(vector.delete("Matt"), hasExactly("Dan", "Raymond"));
+        assertThat(vector.reverse(), hasExactly("Raymond", "Matt", "Dan"));
+        assertThat(vector.join(sequence("Tom", "Stu")), hasExactly("Dan", "Matt", "Raymond", "Tom", "Stu"));
+        assertThat(vector.indexOf("Raymond"), is(2));
+    }
+
+    @Test
+    public void nodesBuiltByATransientAreNoWiderThanAnyOther() throws Exception {
+        PersistentVector<Integer> vector = vector(range(0, 40000).safeCast(Integer.class));
+        PersistentVector<Integer> joined = vector.join(range(0, 5000).safeCast(Integer.class));
+        assertThat(widest(root(vector)), is(32));
+        assertThat(widest(root(joined)), is(32));
+        assertThat(joined.get(42000), is(1999));
+    }
+
+    private static Object[] root(PersistentVector<?> vector) throws Exception {
+        Field root = PersistentVector.class.getDeclaredField("root");
+        root.setAccessible(true);
+        return (Object[]) root.get(vector);
+    }
+
+    private static int widest(Object[] node) {
+        int widest = node.length;
+        for (Object child : node) {
+            if (child instanceof Object[]) widest = Math.max(widest, widest((Object[]) child));
+        }
+        return widest;
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutsideTheWindowThrows() throws Exception {
+        vector(1, 2, 3).tail().get(2);
+    }
+}
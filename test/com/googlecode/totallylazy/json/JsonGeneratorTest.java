@@ -0,0 +1,113 @@
+package com.googlecode.totallylazy.json;
+
+import com.googlecode.totallylazy.Record;
+import com.googlecode.totallylazy.Sequence;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.Lists.list;
+import static com.googlecode.totallylazy.Maps.map;
+import static com.googlecode.totallylazy.Sequences.repeat;
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.json.JsonGenerator.FieldName.fieldName;
+import static com.googlecode.totallylazy.json.JsonGenerator.jsonGenerator;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JsonGeneratorTest {
+    @Test
+    public void writesTheSameJsonAsJsonWriter() throws Exception {
+        Map<String, Object> model = new LinkedHashMap<>();
+        model.put("name", "Dan \"the man\"");
+        model.put("age", 42);
+        model.put("balance", 12.5);
+        model.put("active", true);
+        model.put("nothing", null);
+        model.put("date", new Date(0));
+        model.put("tags", list("a", list(1, 2), map()));
+        model.put("numbers", sequence(1, 2, 3));
+        String expected = Json.json(model);
+        model.put("numbers", sequence(1, 2, 3).iterator());
+        assertThat(write(model), is(expected));
+    }
+
+    @Test
+    public void writesRecordsUsingTheirFields() throws Exception {
+        User user = new User();
+        user.name = "Dan";
+        user.put("extra", "value");
+        assertThat(write(list(user, new Point())), is(Json.json(list(user, new Point()))));
+        assertThat(write(user), is("{\"name\":\"Dan\",\"extra\":\"value\"}"));
+    }
+
+    @Test
+    public void encodesUtf8AndEscapesSoItRoundTrips() throws Exception {
+        String value = "café € 😀 \"quoted\" back\\slash\n\t\r\b\f\u0001";
+        String json = write(map(value, value));
+        assertThat(Json.map(json.getBytes(UTF_8)), is(map(value, (Object) value)));
+    }
+
+    @Test
+    public void escapesUnpairedSurrogatesRatherThanWritingInvalidUtf8() throws Exception {
+        assertThat(write("a\ud83dz"), is("\"a\\ud83dz\""));
+        assertThat(write("\ude00"), is("\"\\ude00\""));
+        assertThat(write("\ud83d\ude00"), is("\"\ud83d\ude00\""));
+    }
+
+    @Test
+    public void escapesFieldNamesExactlyLikeValues() throws Exception {
+        for (String text : list("a\ud83dz", "\ude00", "caf\u00e9 \ud83d\ude00", "line\nbreak\t\u0001", "\"quoted\" back\\slash", "")) {
+            assertThat(write(map(text, text)), is("{" + write(text) + ":" + write(text) + "}"));
+        }
+    }
+
+    @Test
+    public void separatesValuesWhenUsedDirectly() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        jsonGenerator(output).
+                startObject().
+                name(fieldName("ids")).startArray().value(1).value(2).endArray().
+                name("empty").startObject().endObject().
+                name("ok").value(true).
+                endObject().
+                flush();
+        assertThat(output.toString("UTF-8"), is("{\"ids\":[1,2],\"empty\":{},\"ok\":true}"));
+    }
+
+    @Test
+    public void streamsLazySequencesLargerThanItsBuffer() throws Exception {
+        Sequence<String> values = repeat("0123456789").take(10000);
+        ByteArrayOutputStream output = Json.write(values, new ByteArrayOutputStream());
+        List<Object> read = Json.list(output.toByteArray());
+        assertThat(read.size(), is(10000));
+    }
+
+    @Test
+    public void writesIntoAByteBuffer() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        jsonGenerator(buffer).write(list("a", 1)).flush();
+        buffer.flip();
+        assertThat(UTF_8.decode(buffer).toString(), is("[\"a\",1]"));
+    }
+
+    private static String write(Object value) throws Exception {
+        return new String(Json.write(value, new ByteArrayOutputStream()).toByteArray(), UTF_8);
+    }
+
+    public static class User extends JsonRecord {
+        public String name;
+        public String missing;
+    }
+
+    public static class Point extends Record {
+        public int x = 1;
+        public Integer y = null;
+    }
+}
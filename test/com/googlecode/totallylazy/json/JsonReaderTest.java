@@ -0,0 +1,207 @@
+package com.googlecode.totallylazy.json;
+
+import com.googlecode.totallylazy.Sequence;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.Lists.list;
+import static com.googlecode.totallylazy.Maps.map;
+import static com.googlecode.totallylazy.Pair.pair;
+import static com.googlecode.totallylazy.json.JsonReader.Event.*;
+import static com.googlecode.totallylazy.json.JsonReader.jsonReader;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JsonReaderTest {
+    @Test
+    public void readsEvents() throws Exception {
+        JsonReader reader = jsonReader("{\"name\" : \"Dan\", \"age\": 42, \"tags\": [true, null]}");
+        assertThat(reader.next(), is(StartObject));
+        assertThat(reader.next(), is(Name));
+        assertThat(reader.text(), is("name"));
+        assertThat(reader.next(), is(Text));
+        assertThat(reader.text(), is("Dan"));
+        assertThat(reader.next(), is(Name));
+        assertThat(reader.next(), is(Number));
+        assertThat(reader.intValue(), is(42));
+        assertThat(reader.next(), is(Name));
+        assertThat(reader.next(), is(StartArray));
+        assertThat(reader.next(), is(Boolean));
+        assertThat(reader.booleanValue(), is(true));
+        assertThat(reader.next(), is(Null));
+        assertThat(reader.next(), is(EndArray));
+        assertThat(reader.next(), is(EndObject));
+        assertThat(reader.next(), is(EndDocument));
+    }
+
+    @Test
+    public void buildsTheSameValuesAsTheGrammar() throws Exception {
+        String json = "{\"root\":{\"child\":[1,-5.5,1e3,\"text\",{},[]],\"flag\":false,\"nothing\":null}}";
+        assertThat(jsonReader(json).value(), is(Json.object(json)));
+    }
+
+    @Test
+    public void unescapesStrings() throws Exception {
+        assertThat(jsonReader("\"a\\\"b\\\\c\\/d\\n\\t\\u00e9\"").value(), is("a\"b\\c/d\n\t\u00e9"));
+    }
+
+    @Test
+    public void readsNumbers() throws Exception {
+        JsonReader reader = jsonReader("[-9223372036854775808, 12345678901234567890, 0.25, -3]");
+        reader.next();
+        reader.next();
+        assertThat(reader.longValue(), is(Long.MIN_VALUE));
+        reader.next();
+        assertThat(reader.number(), is(new BigDecimal("12345678901234567890")));
+        reader.next();
+        assertThat(reader.doubleValue(), is(0.25));
+        reader.next();
+        assertThat(reader.longValue(), is(-3L));
+    }
+
+    @Test
+    public void skipsValues() throws Exception {
+        JsonReader reader = jsonReader("{\"skip\": {\"deep\": [1, {\"a\": \"b\"}]}, \"keep\": 1}");
+        reader.next();
+        reader.next();
+        reader.skipValue();
+        assertThat(reader.next(), is(Name));
+        assertThat(reader.text(), is("keep"));
+    }
+
+    @Test
+    public void providesLazyViewsOfArraysAndObjects() throws Exception {
+        assertThat(jsonReader("[1, \"two\", [3]]").array(), hasExactly(new BigDecimal(1), "two", list(new BigDecimal(3))));
+        assertThat(jsonReader("{\"a\": 1, \"b\": {}}").object(), hasExactly(pair("a", (Object) new BigDecimal(1)), pair("b", (Object) map())));
+    }
+
+    @Test
+    public void readsNewlineDelimitedJsonInConstantMemory() throws Exception {
+        int lines = 200000;
+        Sequence<Object> values = jsonReader(new Lines(lines)).values();
+        assertThat(values.map(value -> ((Map<?, ?>) value).get("id")).last(), is((Object) new BigDecimal(lines - 1)));
+    }
+
+    @Test
+    public void handlesTokensSplitAcrossReads() throws Exception {
+        String json = "{\"a long name\": \"a long \\u0076alue\", \"number\": 123456789}";
+        assertThat(jsonReader(new OneCharacterAtATime(json)).value(), is(Json.object(json)));
+    }
+
+    @Test
+    public void decodesUtf8FromByteBuffers() throws Exception {
+        String json = "[\"caf\u00e9\", \"\u20ac\", \"\ud83d\ude00\"]";
+        List<Object> expected = list("caf\u00e9", "\u20ac", "\ud83d\ude00");
+        assertThat(jsonReader(ByteBuffer.wrap(json.getBytes(UTF_8))).value(), is(expected));
+        ByteBuffer direct = ByteBuffer.allocateDirect(64);
+        direct.put(json.getBytes(UTF_8)).flip();
+        assertThat(jsonReader(direct).value(), is(expected));
+    }
+
+    @Test
+    public void decodesSupplementaryCharactersOneCharAtATime() throws Exception {
+        Reader reader = new Utf8Reader(ByteBuffer.wrap("a\ud83d\ude00b".getBytes(UTF_8)));
+        char[] buffer = new char[1];
+        StringBuilder builder = new StringBuilder();
+        for (int read; (read = reader.read(buffer, 0, 1)) != -1; ) {
+            assertThat(read, is(1));
+            builder.append(buffer[0]);
+        }
+        assertThat(builder.toString(), is("a\ud83d\ude00b"));
+    }
+
+    @Test
+    public void sharesRepeatedFieldNames() throws Exception {
+        List<Object> records = jsonReader("[{\"name\": \"a\"}, {\"name\": \"b\"}]").list();
+        Object first = ((Map<?, ?>) records.get(0)).keySet().iterator().next();
+        Object second = ((Map<?, ?>) records.get(1)).keySet().iterator().next();
+        assertThat(first == second, is(true));
+    }
+
+    @Test
+    public void reportsWhereTheJsonIsMalformed() throws Exception {
+        try {
+            jsonReader("[1, 2 3]").value();
+            throw new AssertionError("Should have failed");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Expected ',' or ']' but found '3' at character 7"));
+        }
+    }
+
+    @Test
+    public void readsNumbersInAllTheirForms() throws Exception {
+        assertThat(jsonReader("[0, -0, 1.5e3, 2E-2, -0.5e+1]").list(), is(list((Object) new BigDecimal("0"), new BigDecimal("-0"),
+                new BigDecimal("1.5e3"), new BigDecimal("2E-2"), new BigDecimal("-0.5e+1"))));
+    }
+
+    @Test
+    public void rejectsMalformedNumbers() throws Exception {
+        assertMalformed("[12-3]", "Expected the end of the number but found '-' at character 4");
+        assertMalformed("[1.2.3]", "Expected the end of the number but found '.' at character 5");
+        assertMalformed("[-]", "Expected a digit but found ']' at character 3");
+        assertMalformed("[01]", "Expected the end of the number but found '1' at character 3");
+        assertMalformed("[1.]", "Expected a digit but found ']' at character 4");
+        assertMalformed("[.5]", "Expected a value but found '.' at character 2");
+        assertMalformed("[1e]", "Expected a digit but found ']' at character 4");
+        assertMalformed("[+1]", "Expected a value but found '+' at character 2");
+        assertMalformed("12-3", "Expected the end of the number but found '-' at character 3");
+    }
+
+    private static void assertMalformed(String json, String message) {
+        try {
+            jsonReader(json).value();
+            throw new AssertionError("Should have failed: " + json);
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(message));
+        }
+    }
+
+    private static class Lines extends Reader {
+        private final int lines;
+        private int line = 0;
+        private StringReader current = new StringReader("");
+
+        private Lines(int lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int count = current.read(buffer, offset, length);
+            if (count > 0) return count;
+            if (line == lines) return -1;
+            current = new StringReader("{\"id\": " + line++ + ", \"name\": \"line\"}\n");
+            return read(buffer, offset, length);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class OneCharacterAtATime extends Reader {
+        private final StringReader reader;
+
+        private OneCharacterAtATime(String value) {
+            reader = new StringReader(value);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return reader.read(buffer, offset, Math.min(length, 1));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
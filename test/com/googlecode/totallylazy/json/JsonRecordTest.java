@@ -7,6 +7,7 @@ import com.googlecode.totallylazy.time.Dates;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -126,6 +127,13 @@ public class JsonRecordTest {
         assertThat(parsed.get("tel"), is("12345678890"));
     }
 
+    @Test
+    public void matchesFieldNamesIgnoringCase() throws Exception {
+        User user = create(User.class, map("NAME", "Dan", "Age", new BigDecimal(1)));
+        assertThat(user.name, is("Dan"));
+        assertThat(user.get("age"), is(new BigDecimal(1)));
+    }
+
     static class IntUser extends JsonRecord {
         int age;
     }
@@ -156,6 +164,35 @@ public class JsonRecordTest {
         assertThat(parse(LongUser.class, "{\"age\":null}").age, nullValue());
     }
 
+    @Test
+    public void rejectsMalformedNumbers() throws Exception {
+        for (Class<? extends JsonRecord> type : Arrays.<Class<? extends JsonRecord>>asList(IntUser.class, IntegerUser.class, longUser.class, LongUser.class)) {
+            try {
+                parse(type, "{\"age\": 12-3}");
+                fail("Expected exception for " + type.getSimpleName());
+            } catch (IllegalArgumentException e) {
+                Assert.assertThat(e.getMessage(), is("Expected the end of the number but found '-' at character 11"));
+            }
+        }
+    }
+
+    @Test
+    public void parsingAStringFollowsTheJsonGrammarExactly() throws Exception {
+        assertRejected("{\"name\":\"x\",}", "Expected a field name but found '}' at character 13");
+        assertRejected("{\"age\":01}", "Expected the end of the number but found '1' at character 9");
+        assertRejected("{\"name\":\"x\"} trailing", "Expected the end of the document but found 't' at character 14");
+        assertThat(parse(User.class, " {\"name\":\"x\"} \n").name, is("x"));
+    }
+
+    private static void assertRejected(String json, String message) {
+        try {
+            parse(User.class, json);
+            fail("Expected exception for " + json);
+        } catch (IllegalArgumentException e) {
+            Assert.assertThat(e.getMessage(), is(message));
+        }
+    }
+
     enum Position {
         Long,
     }
@@ -260,4 +297,26 @@ public class JsonRecordTest {
         assertThat(parse(Ledger.class, "{\"times\":[\"" + Dates.RFC3339withMilliseconds().format(date) + "\"]}").times.get(0), is(date));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void canPassOverUndeclaredFieldsWithoutReadingThem() throws Exception {
+        String json = "{\"name\":\"Dan\",\"tel\":{\"home\":[1,2,{\"x\":null}]},\"age\":1}";
+        User user = JsonRecord.parseDeclaredFields(User.class, JsonReader.jsonReader(json));
+        assertThat(user.name, is("Dan"));
+        assertThat(user.age, is(new BigDecimal(1)));
+        assertThat(user.toString(), is("{\"name\":\"Dan\",\"age\":1}"));
+    }
+
+    static class Node extends JsonRecord {
+        int value;
+        Node next;
+    }
+
+    @Test
+    public void decodesTheSameRecordAsCreatingFromAMap() throws Exception {
+        String json = "{\"value\":1,\"next\":{\"value\":2,\"next\":null,\"extra\":[true]}}";
+        Node parsed = parse(Node.class, json);
+        assertThat(parsed.next.value, is(2));
+        assertThat(parsed, is(create(Node.class, Json.map(json))));
+    }
+}
@@ -1,5 +1,6 @@
 package com.googlecode.totallylazy.json;
 
+import com.googlecode.totallylazy.Files;
 import com.googlecode.totallylazy.Randoms;
 import com.googlecode.totallylazy.Unchecked;
 import com.googlecode.totallylazy.Value;
@@ -7,8 +8,10 @@ import com.googlecode.totallylazy.io.Uri;
 import com.googlecode.totallylazy.time.Dates;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.Date;
 import java.util.Map;
 
@@ -17,6 +20,7 @@ import static com.googlecode.totallylazy.Maps.map;
 import static com.googlecode.totallylazy.Pair.pair;
 import static com.googlecode.totallylazy.Strings.string;
 import static com.googlecode.totallylazy.time.Dates.date;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -28,6 +32,23 @@ public class JsonTest {
         assertThat(Json.<String>sequence(new StringReader("[\"one\", \"two\"]")).head(), is("one"));
     }
 
+    @Test
+    public void parsesUtf8BytesBuffersAndMappedFilesDirectly() throws Exception {
+        String json = "{\"caf\u00e9\" : [1, \"\u20ac\"]}";
+        Map<String, Object> expected = Json.map(json);
+        byte[] bytes = json.getBytes(UTF_8);
+        assertThat(Json.map(bytes), is(expected));
+        assertThat(Json.map(ByteBuffer.wrap(bytes)), is(expected));
+        File file = Files.write(bytes, Files.temporaryFile());
+        try {
+            assertThat(Json.map(file), is(expected));
+        } finally {
+            Files.delete(file);
+        }
+        assertThat(Json.list("[\"one\", 2]".getBytes(UTF_8)), is(Json.list("[\"one\", 2]")));
+        assertThat(Json.object("true".getBytes(UTF_8)), is((Object) true));
+    }
+
     @Test
     public void supportsParsingToVariousNativeJavaTypes() throws Exception {
         assertThat(Json.<String>map(("{\"root\" : \"text\"}")).get("root"), is("text"));
@@ -0,0 +1,61 @@
+package com.googlecode.totallylazy.numbers;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.numbers.DoubleSequence.doubles;
+import static com.googlecode.totallylazy.numbers.IntSequence.ints;
+import static com.googlecode.totallylazy.numbers.LongSequence.longs;
+import static com.googlecode.totallylazy.numbers.Numbers.numbers;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DoubleSequenceTest {
+    @Test
+    public void supportsMapFilterAndFold() throws Exception {
+        assertThat(doubles(0.5, 1.5, 2.5, 3.5).filter(d -> d > 1).map(d -> d * 2).fold(0, Double::sum), is(15.0));
+    }
+
+    @Test
+    public void supportsAggregates() throws Exception {
+        DoubleSequence values = doubles(3, 1.5, 4, 1.5);
+        assertThat(values.sum(), is(10.0));
+        assertThat(values.minimum(), is(1.5));
+        assertThat(values.maximum(), is(4.0));
+        assertThat(values.average(), is(2.5));
+        assertThat(values.size(), is(4));
+        assertThat(values.head(), is(3.0));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void aggregatesOfAnEmptySequenceThrow() throws Exception {
+        doubles().minimum();
+    }
+
+    @Test
+    public void supportsTakeDropAndZip() throws Exception {
+        assertThat(doubles(1, 2, 3, 4).drop(1).take(2), is(doubles(2, 3)));
+        assertThat(doubles(1, 2, 3).zip(doubles(0.5, 0.25), (a, b) -> a * b), is(doubles(0.5, 0.5)));
+        assertThat(doubles().isEmpty(), is(true));
+    }
+
+    @Test
+    public void supportsToArrayAndRealise() throws Exception {
+        assertThat(ints(1, 2, 3).doubles().map(d -> d / 2).toArray(), is(new double[]{0.5, 1.0, 1.5}));
+        assertThat(doubles(1, 2).map(Math::sqrt).realise(), is(doubles(1, Math.sqrt(2))));
+    }
+
+    @Test
+    public void interoperatesWithSequenceOfNumbers() throws Exception {
+        assertThat(doubles(numbers(1, 2L, 0.5)).numbers(), hasExactly((Number) 1.0, 2.0, 0.5));
+        assertThat(doubles(0.5).mapToObject(Double::toString), hasExactly("0.5"));
+    }
+
+    @Test
+    public void convertsBetweenPrimitiveSequences() throws Exception {
+        assertThat(doubles(1.5, 2.5).mapToInt(d -> (int) Math.ceil(d)), is(ints(2, 3)));
+        assertThat(doubles(1.5, 2.5).mapToLong(d -> (long) (d * 1e10)), is(longs(15_000_000_000L, 25_000_000_000L)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.googlecode.totallylazy.numbers;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.numbers.IntSequence.ints;
+import static com.googlecode.totallylazy.numbers.LongSequence.longs;
+import static com.googlecode.totallylazy.numbers.Numbers.numbers;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IntSequenceTest {
+    @Test
+    public void supportsMapFilterAndFold() throws Exception {
+        assertThat(IntSequence.range(1, 10).filter(i -> i % 2 == 0).map(i -> i * 10).fold(0, Integer::sum), is(300));
+    }
+
+    @Test
+    public void rangesAreInclusiveAndCanDescend() throws Exception {
+        assertThat(IntSequence.range(1, 5), is(ints(1, 2, 3, 4, 5)));
+        assertThat(IntSequence.range(5, 1), is(ints(5, 4, 3, 2, 1)));
+        assertThat(IntSequence.range(0, 10, 5), is(ints(0, 5, 10)));
+        assertThat(IntSequence.range(Integer.MAX_VALUE - 1, Integer.MAX_VALUE).size(), is(2));
+        assertThat(LongSequence.range(Long.MAX_VALUE - 1, Long.MAX_VALUE).size(), is(2));
+    }
+
+    @Test
+    public void supportsAggregates() throws Exception {
+        IntSequence values = ints(3, 1, 4, 1, 5);
+        assertThat(values.sum(), is(14L));
+        assertThat(values.minimum(), is(1));
+        assertThat(values.maximum(), is(5));
+        assertThat(values.average(), is(2.8));
+        assertThat(ints(Integer.MAX_VALUE, Integer.MAX_VALUE).sum(), is(2L * Integer.MAX_VALUE));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void aggregatesOfAnEmptySequenceThrow() throws Exception {
+        ints().maximum();
+    }
+
+    @Test
+    public void supportsTakeDropAndZip() throws Exception {
+        assertThat(IntSequence.range(1, 100).drop(10).take(3), is(ints(11, 12, 13)));
+        assertThat(ints(1, 2, 3).zip(ints(10, 20), Integer::sum), is(ints(11, 22)));
+    }
+
+    @Test
+    public void supportsToArray() throws Exception {
+        assertThat(IntSequence.range(1, 40).filter(i -> i > 35).toArray(), is(new int[]{36, 37, 38, 39, 40}));
+    }
+
+    @Test
+    public void interoperatesWithSequenceOfNumbers() throws Exception {
+        assertThat(ints(numbers(1, 2, 3)).map(i -> i * 2).numbers(), hasExactly((Number) 2, 4, 6));
+        assertThat(ints(new int[]{1, 2}).numbers().map(Numbers.add(1)), hasExactly((Number) 2, 3));
+        assertThat(ints(1, 2, 3).mapToObject(Integer::toString), hasExactly("1", "2", "3"));
+    }
+
+    @Test
+    public void convertsBetweenPrimitiveSequences() throws Exception {
+        assertThat(ints(1, 2).mapToLong(i -> i * 10_000_000_000L), is(longs(10_000_000_000L, 20_000_000_000L)));
+        assertThat(ints(1, 2).doubles().map(d -> d / 4).sum(), is(0.75));
+        assertThat(DoubleSequence.doubles(1.5, 2.5).mapToInt(d -> (int) Math.ceil(d)), is(ints(2, 3)));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void refusesNumbersOutsideTheIntRange() throws Exception {
+        ints(numbers(1, Integer.MAX_VALUE + 1L)).toArray();
+    }
+
+    @Test
+    public void iteratesArraysWithIntIterator() throws Exception {
+        assertThat(ints(1, 2).iterator() instanceof IntIterator, is(true));
+        assertThat(Numbers.numbers(new int[]{1, 2}), hasExactly((Number) 1, 2));
+    }
+}
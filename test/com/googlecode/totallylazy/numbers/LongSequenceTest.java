@@ -0,0 +1,85 @@
+package com.googlecode.totallylazy.numbers;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.numbers.DoubleSequence.doubles;
+import static com.googlecode.totallylazy.numbers.IntSequence.ints;
+import static com.googlecode.totallylazy.numbers.LongSequence.longs;
+import static com.googlecode.totallylazy.numbers.Numbers.numbers;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LongSequenceTest {
+    @Test
+    public void supportsMapFilterAndFold() throws Exception {
+        assertThat(LongSequence.range(1, 10).filter(i -> i % 2 == 0).map(i -> i * 10_000_000_000L).fold(0, Long::sum), is(300_000_000_000L));
+    }
+
+    @Test
+    public void rangesAreInclusiveAndCanDescend() throws Exception {
+        assertThat(LongSequence.range(1, 5), is(longs(1, 2, 3, 4, 5)));
+        assertThat(LongSequence.range(5, 1), is(longs(5, 4, 3, 2, 1)));
+        assertThat(LongSequence.range(0, 10, 5), is(longs(0, 5, 10)));
+        assertThat(LongSequence.range(Long.MIN_VALUE + 1, Long.MIN_VALUE), is(longs(Long.MIN_VALUE + 1, Long.MIN_VALUE)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aStepOfZeroIsRejected() throws Exception {
+        LongSequence.range(1, 5, 0);
+    }
+
+    @Test
+    public void supportsAggregates() throws Exception {
+        LongSequence values = longs(3, 1, 4, 1, 5);
+        assertThat(values.sum(), is(14L));
+        assertThat(values.minimum(), is(1L));
+        assertThat(values.maximum(), is(5L));
+        assertThat(values.average(), is(2.8));
+        assertThat(values.size(), is(5));
+        assertThat(values.head(), is(3L));
+        assertThat(values.reduce(Math::max), is(5L));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void aggregatesOfAnEmptySequenceThrow() throws Exception {
+        longs().average();
+    }
+
+    @Test
+    public void supportsTakeDropAndZip() throws Exception {
+        assertThat(LongSequence.range(1, 100).drop(10).take(3), is(longs(11, 12, 13)));
+        assertThat(longs(1, 2, 3).zip(longs(10, 20), Long::sum), is(longs(11, 22)));
+        assertThat(longs(1, 2).drop(5).isEmpty(), is(true));
+    }
+
+    @Test
+    public void isLazy() throws Exception {
+        assertThat(LongSequence.range(1, Long.MAX_VALUE).map(i -> i * 2).filter(i -> i % 3 == 0).take(2), is(longs(6, 12)));
+    }
+
+    @Test
+    public void supportsToArrayAndRealise() throws Exception {
+        assertThat(LongSequence.range(1, 40).filter(i -> i > 35).toArray(), is(new long[]{36, 37, 38, 39, 40}));
+        int[] calls = {0};
+        LongSequence realised = longs(1, 2).map(i -> i + calls[0]++).realise();
+        assertThat(realised, is(longs(1, 3)));
+        assertThat(realised, is(longs(1, 3)));
+    }
+
+    @Test
+    public void interoperatesWithSequenceOfNumbers() throws Exception {
+        assertThat(longs(numbers(1, 2L, 3.0)).map(i -> i * 2).numbers(), hasExactly((Number) 2L, 4L, 6L));
+        assertThat(longs(1, 2, 3).mapToObject(Long::toString), hasExactly("1", "2", "3"));
+        assertThat(longs(1, 2).toString(), is("1,2"));
+    }
+
+    @Test
+    public void convertsBetweenPrimitiveSequences() throws Exception {
+        assertThat(longs(1, 2).mapToInt(i -> (int) i * 3), is(ints(3, 6)));
+        assertThat(longs(1, 2).mapToDouble(i -> i / 4.0), is(doubles(0.25, 0.5)));
+        assertThat(ints(1, 2).longs(), is(longs(1, 2)));
+    }
+}
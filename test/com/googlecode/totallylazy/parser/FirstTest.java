@@ -0,0 +1,51 @@
+package com.googlecode.totallylazy.parser;
+
+import org.junit.Test;
+
+import static com.googlecode.totallylazy.Characters.whitespace;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.parser.First.first;
+import static com.googlecode.totallylazy.parser.Parsers.isChar;
+import static com.googlecode.totallylazy.parser.Parsers.pattern;
+import static com.googlecode.totallylazy.parser.Parsers.string;
+import static com.googlecode.totallylazy.parser.Parsers.ws;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FirstTest {
+    @Test
+    public void patternsStartWithWhatTheyCouldMatch() throws Exception {
+        First digits = first(pattern("\\d+\\.\\d+"));
+        assertThat(digits.contains('7'), is(true));
+        assertThat(digits.contains('.'), is(false));
+        assertThat(digits.empty(), is(false));
+        assertThat(first(pattern("a*")).empty(), is(true));
+    }
+
+    @Test
+    public void sequencesLookPastParsersThatCanMatchNothing() throws Exception {
+        First first = first(ws(string("null")));
+        assertThat(first.contains(' '), is(true));
+        assertThat(first.contains('n'), is(true));
+        assertThat(first.contains('u'), is(false));
+        assertThat(first(isChar('a').then(isChar('b'))).contains('b'), is(false));
+        assertThat(first(isChar('a').optional().then(isChar('b'))).contains('b'), is(true));
+    }
+
+    @Test
+    public void predicatesMayMatchAnyOtherCharacter() throws Exception {
+        First first = first(isChar(whitespace));
+        assertThat(first.contains('\n'), is(true));
+        assertThat(first.contains('x'), is(false));
+        assertThat(first.contains('é'), is(true));
+        assertThat(first(string("x")).contains('é'), is(false));
+    }
+
+    @Test
+    public void recursiveRulesCouldStartWithAnything() throws Exception {
+        ReferenceParser<String> expression = Parsers.reference();
+        expression.set(expression.followedBy(isChar('+')).or(string("1")));
+        assertThat(first(expression).contains('x'), is(true));
+        Parser<Object> unknown = characters -> null;
+        assertThat(first(unknown).contains('x'), is(true));
+    }
+}
@@ -3,6 +3,7 @@ package com.googlecode.totallylazy.parser;
 import com.googlecode.totallylazy.Lists;
 import org.junit.Test;
 
+import java.io.StringReader;
 import java.util.List;
 
 import static com.googlecode.totallylazy.Lists.list;
@@ -35,6 +36,14 @@ public class ManyParserTest {
         assertThat(result.remainder(), is(characters("DEFG")));
     }
 
+    @Test
+    public void readersAndStringsGiveTheSameResult() throws Exception {
+        Result<List<Character>> fromString = many(character('C')).parse("CCDE");
+        Result<List<Character>> fromReader = many(character('C')).parse(new StringReader("CCDE"));
+        assertThat(fromString.value(), is(fromReader.value()));
+        assertThat(fromString.remainder().head(), is(fromReader.remainder().head()));
+    }
+
     @Test
     public void supportChaining() throws Exception {
         Result<List<Character>> result = character('C').many().parse("CCCCCDEFG");
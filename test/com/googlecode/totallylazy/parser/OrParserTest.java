@@ -2,8 +2,11 @@ package com.googlecode.totallylazy.parser;
 
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.googlecode.totallylazy.Segment.constructors.characters;
 import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.parser.CharacterParser.character;
 import static com.googlecode.totallylazy.parser.Parsers.or;
 import static com.googlecode.totallylazy.parser.StringParser.string;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -24,4 +27,60 @@ public class OrParserTest {
         assertThat(result1.value(), is("bar"));
         assertThat(result1.remainder(), is(characters("t")));
     }
+
+    @Test
+    public void onlyTriesAlternativesThatCanStartWithTheNextCharacter() throws Exception {
+        AtomicInteger tried = new AtomicInteger();
+        Parser<Object> parser = or(string("foo"), character(c -> tried.incrementAndGet() > 0 && c == 'x'), string("bar"));
+        assertThat(parser.parse("bar").value(), is((Object) "bar"));
+        tried.set(0);
+        assertThat(parser.parse("bar").value(), is((Object) "bar"));
+        assertThat(tried.get(), is(0));
+        assertThat(parser.parse("x").value(), is((Object) 'x'));
+        assertThat(tried.get(), is(1));
+    }
+
+    @Test
+    public void reportsTheSameFailureAsTryingEveryAlternative() throws Exception {
+        Parser<String> parser = or(string("foo"), string("bar"));
+        assertThat(parser.parse("baz").message(), is("bar expected, baz encountered."));
+        assertThat(parser.parse("qux").message(), is("bar expected, q encountered."));
+        assertThat(parser.parse("").message(), is("bar expected,  encountered."));
+    }
+
+    @Test
+    public void triesEveryAlternativeThatMightStartWithOtherCharacters() throws Exception {
+        Parser<String> parser = or(string("foo"), string("\u00e9t\u00e9"), Parsers.pattern("\\p{L}+"));
+        assertThat(parser.parse("\u00e9t\u00e9!").value(), is("\u00e9t\u00e9"));
+        assertThat(parser.parse("\u00fcber").value(), is("\u00fcber"));
+    }
+
+    @Test
+    public void rebuildsItsTableWhenAReferenceIsSetAfterTheFirstParse() throws Exception {
+        ReferenceParser<String> rule = Parsers.reference();
+        rule.set(string("foo"));
+        Parser<String> parser = or(rule, string("bar"));
+        assertThat(parser.parse("foo").value(), is("foo"));
+        rule.set(string("baz"));
+        assertThat(parser.parse("baz").value(), is("baz"));
+        assertThat(parser.parse("bar").value(), is("bar"));
+    }
+
+    @Test
+    public void keepsItsTableWhenReferencesItDoesNotReachAreSet() throws Exception {
+        AtomicInteger tried = new AtomicInteger();
+        ReferenceParser<Character> rule = Parsers.reference();
+        rule.set(character(c -> tried.incrementAndGet() > 0 && c == 'x'));
+        Parser<Object> parser = or(string("foo"), rule, string("qux"));
+        assertThat(parser.parse("bar").failure(), is(true));
+        tried.set(0);
+
+        Parsers.<String>reference().set(string("baz"));
+        assertThat(parser.parse("bar").failure(), is(true));
+        assertThat(tried.get(), is(0));
+
+        rule.set(character(c -> tried.incrementAndGet() > 0 && c == 'b'));
+        assertThat(parser.parse("bar").value(), is((Object) 'b'));
+        assertThat(tried.get() > 1, is(true));
+    }
 }
@@ -0,0 +1,65 @@
+package com.googlecode.totallylazy.parser;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.googlecode.totallylazy.Segment.constructors.characters;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.parser.Parsers.isChar;
+import static com.googlecode.totallylazy.parser.Parsers.or;
+import static com.googlecode.totallylazy.parser.Parsers.pattern;
+import static com.googlecode.totallylazy.parser.Parsers.string;
+import static java.lang.String.format;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PackratParserTest {
+    @Test
+    public void supportsLeftRecursionViaReference() throws Exception {
+        ReferenceParser<String> expression = Parsers.reference();
+        expression.set(or(expression.followedBy(isChar('-')).then(pattern("\\d")).map(p -> format("(%s-%s)", p.first(), p.second())),
+                pattern("\\d")));
+        Result<String> result = expression.packrat().parse("5-3-1+");
+        assertThat(result.value(), is("((5-3)-1)"));
+        assertThat(result.remainder(), is(characters("+")));
+    }
+
+    @Test
+    public void supportsIndirectLeftRecursionViaLazy() throws Exception {
+        ReferenceParser<String> a = Parsers.reference();
+        Parser<String> b = Parsers.lazy(() -> a);
+        a.set(or(b.then(string("a")).map(p -> p.first() + p.second()), string("a")));
+        assertThat(a.packrat().parse("aaa").value(), is("aaa"));
+    }
+
+    @Test
+    public void parsesEachMemorisedRuleOncePerPosition() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        Parser<String> word = Parsers.<String>memorise(characters -> {
+            count.incrementAndGet();
+            return string("word").parse(characters);
+        });
+        Parser<String> parser = or(word.followedBy(isChar('!')), word.followedBy(isChar('?')), word);
+        assertThat(parser.packrat().parse("word?").value(), is("word"));
+        assertThat(count.get(), is(1));
+        assertThat(parser.parse("word?").value(), is("word"));
+        assertThat(count.get(), is(3));
+    }
+
+    @Test
+    public void resultsAreTheSameWhenTheTableIsTiny() throws Exception {
+        ReferenceParser<String> expression = Parsers.reference();
+        expression.set(or(expression.followedBy(isChar('-')).then(pattern("\\d")).map(p -> format("(%s-%s)", p.first(), p.second())),
+                pattern("\\d")));
+        assertThat(Parsers.packrat(expression, 1).parse("1-2-3-4").value(), is("(((1-2)-3)-4)"));
+    }
+
+    @Test
+    public void readersAreParsedWithoutMemorising() throws Exception {
+        Parser<String> parser = string("AB").memorise().packrat();
+        Result<String> result = parser.parse(new StringReader("ABC"));
+        assertThat(result.value(), is("AB"));
+        assertThat(result.remainder().head(), is('C'));
+    }
+}
@@ -1,6 +1,5 @@
 package com.googlecode.totallylazy.parser;
 
-import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
@@ -49,7 +48,6 @@ public class PatternParserTest {
     }
 
     @Test
-    @Ignore("Not sure if this possible")
     public void canWorkWithPatternsEndingWithStar() throws Exception {
         Result<String> result = pattern("[a-zA-Z][_0-9a-zA-Z]*").parse("hello");
         assertThat(result.value(), is("hello"));
@@ -30,6 +30,12 @@ public class StringParserTest {
         assertThat(result.message(), is("ABC expected, D encountered."));
     }
 
+    @Test
+    public void reportsWhatWasReadUpToTheMismatch() throws Exception {
+        assertThat(string("ABC").parse("ABD").message(), is("ABC expected, ABD encountered."));
+        assertThat(string("ABC").parse("AB").message(), is("ABC expected, AB encountered."));
+    }
+
     @Test
     public void supportsRemainder() throws Exception {
         Result<String> result = string("ABC").parse("ABCDEF");
@@ -23,6 +23,23 @@ public class CharacterSegmentTest {
         assertThat(segment.tail().tail().tail().tail().head(), is('o'));
     }
 
+    @Test
+    public void canDropSeveralCharactersAtOnce() throws Exception {
+        CharacterSegment segment = (CharacterSegment) characterSegment("Hello");
+        CharacterSegment rest = segment.drop(3);
+        assertThat(rest.length(), is(2));
+        assertThat(rest.charAt(0), is('l'));
+        assertThat(rest.prefix(2), is("lo"));
+        assertThat(rest, is(characterSegment("lo")));
+        assertThat(rest.drop(2).isEmpty(), is(true));
+        try {
+            rest.drop(3);
+            fail("Should have thrown");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
     @Test
     public void isEmpty() throws Exception {
         Segment<Character> segment = characterSegment("Hello");
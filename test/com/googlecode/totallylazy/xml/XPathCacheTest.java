@@ -0,0 +1,96 @@
+package com.googlecode.totallylazy.xml;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.xml.XPathCache.xpathCache;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class XPathCacheTest {
+    private final Document document = Xml.document("<root><a>1</a><a>2</a><b>3</b></root>");
+
+    @Test
+    public void countsHitsAndMisses() throws Exception {
+        XPathCache cache = xpathCache(10);
+        assertThat(cache.evaluate("count(//a)", document, XPathConstants.NUMBER), is((Object) 2.0));
+        assertThat(cache.evaluate("count(//a)", document, XPathConstants.NUMBER), is((Object) 2.0));
+        assertThat(cache.evaluate("string(//b)", document, XPathConstants.STRING), is((Object) "3"));
+        assertThat(cache.hits(), is(1L));
+        assertThat(cache.misses(), is(2L));
+        assertThat(cache.compilations(), is(2L));
+        assertThat(cache.size(), is(2));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedExpression() throws Exception {
+        XPathCache cache = xpathCache(2);
+        cache.evaluate("1", document, XPathConstants.NUMBER);
+        Thread.sleep(1);
+        cache.evaluate("2", document, XPathConstants.NUMBER);
+        Thread.sleep(1);
+        cache.evaluate("1", document, XPathConstants.NUMBER);
+        Thread.sleep(1);
+        cache.evaluate("3", document, XPathConstants.NUMBER);
+        assertThat(cache.size(), is(2));
+        assertThat(cache.evictions(), is(1L));
+        cache.evaluate("1", document, XPathConstants.NUMBER);
+        assertThat(cache.hits(), is(2L));
+    }
+
+    @Test
+    public void aCapacityOfZeroCompilesEveryTimeAndCachesNothing() throws Exception {
+        for (int capacity : new int[]{0, -1}) {
+            XPathCache cache = xpathCache(capacity);
+            assertThat(cache.evaluate("count(//a)", document, XPathConstants.NUMBER), is((Object) 2.0));
+            assertThat(cache.evaluate("count(//a)", document, XPathConstants.NUMBER), is((Object) 2.0));
+            assertThat(cache.hits(), is(0L));
+            assertThat(cache.misses(), is(2L));
+            assertThat(cache.compilations(), is(2L));
+            assertThat(cache.size(), is(0));
+            assertThat(cache.capacity(), is(0));
+        }
+    }
+
+    @Test
+    public void doesNotCacheExpressionsThatFailToCompile() throws Exception {
+        XPathCache cache = xpathCache(2);
+        try {
+            cache.evaluate("//[", document, XPathConstants.NODESET);
+            throw new AssertionError("Should have failed");
+        } catch (XPathExpressionException e) {
+            assertThat(cache.size(), is(0));
+        }
+    }
+
+    @Test
+    public void sharesExpressionsBetweenThreads() throws Exception {
+        XPathCache cache = xpathCache(10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                String expression = "count(//a) + " + (i % 5);
+                int expected = 2 + i % 5;
+                results.add(executor.submit((Callable<Object>) () -> {
+                    Document own = Xml.document("<root><a>1</a><a>2</a></root>");
+                    return ((Double) cache.evaluate(expression, own, XPathConstants.NUMBER)).intValue() == expected;
+                }));
+            }
+            for (Future<Object> result : results) assertThat(result.get(), is((Object) true));
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(cache.size(), is(5));
+        assertThat(cache.hits() + cache.misses(), is(1000L));
+    }
+}
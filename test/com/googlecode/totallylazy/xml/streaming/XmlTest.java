@@ -4,13 +4,17 @@ import com.googlecode.totallylazy.Maps;
 import com.googlecode.totallylazy.Sequence;
 import com.googlecode.totallylazy.xml.Xml;
 import com.googlecode.totallylazy.functions.TimeReport;
+import com.googlecode.totallylazy.numbers.Numbers;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.w3c.dom.Node;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
+import java.util.Iterator;
 import java.util.Map;
 
 import static com.googlecode.totallylazy.Assert.assertThat;
@@ -26,7 +30,9 @@ import static com.googlecode.totallylazy.xml.streaming.XPath.descendant;
 import static com.googlecode.totallylazy.xml.streaming.XPath.name;
 import static com.googlecode.totallylazy.xml.streaming.XPath.xpath;
 import static com.googlecode.totallylazy.xml.streaming.Xml.contexts;
+import static com.googlecode.totallylazy.xml.streaming.Xml.elements;
 import static com.googlecode.totallylazy.xml.streaming.Xml.nodes;
+import static java.util.Arrays.asList;
 
 public class XmlTest {
     @Test
@@ -166,4 +172,85 @@ public class XmlTest {
         assertThat(Xml.asString(stream.first()), is("<item><child foo=\"bar\"/><child/></item>"));
         assertThat(Xml.asString(stream.second()), is("<item><child/><child baz=\"bar\"/></item>"));
     }
+
+    @Test
+    public void matchesMultipleStepsWithoutBuildingContexts() throws Exception {
+        String xml = "<feed><header><record id='h'/></header><records><record id='1'><name>a</name></record><other><record id='x'/></other><record id='2'/></records></feed>";
+        Sequence<Node> records = nodes(new StringReader(xml), xpath(descendant("records"), child("record")));
+        assertThat(records.map(Xml::asString), is(sequence("<record id=\"1\"><name>a</name></record>", "<record id=\"2\"/>")));
+    }
+
+    @Test
+    public void supportsPredicatesOnAttributes() throws Exception {
+        String xml = "<stream><item type='a'>1</item><item type='b'>2</item></stream>";
+        Sequence<Node> items = nodes(new StringReader(xml), xpath(descendant(name("item").and(attribute("type", is("b"))))));
+        assertThat(items.map(Xml::asString), is(sequence("<item type=\"b\">2</item>")));
+    }
+
+    @Test
+    public void returnsNestedMatchesAfterTheirParent() throws Exception {
+        String xml = "<stream><item id='1'><item id='2'/></item></stream>";
+        Sequence<Node> items = nodes(new StringReader(xml), "item");
+        assertThat(items.map(Xml::asString), is(sequence("<item id=\"1\"><item id=\"2\"/></item>", "<item id=\"2\"/>")));
+    }
+
+    @Test
+    public void streamsLargeDocuments() throws Exception {
+        int records = 100000;
+        Reader feed = new SequenceReader(sequence("<feed>").
+                join(Numbers.range(0, records - 1).map(i -> "<record id='" + i + "'><name>" + i + "</name></record>")).
+                append("</feed>"));
+        assertThat(nodes(feed, "record").forwardOnly().size(), is(records));
+    }
+
+    @Test
+    public void extractsImmutableElementsWithoutADom() throws Exception {
+        String xml = "<stream><user id='1'><first>Dan &amp; Bod</first><dob>1977</dob><tag>a</tag><tag>b</tag></user><user id='2'><first>Jason</first></user></stream>";
+        Sequence<Element> users = elements(new StringReader(xml), "user");
+        assertThat(users.size(), is(2));
+        assertThat(users.first().attributes().get("id"), is("1"));
+        assertThat(users.first().text(), is("Dan & Bod1977ab"));
+        assertThat(users.map(Element::toMap), is(sequence(
+                map("id", "1", "first", "Dan & Bod", "dob", "1977", "tag", asList("a", "b")),
+                map("id", "2", "first", "Jason"))));
+    }
+
+    @Test
+    public void extractsTheSameElementsForAnyPredicate() throws Exception {
+        String xml = "<stream><item a='1'>x<child>y</child>z</item><item><item/></item></stream>";
+        Sequence<Element> compiled = elements(new StringReader(xml), "item");
+        Sequence<Element> viaContexts = elements(new StringReader(xml), context -> context.isElement() && context.name().equals("item"));
+        assertThat(compiled, is(viaContexts));
+        assertThat(compiled.size(), is(3));
+    }
+
+    @Test
+    public void descendantStepsTryEveryAncestorWhenMatchingContextsOrStreaming() throws Exception {
+        String xml = "<a><b><a><c id='1'/></a></b></a>";
+        Path path = xpath(descendant("a"), child("b"), descendant("c"));
+        assertThat(contexts(xml).filter(path).map(context -> context.attributes().get("id")), is(sequence("1")));
+        assertThat(nodes(new StringReader(xml), path).map(Xml::asString), is(sequence("<c id=\"1\"/>")));
+    }
+
+    private static class SequenceReader extends Reader {
+        private final Iterator<String> parts;
+        private StringReader current = new StringReader("");
+
+        private SequenceReader(Sequence<String> parts) {
+            this.parts = parts.iterator();
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int count = current.read(buffer, offset, length);
+            if (count > 0) return count;
+            if (!parts.hasNext()) return -1;
+            current = new StringReader(parts.next());
+            return read(buffer, offset, length);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }